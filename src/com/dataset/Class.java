@@ -12,7 +12,7 @@ import java.util.Arrays;
  * Created by Sina on 15-Dec-21
  *
  * @author Sina
- * @version 0.6
+ * @version 0.8
  */
 public class Class {
     private final int id;
@@ -32,7 +32,8 @@ public class Class {
      *                                the constraints.
      * @param parent                  The parent class of this class. A student who attends this class must also attend
      *                                its parent class. IF THERE IS NO PARENT CLASS, PASS NULL.
-     * @throws IllegalArgumentException If the class id < 1 or the class limit (capacity) < 0.
+     * @throws IllegalArgumentException If the class id < 1 or the class limit (capacity) < 0, or if any of the given
+     *                                  assignments already belongs to another class.
      */
     Class(int id, int limit, RoomAssignment[] possibleRoomAssignments, TimeAssignment[] possibleTimeAssignments,
           Class parent) throws IllegalArgumentException {
@@ -43,6 +44,9 @@ public class Class {
         this.possibleRoomAssignments = possibleRoomAssignments;
         this.possibleTimeAssignments = possibleTimeAssignments;
         this.parent = parent;
+        if (possibleRoomAssignments != null)
+            for (int i = 0; i < possibleRoomAssignments.length; i++) possibleRoomAssignments[i].setIndex(i);
+        for (int i = 0; i < possibleTimeAssignments.length; i++) possibleTimeAssignments[i].setIndex(i);
     }
 
     /**
@@ -59,7 +63,7 @@ public class Class {
      *
      * @return Class limit.
      */
-    int getLimit() {
+    public int getLimit() {
         return limit;
     }
 
@@ -86,7 +90,7 @@ public class Class {
      *
      * @return Parent class.
      */
-    Class getParent() {
+    public Class getParent() {
         return parent;
     }
 
@@ -16,9 +16,9 @@ import java.util.Arrays;
  * Created by Sina on 16-Dec-21
  *
  * @author Sina
- * @version 0.2
+ * @version 0.3
  */
-class Config {
+public class Config {
     private final int id;
     private final Subpart[] subparts;
 
@@ -42,7 +42,7 @@ class Config {
      *
      * @return Config id.
      */
-    int getId() {
+    public int getId() {
         return id;
     }
 
@@ -51,7 +51,7 @@ class Config {
      *
      * @return Subparts.
      */
-    Subpart[] getSubparts() {
+    public Subpart[] getSubparts() {
         return subparts;
     }
 
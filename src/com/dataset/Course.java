@@ -18,9 +18,9 @@ import java.util.Arrays;
  * Created by Sina on 16-Dec-21
  *
  * @author Sina
- * @version 0.3
+ * @version 0.4
  */
-class Course {
+public class Course {
     private final int id;
     private final Config[] configurations;
 
@@ -44,7 +44,7 @@ class Course {
      *
      * @return Course id.
      */
-    int getId() {
+    public int getId() {
         return id;
     }
 
@@ -53,7 +53,7 @@ class Course {
      *
      * @return Configurations.
      */
-    Config[] getConfigurations() {
+    public Config[] getConfigurations() {
         return configurations;
     }
 
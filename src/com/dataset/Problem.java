@@ -0,0 +1,295 @@
+package com.dataset;
+
+import com.dataset.constraints.HardConstraint;
+import com.dataset.constraints.SoftConstraint;
+
+/**
+ * This class represents a problem instance of the ITC 2019 dataset, which is the root (problem) element of the problem
+ * instance XML file. A problem instance consists of its header (name, number of days, weeks, and time slots per day),
+ * the optimization weights of the objective function, the rooms and the travel times between them, the courses (and
+ * their configs, subparts, and classes), the distribution constraints, and the students.
+ * <p>
+ * IMPORTANT: Rooms, classes, courses, and students are stored in arrays indexed by their ids, where item [0]
+ * corresponds to the one with id = 1, item [1] corresponds to the one with id = 2, ..., and item [n - 1] corresponds to
+ * the one with id = n. Therefore, it is assumed that they all have unique and consequent ids.
+ * <p>
+ * All the times of a problem instance (possible times of classes and unavailable times of rooms) are interned, so each
+ * distinct time exists once and is identified by its (dense) id. The lengths of the weeks and days of all the times are
+ * checked against the header once, when the problem instance is constructed, so nrWeeks and nrDays can be used as the
+ * lengths of the weeks and days of any time of the problem instance.
+ * <p>
+ * A problem instance is the immutable context of everything that is solved for it: it owns its rooms, travel times,
+ * classes, constraints, and students, and there is no global state shared between problem instances. Therefore,
+ * several problem instances can be loaded and solved concurrently in one JVM, and a problem instance can be shared
+ * read-only by any number of timetables and threads. The arrays returned by the getters of this class must not be
+ * modified.
+ * <p>
+ * The reverse indexes of a problem instance (constraints, candidate students, parent and child classes of each class,
+ * and candidate classes of each room) are built once, when the problem instance is constructed (see ProblemIndex).
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.6
+ */
+public class Problem {
+    private final String name;
+    private final int nrDays;
+    private final int nrWeeks;
+    private final int slotsPerDay;
+    private final int timeWeight;
+    private final int roomWeight;
+    private final int distributionWeight;
+    private final int studentWeight;
+    private final Time[] times;
+    private final Room[] rooms;
+    private final TravelTime travelTime;
+    private final Course[] courses;
+    private final Class[] classes;
+    private final HardConstraint[] hardConstraints;
+    private final SoftConstraint[] softConstraints;
+    private final Student[] students;
+    private final ProblemIndex index;
+
+    /**
+     * Constructs a problem instance object.
+     * <p>
+     * IMPORTANT: This constructor does not check the validity of the passed rooms, courses, classes, constraints, and
+     * students (only the lengths of the times).
+     *
+     * @param name               The name of the problem instance.
+     * @param nrDays             The number of days in each week.
+     * @param nrWeeks            The number of weeks in the semester.
+     * @param slotsPerDay        The number of time slots in each day.
+     * @param timeWeight         The optimization weight of the time penalties.
+     * @param roomWeight         The optimization weight of the room penalties.
+     * @param distributionWeight The optimization weight of the soft distribution constraint penalties.
+     * @param studentWeight      The optimization weight of the student conflicts.
+     * @param times              All the distinct times, indexed by their ids.
+     * @param rooms              The rooms, indexed by (id - 1).
+     * @param travelTime         The travel times between the rooms.
+     * @param courses            The courses, indexed by (id - 1).
+     * @param classes            The classes of all courses, indexed by (id - 1).
+     * @param hardConstraints    The hard (required) distribution constraints.
+     * @param softConstraints    The soft distribution constraints.
+     * @param students           The students, indexed by (id - 1).
+     * @throws IllegalArgumentException If nrDays, nrWeeks, or slotsPerDay < 1, if any of the weights < 0, or if the
+     *                                  weeks (days) of any time are not of length nrWeeks (nrDays) or a time ends
+     *                                  after slotsPerDay.
+     */
+    Problem(String name, int nrDays, int nrWeeks, int slotsPerDay, int timeWeight, int roomWeight,
+            int distributionWeight, int studentWeight, Time[] times, Room[] rooms, TravelTime travelTime,
+            Course[] courses, Class[] classes, HardConstraint[] hardConstraints, SoftConstraint[] softConstraints,
+            Student[] students) throws IllegalArgumentException {
+        if (nrDays < 1 || nrWeeks < 1 || slotsPerDay < 1)
+            throw new IllegalArgumentException("The number of days, weeks, and slots per day must be > 0.");
+        if (timeWeight < 0 || roomWeight < 0 || distributionWeight < 0 || studentWeight < 0)
+            throw new IllegalArgumentException("Optimization weights cannot be negative.");
+        for (Time time : times)
+            if (time.getWeeksLength() != nrWeeks || time.getDaysLength() != nrDays || time.getEnd() > slotsPerDay)
+                throw new IllegalArgumentException("Time " + time + " does not match the number of weeks (" + nrWeeks
+                        + "), days (" + nrDays + "), or slots per day (" + slotsPerDay + ") of the problem instance.");
+        this.name = name;
+        this.nrDays = nrDays;
+        this.nrWeeks = nrWeeks;
+        this.slotsPerDay = slotsPerDay;
+        this.timeWeight = timeWeight;
+        this.roomWeight = roomWeight;
+        this.distributionWeight = distributionWeight;
+        this.studentWeight = studentWeight;
+        this.times = times;
+        this.rooms = rooms;
+        this.travelTime = travelTime;
+        this.courses = courses;
+        this.classes = classes;
+        this.hardConstraints = hardConstraints;
+        this.softConstraints = softConstraints;
+        this.students = students;
+        index = new ProblemIndex(this);
+    }
+
+    /**
+     * Returns the name of this problem instance.
+     *
+     * @return Instance name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of days in each week.
+     *
+     * @return nrDays.
+     */
+    public int getNrDays() {
+        return nrDays;
+    }
+
+    /**
+     * Returns the number of weeks in the semester.
+     *
+     * @return nrWeeks.
+     */
+    public int getNrWeeks() {
+        return nrWeeks;
+    }
+
+    /**
+     * Returns the number of time slots in each day.
+     *
+     * @return slotsPerDay.
+     */
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+
+    /**
+     * Returns the optimization weight of the time penalties.
+     *
+     * @return Time weight.
+     */
+    public int getTimeWeight() {
+        return timeWeight;
+    }
+
+    /**
+     * Returns the optimization weight of the room penalties.
+     *
+     * @return Room weight.
+     */
+    public int getRoomWeight() {
+        return roomWeight;
+    }
+
+    /**
+     * Returns the optimization weight of the soft distribution constraint penalties.
+     *
+     * @return Distribution weight.
+     */
+    public int getDistributionWeight() {
+        return distributionWeight;
+    }
+
+    /**
+     * Returns the optimization weight of the student conflicts.
+     *
+     * @return Student weight.
+     */
+    public int getStudentWeight() {
+        return studentWeight;
+    }
+
+    /**
+     * Returns all the distinct times of this problem instance, indexed by their ids.
+     *
+     * @return Times.
+     */
+    public Time[] getTimes() {
+        return times;
+    }
+
+    /**
+     * Returns all the rooms of this problem instance, indexed by (id - 1).
+     *
+     * @return Rooms.
+     */
+    public Room[] getRooms() {
+        return rooms;
+    }
+
+    /**
+     * Returns the room with the given id.
+     *
+     * @param id The room id.
+     * @return The room with the given id.
+     * @throws ArrayIndexOutOfBoundsException If there is no room with the given id.
+     */
+    public Room getRoom(int id) throws ArrayIndexOutOfBoundsException {
+        return rooms[id - 1];
+    }
+
+    /**
+     * Returns the travel times between the rooms of this problem instance.
+     *
+     * @return Travel time.
+     */
+    public TravelTime getTravelTime() {
+        return travelTime;
+    }
+
+    /**
+     * Returns all the courses of this problem instance, indexed by (id - 1).
+     *
+     * @return Courses.
+     */
+    public Course[] getCourses() {
+        return courses;
+    }
+
+    /**
+     * Returns all the classes of this problem instance, indexed by (id - 1).
+     *
+     * @return Classes.
+     */
+    public Class[] getClasses() {
+        return classes;
+    }
+
+    /**
+     * Returns the class with the given id.
+     *
+     * @param id The class id.
+     * @return The class with the given id.
+     * @throws ArrayIndexOutOfBoundsException If there is no class with the given id.
+     */
+    public Class getClassById(int id) throws ArrayIndexOutOfBoundsException {
+        return classes[id - 1];
+    }
+
+    /**
+     * Returns all the hard (required) distribution constraints of this problem instance.
+     *
+     * @return Hard constraints.
+     */
+    public HardConstraint[] getHardConstraints() {
+        return hardConstraints;
+    }
+
+    /**
+     * Returns all the soft distribution constraints of this problem instance.
+     *
+     * @return Soft constraints.
+     */
+    public SoftConstraint[] getSoftConstraints() {
+        return softConstraints;
+    }
+
+    /**
+     * Returns all the students of this problem instance, indexed by (id - 1).
+     *
+     * @return Students.
+     */
+    public Student[] getStudents() {
+        return students;
+    }
+
+    /**
+     * Returns the reverse indexes of this problem instance.
+     *
+     * @return Problem index.
+     */
+    public ProblemIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "Problem{" + "name='" + name + '\'' + ", nrDays=" + nrDays + ", nrWeeks=" + nrWeeks + ", slotsPerDay="
+                + slotsPerDay + ", weights=[time=" + timeWeight + ", room=" + roomWeight + ", distribution="
+                + distributionWeight + ", student=" + studentWeight + "], times=" + times.length + ", rooms="
+                + rooms.length + ", courses=" + courses.length + ", classes=" + classes.length + ", hardConstraints="
+                + hardConstraints.length + ", softConstraints=" + softConstraints.length + ", students="
+                + students.length + '}';
+    }
+}
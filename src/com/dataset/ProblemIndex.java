@@ -0,0 +1,271 @@
+package com.dataset;
+
+import com.dataset.constraints.HardConstraint;
+import com.dataset.constraints.SoftConstraint;
+
+import java.util.Arrays;
+
+/**
+ * This class represents the reverse indexes of a problem instance of the ITC 2019 dataset, which answer the question
+ * "what is affected if a class moves?" without scanning the whole problem instance. For each class, it keeps (as
+ * primitive int arrays indexed by (class id - 1)):
+ * <p>
+ * 1) The indexes of the hard and soft distribution constraints that include the class (in the arrays returned by
+ * Problem.getHardConstraints() and Problem.getSoftConstraints());
+ * <p>
+ * 2) The id of the course of the class and the ids of the candidate students of the class, which are the students who
+ * need to attend the course of the class (the same array is shared by all the classes of a course);
+ * <p>
+ * 3) The id of the parent class and the ids of the child classes of the class.
+ * <p>
+ * It also keeps the ids of the classes that can be placed in each room, indexed by (room id - 1), and the unavailable
+ * timeslots of each room and day as a bitmap (5 longs for the 288 timeslots of a day), combined over all the weeks.
+ * These bitmaps only depend on the problem instance, so all the timetables of the problem instance share them (see
+ * RoomOccupancy).
+ * <p>
+ * The indexes are built once, when the problem instance is created, and are immutable. The arrays returned by the
+ * getters of this class must not be modified.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.2
+ */
+public class ProblemIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private final int[][] classHardConstraints;
+    private final int[][] classSoftConstraints;
+    private final int[] classCourse;
+    private final int[][] classStudents;
+    private final int[] classParent;
+    private final int[][] classChildren;
+    private final int[][] roomClasses;
+    private final int nrDays;
+    private final int words;
+    private final long[] roomUnavailable;
+
+    /**
+     * Builds the reverse indexes of the given problem instance.
+     * <p>
+     * Running time = O(c + r + s + n), where c, r, and s are the total numbers of classes in all the constraints,
+     * possible room assignments of all the classes, and courses of all the students, respectively, and n is the
+     * number of classes.
+     *
+     * @param problem The problem instance.
+     */
+    ProblemIndex(Problem problem) {
+        final Class[] classes = problem.getClasses();
+        final int classNo = classes.length;
+
+        HardConstraint[] hardConstraints = problem.getHardConstraints();
+        int[] counts = new int[classNo];
+        for (HardConstraint constraint : hardConstraints)
+            for (Class aClass : constraint.getConstraint().getClasses()) counts[aClass.getId() - 1]++;
+        classHardConstraints = allocate(counts);
+        for (int i = 0; i < hardConstraints.length; i++)
+            for (Class aClass : hardConstraints[i].getConstraint().getClasses())
+                add(classHardConstraints, counts, aClass.getId() - 1, i);
+
+        SoftConstraint[] softConstraints = problem.getSoftConstraints();
+        Arrays.fill(counts, 0);
+        for (SoftConstraint constraint : softConstraints)
+            for (Class aClass : constraint.getConstraint().getClasses()) counts[aClass.getId() - 1]++;
+        classSoftConstraints = allocate(counts);
+        for (int i = 0; i < softConstraints.length; i++)
+            for (Class aClass : softConstraints[i].getConstraint().getClasses())
+                add(classSoftConstraints, counts, aClass.getId() - 1, i);
+
+        final Course[] courses = problem.getCourses();
+        int[] courseCounts = new int[courses.length];
+        for (Student student : problem.getStudents())
+            for (Course course : student.getCourses()) courseCounts[course.getId() - 1]++;
+        int[][] courseStudents = allocate(courseCounts);
+        for (Student student : problem.getStudents())
+            for (Course course : student.getCourses())
+                add(courseStudents, courseCounts, course.getId() - 1, student.getId());
+        classCourse = new int[classNo];
+        classStudents = new int[classNo][];
+        Arrays.fill(classStudents, EMPTY);
+        for (Course course : courses)
+            for (Config config : course.getConfigurations())
+                for (Subpart subpart : config.getSubparts())
+                    for (Class aClass : subpart.getClasses()) {
+                        classCourse[aClass.getId() - 1] = course.getId();
+                        classStudents[aClass.getId() - 1] = courseStudents[course.getId() - 1];
+                    }
+
+        classParent = new int[classNo];
+        Arrays.fill(counts, 0);
+        for (Class aClass : classes)
+            if (aClass.getParent() != null) {
+                classParent[aClass.getId() - 1] = aClass.getParent().getId();
+                counts[aClass.getParent().getId() - 1]++;
+            }
+        classChildren = allocate(counts);
+        for (Class aClass : classes)
+            if (aClass.getParent() != null)
+                add(classChildren, counts, aClass.getParent().getId() - 1, aClass.getId());
+
+        int[] roomCounts = new int[problem.getRooms().length];
+        for (Class aClass : classes)
+            if (aClass.requiresRoom())
+                for (RoomAssignment roomAssignment : aClass.getPossibleRoomAssignments())
+                    roomCounts[roomAssignment.getRoom().getId() - 1]++;
+        roomClasses = allocate(roomCounts);
+        for (Class aClass : classes)
+            if (aClass.requiresRoom())
+                for (RoomAssignment roomAssignment : aClass.getPossibleRoomAssignments())
+                    add(roomClasses, roomCounts, roomAssignment.getRoom().getId() - 1, aClass.getId());
+
+        nrDays = problem.getNrDays();
+        words = (problem.getSlotsPerDay() + 63) >>> 6;
+        roomUnavailable = new long[problem.getRooms().length * nrDays * words];
+        for (Room room : problem.getRooms())
+            for (Time time : room.getUnavailable()) {
+                final int offset = (room.getId() - 1) * nrDays * words;
+                for (long d = time.getDaysMask(); d != 0; d &= d - 1) {
+                    final int day = Long.numberOfTrailingZeros(d);
+                    if (day >= nrDays) break;
+                    for (int word = 0; word < words; word++)
+                        roomUnavailable[offset + day * words + word] |= time.getSlotMask(word);
+                }
+            }
+    }
+
+    /**
+     * Returns the indexes of the hard constraints (in Problem.getHardConstraints()) that include the given class.
+     *
+     * @param classId The class id.
+     * @return Hard constraint indexes.
+     * @throws ArrayIndexOutOfBoundsException If there is no class with the given id.
+     */
+    public int[] getHardConstraints(int classId) throws ArrayIndexOutOfBoundsException {
+        return classHardConstraints[classId - 1];
+    }
+
+    /**
+     * Returns the indexes of the soft constraints (in Problem.getSoftConstraints()) that include the given class.
+     *
+     * @param classId The class id.
+     * @return Soft constraint indexes.
+     * @throws ArrayIndexOutOfBoundsException If there is no class with the given id.
+     */
+    public int[] getSoftConstraints(int classId) throws ArrayIndexOutOfBoundsException {
+        return classSoftConstraints[classId - 1];
+    }
+
+    /**
+     * Returns the id of the course of the given class.
+     *
+     * @param classId The class id.
+     * @return Course id.
+     * @throws ArrayIndexOutOfBoundsException If there is no class with the given id.
+     */
+    public int getCourse(int classId) throws ArrayIndexOutOfBoundsException {
+        return classCourse[classId - 1];
+    }
+
+    /**
+     * Returns the ids of the candidate students of the given class, which are the students who need to attend the
+     * course of the given class. A student is listed once for each time the course appears in the student's courses.
+     *
+     * @param classId The class id.
+     * @return Candidate student ids.
+     * @throws ArrayIndexOutOfBoundsException If there is no class with the given id.
+     */
+    public int[] getStudents(int classId) throws ArrayIndexOutOfBoundsException {
+        return classStudents[classId - 1];
+    }
+
+    /**
+     * Returns the id of the parent class of the given class.
+     *
+     * @param classId The class id.
+     * @return Parent class id. Returns 0 if the given class has no parent.
+     * @throws ArrayIndexOutOfBoundsException If there is no class with the given id.
+     */
+    public int getParent(int classId) throws ArrayIndexOutOfBoundsException {
+        return classParent[classId - 1];
+    }
+
+    /**
+     * Returns the ids of the classes whose parent is the given class.
+     *
+     * @param classId The class id.
+     * @return Child class ids.
+     * @throws ArrayIndexOutOfBoundsException If there is no class with the given id.
+     */
+    public int[] getChildren(int classId) throws ArrayIndexOutOfBoundsException {
+        return classChildren[classId - 1];
+    }
+
+    /**
+     * Returns the ids of the classes that have the given room in their possible room assignments.
+     *
+     * @param roomId The room id.
+     * @return Class ids.
+     * @throws ArrayIndexOutOfBoundsException If there is no room with the given id.
+     */
+    public int[] getRoomClasses(int roomId) throws ArrayIndexOutOfBoundsException {
+        return roomClasses[roomId - 1];
+    }
+
+    /**
+     * Checks if the given time might overlap with an unavailable time of the given room. The check is done on the
+     * unavailable timeslots of the room combined over all the weeks, so a false result is exact, while a true result
+     * must be confirmed against the unavailable times of the room (see Room.getUnavailable() and Time.overlaps()).
+     * <p>
+     * Running time = O(d), where d is the number of days of the given time.
+     *
+     * @param roomId The room id.
+     * @param time   The time.
+     * @return True if the time might overlap with an unavailable time of the room, and false if it cannot.
+     * @throws ArrayIndexOutOfBoundsException If there is no room with the given id.
+     */
+    public boolean mayBeUnavailable(int roomId, Time time) throws ArrayIndexOutOfBoundsException {
+        if (time.getLength() == 0) return false;
+        final int offset = (roomId - 1) * nrDays * words, first = time.getStart() >>> 6;
+        final int last = Math.min((time.getEnd() - 1) >>> 6, words - 1);
+        for (long d = time.getDaysMask(); d != 0; d &= d - 1) {
+            final int day = Long.numberOfTrailingZeros(d);
+            if (day >= nrDays) break;
+            for (int word = first; word <= last; word++)
+                if ((roomUnavailable[offset + day * words + word] & time.getSlotMask(word)) != 0) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "ProblemIndex{" + "classes=" + classCourse.length + ", rooms=" + roomClasses.length + '}';
+    }
+
+    /**
+     * Allocates an array for each of the given counts and resets the counts to 0, so they can be used as the fill
+     * positions of add(). Once all the values are added, the counts are back to the array lengths.
+     *
+     * @param counts The number of items of each array.
+     * @return The allocated arrays.
+     */
+    private static int[][] allocate(int[] counts) {
+        int[][] arrays = new int[counts.length][];
+        for (int i = 0; i < counts.length; i++) {
+            arrays[i] = counts[i] == 0 ? EMPTY : new int[counts[i]];
+            counts[i] = 0;
+        }
+        return arrays;
+    }
+
+    /**
+     * Appends the given value to the array with the given index.
+     *
+     * @param arrays    The arrays allocated by allocate().
+     * @param positions The fill positions of the arrays.
+     * @param index     The array index.
+     * @param value     The value to be appended.
+     */
+    private static void add(int[][] arrays, int[] positions, int index, int value) {
+        arrays[index][positions[index]++] = value;
+    }
+}
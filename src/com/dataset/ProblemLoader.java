@@ -0,0 +1,643 @@
+package com.dataset;
+
+import com.dataset.constraints.DistributionConstraint;
+import com.dataset.constraints.HardConstraint;
+import com.dataset.constraints.PairCompatibility;
+import com.dataset.constraints.SoftConstraint;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class loads a problem instance of the ITC 2019 dataset from its XML file. The file is read in a single pass
+ * with a streaming (StAX) parser, so the XML tree is never held in memory and the model objects (rooms, travel times,
+ * courses, configs, subparts, classes, distribution constraints, and students) are built straight from the parser
+ * events.
+ * <p>
+ * All the times (possible times of classes and unavailable times of rooms) are interned in a single TimePool while
+ * loading, so each distinct time is created once.
+ * <p>
+ * Each call of load creates a new, independent problem instance (with its own travel times, rooms, and constraints),
+ * so several problem instances can be loaded and used at the same time in one JVM.
+ * <p>
+ * After loading, the compatibility bit-matrices of the pair distribution constraints are compiled within a memory
+ * budget (see PairCompatibility), which can be changed (or disabled) by setCompatibilityBudget.
+ * <p>
+ * The loader also measures the load time and the peak heap usage of each section (rooms, courses, distributions, and
+ * students) of the last loaded file, which can be retrieved by getReport(). The peak heap usage is read from the heap
+ * memory pools of the JVM, which are reset at the start of each section. Therefore, these numbers are only meaningful
+ * when no other instance is loaded at the same time.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.3
+ */
+public class ProblemLoader {
+    private static final String[] SECTIONS = {"rooms", "courses", "distributions", "students"};
+    private static final int ROOMS = 0, COURSES = 1, DISTRIBUTIONS = 2, STUDENTS = 3;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final XMLInputFactory factory;
+    private final long[] sectionNanos = new long[SECTIONS.length];
+    private final long[] sectionPeakHeap = new long[SECTIONS.length];
+    private long sectionStart, totalNanos;
+    private TimePool timePool = new TimePool();
+    private long compatibilityBudget = PairCompatibility.DEFAULT_BUDGET;
+    private PairCompatibility compatibility;
+
+    /**
+     * Constructs a problem instance loader.
+     */
+    public ProblemLoader() {
+        factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    }
+
+    /**
+     * Loads the problem instance from the given XML file.
+     *
+     * @param file The path to the problem instance XML file.
+     * @return The loaded problem instance.
+     * @throws IOException              If the file cannot be read.
+     * @throws XMLStreamException       If the file is not a well-formed XML file.
+     * @throws IllegalArgumentException If the content of the file is not a valid ITC 2019 problem instance.
+     */
+    public Problem load(Path file) throws IOException, XMLStreamException, IllegalArgumentException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            return load(in);
+        }
+    }
+
+    /**
+     * Loads the problem instance from the given XML input stream. The stream is not closed by this method.
+     *
+     * @param in The input stream of the problem instance XML.
+     * @return The loaded problem instance.
+     * @throws XMLStreamException       If the stream is not a well-formed XML.
+     * @throws IllegalArgumentException If the content of the stream is not a valid ITC 2019 problem instance.
+     */
+    public Problem load(InputStream in) throws XMLStreamException, IllegalArgumentException {
+        Arrays.fill(sectionNanos, 0);
+        Arrays.fill(sectionPeakHeap, 0);
+        timePool = new TimePool();
+        compatibility = null;
+        final long start = System.nanoTime();
+        XMLStreamReader reader = factory.createXMLStreamReader(in);
+        try {
+            String name = null;
+            int nrDays = 0, nrWeeks = 0, slotsPerDay = 0;
+            int timeWeight = 0, roomWeight = 0, distributionWeight = 0, studentWeight = 0;
+            Room[] rooms = new Room[0];
+            TravelTime travelTime = new TravelTime(0);
+            Course[] courses = new Course[0];
+            Class[] classes = new Class[0];
+            HardConstraint[] hardConstraints = new HardConstraint[0];
+            SoftConstraint[] softConstraints = new SoftConstraint[0];
+            Student[] students = new Student[0];
+            ArrayList<HardConstraint> hardList = new ArrayList<>();
+            ArrayList<SoftConstraint> softList = new ArrayList<>();
+
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+                switch (reader.getLocalName()) {
+                    case "problem":
+                        name = reader.getAttributeValue(null, "name");
+                        nrDays = intAttribute(reader, "nrDays");
+                        nrWeeks = intAttribute(reader, "nrWeeks");
+                        slotsPerDay = intAttribute(reader, "slotsPerDay");
+                        break;
+                    case "optimization":
+                        timeWeight = intAttribute(reader, "time", 0);
+                        roomWeight = intAttribute(reader, "room", 0);
+                        distributionWeight = intAttribute(reader, "distribution", 0);
+                        studentWeight = intAttribute(reader, "student", 0);
+                        break;
+                    case "rooms":
+                        startSection();
+                        ArrayList<Room> roomList = new ArrayList<>();
+                        int[] travels = readRooms(reader, timePool, roomList);
+                        rooms = indexById(roomList, Room::getId, Room[]::new, "Room");
+                        travelTime = new TravelTime(rooms.length);
+                        for (int i = 1; i < travels[0]; i += 3)
+                            travelTime.setTravelTime(travels[i], travels[i + 1], travels[i + 2]);
+                        travelTime.compact();
+                        endSection(ROOMS);
+                        break;
+                    case "courses":
+                        startSection();
+                        ArrayList<Course> courseList = new ArrayList<>();
+                        ArrayList<Class> classList = new ArrayList<>();
+                        readCourses(reader, timePool, rooms, courseList, classList);
+                        courses = indexById(courseList, Course::getId, Course[]::new, "Course");
+                        classes = indexById(classList, Class::getId, Class[]::new, "Class");
+                        endSection(COURSES);
+                        break;
+                    case "distributions":
+                        startSection();
+                        readDistributions(reader, classes, travelTime, hardList, softList);
+                        hardConstraints = hardList.toArray(new HardConstraint[0]);
+                        softConstraints = softList.toArray(new SoftConstraint[0]);
+                        endSection(DISTRIBUTIONS);
+                        break;
+                    case "students":
+                        startSection();
+                        ArrayList<Student> studentList = new ArrayList<>();
+                        readStudents(reader, courses, studentList);
+                        students = indexById(studentList, Student::getId, Student[]::new, "Student");
+                        endSection(STUDENTS);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (name == null) throw new IllegalArgumentException("The given XML does not contain a problem element.");
+            Problem problem = new Problem(name, nrDays, nrWeeks, slotsPerDay, timeWeight, roomWeight,
+                    distributionWeight, studentWeight, timePool.toArray(), rooms, travelTime, courses, classes,
+                    hardConstraints, softConstraints, students);
+            compatibility = PairCompatibility.compile(problem, compatibilityBudget);
+            return problem;
+        } finally {
+            reader.close();
+            totalNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Returns a human-readable report of the load time and the peak heap usage of each section of the last loaded
+     * problem instance.
+     *
+     * @return Load report.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < SECTIONS.length; i++)
+            report.append(String.format("%-14s %10.1f ms   peak heap %8.1f MB%n", SECTIONS[i],
+                    sectionNanos[i] / 1e6, sectionPeakHeap[i] / (1024.0 * 1024.0)));
+        report.append(String.format("%-14s %10.1f ms%n", "total", totalNanos / 1e6));
+        report.append(String.format("%-14s %d distinct of %d (%.1f MB saved)%n", "times", timePool.size(),
+                timePool.getRequestCount(), timePool.getSavedBytes() / (1024.0 * 1024.0)));
+        if (compatibility != null)
+            report.append(String.format("%-14s %d of %d pair constraints (%.1f MB, %.1f ms)%n", "compatibility",
+                    compatibility.getCompiledNo(), compatibility.getConstraintNo(),
+                    compatibility.getBytes() / (1024.0 * 1024.0), compatibility.getNanos() / 1e6));
+        return report.toString();
+    }
+
+    /**
+     * Returns the time pool of the last loaded problem instance, which reports how many distinct times were created
+     * and how much heap was saved by interning them.
+     *
+     * @return Time pool.
+     */
+    public TimePool getTimePool() {
+        return timePool;
+    }
+
+    /**
+     * Sets the memory budget of the compatibility matrices of the pair constraints of the problem instances loaded
+     * after this call (see PairCompatibility). The default budget is PairCompatibility.DEFAULT_BUDGET.
+     *
+     * @param budgetBytes The memory budget in bytes. 0 disables the compatibility matrices.
+     * @throws IllegalArgumentException If the given budget is negative.
+     */
+    public void setCompatibilityBudget(long budgetBytes) throws IllegalArgumentException {
+        if (budgetBytes < 0) throw new IllegalArgumentException("Budget cannot be negative: " + budgetBytes);
+        compatibilityBudget = budgetBytes;
+    }
+
+    /**
+     * Returns the load time of the given section of the last loaded problem instance.
+     *
+     * @param section The section name (rooms, courses, distributions, or students).
+     * @return Load time in nanoseconds.
+     * @throws IllegalArgumentException If the given section name is unknown.
+     */
+    public long getSectionNanos(String section) throws IllegalArgumentException {
+        return sectionNanos[sectionIndex(section)];
+    }
+
+    /**
+     * Returns the peak heap usage measured while loading the given section of the last loaded problem instance.
+     *
+     * @param section The section name (rooms, courses, distributions, or students).
+     * @return Peak heap usage in bytes.
+     * @throws IllegalArgumentException If the given section name is unknown.
+     */
+    public long getSectionPeakHeap(String section) throws IllegalArgumentException {
+        return sectionPeakHeap[sectionIndex(section)];
+    }
+
+    /**
+     * Reads the rooms element. The travel times are returned as a flat array of (room id, other room id, value)
+     * triples, where the first item of the array is the number of used items (including itself), because the travel
+     * time matrix can only be created once the number of rooms is known.
+     *
+     * @param reader   The XML reader positioned on the rooms start element.
+     * @param timePool The time pool of the problem instance.
+     * @param roomList The list to which the read rooms are added.
+     * @return The travel time triples.
+     * @throws XMLStreamException If the XML is not well-formed.
+     */
+    private static int[] readRooms(XMLStreamReader reader, TimePool timePool, ArrayList<Room> roomList)
+            throws XMLStreamException {
+        int[] travels = new int[1 + 3 * 64];
+        travels[0] = 1;
+        ArrayList<Time> unavailable = new ArrayList<>();
+        int roomId = 0, capacity = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "room":
+                        roomId = intAttribute(reader, "id");
+                        capacity = intAttribute(reader, "capacity");
+                        unavailable.clear();
+                        break;
+                    case "travel":
+                        if (travels[0] + 3 > travels.length) travels = Arrays.copyOf(travels, travels.length * 2);
+                        travels[travels[0]] = roomId;
+                        travels[travels[0] + 1] = intAttribute(reader, "room");
+                        travels[travels[0] + 2] = intAttribute(reader, "value");
+                        travels[0] += 3;
+                        break;
+                    case "unavailable":
+                        unavailable.add(readTime(reader, timePool));
+                        break;
+                    default:
+                        break;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (reader.getLocalName().equals("room"))
+                    roomList.add(new Room(roomId, capacity, unavailable.toArray(new Time[0])));
+                else if (reader.getLocalName().equals("rooms")) break;
+            }
+        }
+        return travels;
+    }
+
+    /**
+     * Reads the courses element. Classes are only created once their whole course is read, so that the parent of a
+     * class is always created before the class itself regardless of the order of the classes in the file.
+     *
+     * @param reader     The XML reader positioned on the courses start element.
+     * @param timePool   The time pool of the problem instance.
+     * @param rooms      The rooms of the problem instance, indexed by (id - 1).
+     * @param courseList The list to which the read courses are added.
+     * @param classList  The list to which the classes of the read courses are added.
+     * @throws XMLStreamException       If the XML is not well-formed.
+     * @throws IllegalArgumentException If a class refers to an unknown room or parent class.
+     */
+    private static void readCourses(XMLStreamReader reader, TimePool timePool, Room[] rooms,
+                                    ArrayList<Course> courseList, ArrayList<Class> classList)
+            throws XMLStreamException, IllegalArgumentException {
+        int courseId = 0;
+        ArrayList<ConfigSpec> configs = new ArrayList<>();
+        HashMap<Integer, ClassSpec> classSpecs = new HashMap<>();
+        ConfigSpec config = null;
+        SubpartSpec subpart = null;
+        ClassSpec spec = null;
+        ArrayList<RoomAssignment> roomAssignments = new ArrayList<>();
+        ArrayList<TimeAssignment> timeAssignments = new ArrayList<>();
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "course":
+                        courseId = intAttribute(reader, "id");
+                        configs.clear();
+                        classSpecs.clear();
+                        break;
+                    case "config":
+                        config = new ConfigSpec(intAttribute(reader, "id"));
+                        configs.add(config);
+                        break;
+                    case "subpart":
+                        subpart = new SubpartSpec(intAttribute(reader, "id"));
+                        if (config == null) throw new IllegalArgumentException("Subpart outside of a config.");
+                        config.subparts.add(subpart);
+                        break;
+                    case "class":
+                        spec = new ClassSpec(intAttribute(reader, "id"), intAttribute(reader, "limit"),
+                                intAttribute(reader, "parent", 0),
+                                !"false".equals(reader.getAttributeValue(null, "room")));
+                        if (subpart == null) throw new IllegalArgumentException("Class outside of a subpart.");
+                        subpart.classes.add(spec);
+                        classSpecs.put(spec.id, spec);
+                        roomAssignments.clear();
+                        timeAssignments.clear();
+                        break;
+                    case "room":
+                        int roomId = intAttribute(reader, "id");
+                        if (roomId < 1 || roomId > rooms.length)
+                            throw new IllegalArgumentException("Class refers to an unknown room id: " + roomId);
+                        roomAssignments.add(new RoomAssignment(rooms[roomId - 1], intAttribute(reader, "penalty", 0)));
+                        break;
+                    case "time":
+                        timeAssignments.add(new TimeAssignment(readTime(reader, timePool),
+                                intAttribute(reader, "penalty", 0)));
+                        break;
+                    default:
+                        break;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "class":
+                        spec.roomAssignments = spec.requiresRoom && !roomAssignments.isEmpty()
+                                ? roomAssignments.toArray(new RoomAssignment[0]) : null;
+                        spec.timeAssignments = timeAssignments.toArray(new TimeAssignment[0]);
+                        break;
+                    case "course":
+                        Config[] builtConfigs = new Config[configs.size()];
+                        for (int i = 0; i < builtConfigs.length; i++) {
+                            ConfigSpec configSpec = configs.get(i);
+                            Subpart[] subparts = new Subpart[configSpec.subparts.size()];
+                            for (int j = 0; j < subparts.length; j++) {
+                                SubpartSpec subpartSpec = configSpec.subparts.get(j);
+                                Class[] classes = new Class[subpartSpec.classes.size()];
+                                for (int k = 0; k < classes.length; k++)
+                                    classes[k] = buildClass(subpartSpec.classes.get(k), classSpecs, classList);
+                                subparts[j] = new Subpart(subpartSpec.id, classes);
+                            }
+                            builtConfigs[i] = new Config(configSpec.id, subparts);
+                        }
+                        courseList.add(new Course(courseId, builtConfigs));
+                        config = null;
+                        subpart = null;
+                        break;
+                    case "courses":
+                        return;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the class of the given specification, creating its parent class first if needed.
+     *
+     * @param spec       The class specification.
+     * @param classSpecs The specifications of all classes of the course, mapped by their ids.
+     * @param classList  The list to which newly created classes are added.
+     * @return The created class.
+     * @throws IllegalArgumentException If the parent class is not in the same course or the parents form a cycle.
+     */
+    private static Class buildClass(ClassSpec spec, HashMap<Integer, ClassSpec> classSpecs,
+                                    ArrayList<Class> classList) throws IllegalArgumentException {
+        if (spec.built != null) return spec.built;
+        if (spec.building) throw new IllegalArgumentException("Cyclic parent relation for class id: " + spec.id);
+        spec.building = true;
+        Class parent = null;
+        if (spec.parentId != 0) {
+            ClassSpec parentSpec = classSpecs.get(spec.parentId);
+            if (parentSpec == null)
+                throw new IllegalArgumentException("Class " + spec.id + " refers to an unknown parent class id: "
+                        + spec.parentId);
+            parent = buildClass(parentSpec, classSpecs, classList);
+        }
+        spec.built = new Class(spec.id, spec.limit, spec.roomAssignments, spec.timeAssignments, parent);
+        classList.add(spec.built);
+        return spec.built;
+    }
+
+    /**
+     * Reads the distributions element and creates its hard and soft distribution constraints.
+     *
+     * @param reader     The XML reader positioned on the distributions start element.
+     * @param classes    The classes of the problem instance, indexed by (id - 1).
+     * @param travelTime The travel times between the rooms of the problem instance.
+     * @param hardList   The list to which the hard (required) constraints are added.
+     * @param softList   The list to which the soft constraints are added.
+     * @throws XMLStreamException       If the XML is not well-formed.
+     * @throws IllegalArgumentException If a constraint refers to an unknown class or has an unknown type.
+     */
+    private static void readDistributions(XMLStreamReader reader, Class[] classes, TravelTime travelTime,
+                                          ArrayList<HardConstraint> hardList, ArrayList<SoftConstraint> softList)
+            throws XMLStreamException, IllegalArgumentException {
+        String type = null;
+        boolean required = false;
+        int penalty = 0;
+        ArrayList<Class> constraintClasses = new ArrayList<>();
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (reader.getLocalName().equals("distribution")) {
+                    type = reader.getAttributeValue(null, "type");
+                    required = "true".equals(reader.getAttributeValue(null, "required"));
+                    penalty = intAttribute(reader, "penalty", 0);
+                    constraintClasses.clear();
+                } else if (reader.getLocalName().equals("class")) {
+                    int classId = intAttribute(reader, "id");
+                    if (classId < 1 || classId > classes.length)
+                        throw new IllegalArgumentException("Distribution refers to an unknown class id: " + classId);
+                    constraintClasses.add(classes[classId - 1]);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (reader.getLocalName().equals("distribution")) {
+                    if (type == null) throw new IllegalArgumentException("Distribution without a type.");
+                    DistributionConstraint constraint = DistributionConstraint.create(type,
+                            constraintClasses.toArray(new Class[0]), travelTime);
+                    if (required) hardList.add(new HardConstraint(constraint));
+                    else softList.add(new SoftConstraint(constraint, penalty));
+                } else if (reader.getLocalName().equals("distributions")) return;
+            }
+        }
+    }
+
+    /**
+     * Reads the students element.
+     *
+     * @param reader      The XML reader positioned on the students start element.
+     * @param courses     The courses of the problem instance, indexed by (id - 1).
+     * @param studentList The list to which the read students are added.
+     * @throws XMLStreamException       If the XML is not well-formed.
+     * @throws IllegalArgumentException If a student refers to an unknown course.
+     */
+    private static void readStudents(XMLStreamReader reader, Course[] courses, ArrayList<Student> studentList)
+            throws XMLStreamException, IllegalArgumentException {
+        int studentId = 0;
+        ArrayList<Course> studentCourses = new ArrayList<>();
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (reader.getLocalName().equals("student")) {
+                    studentId = intAttribute(reader, "id");
+                    studentCourses.clear();
+                } else if (reader.getLocalName().equals("course")) {
+                    int courseId = intAttribute(reader, "id");
+                    if (courseId < 1 || courseId > courses.length)
+                        throw new IllegalArgumentException("Student refers to an unknown course id: " + courseId);
+                    studentCourses.add(courses[courseId - 1]);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (reader.getLocalName().equals("student"))
+                    studentList.add(new Student(studentId, studentCourses.toArray(new Course[0])));
+                else if (reader.getLocalName().equals("students")) return;
+            }
+        }
+    }
+
+    /**
+     * Reads a time (days, start, length, and weeks attributes) from the current element and interns it.
+     *
+     * @param reader   The XML reader positioned on an element with time attributes.
+     * @param timePool The time pool of the problem instance.
+     * @return The canonical time.
+     */
+    private static Time readTime(XMLStreamReader reader, TimePool timePool) {
+        return timePool.intern(reader.getAttributeValue(null, "weeks"), reader.getAttributeValue(null, "days"),
+                intAttribute(reader, "start"), intAttribute(reader, "length"));
+    }
+
+    /**
+     * Returns the value of the given required int attribute of the current element.
+     *
+     * @param reader The XML reader positioned on a start element.
+     * @param name   The attribute name.
+     * @return The attribute value.
+     * @throws IllegalArgumentException If the attribute is missing or is not an int.
+     */
+    private static int intAttribute(XMLStreamReader reader, String name) throws IllegalArgumentException {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null)
+            throw new IllegalArgumentException("Missing attribute " + name + " in element " + reader.getLocalName()
+                    + '.');
+        return Integer.parseInt(value);
+    }
+
+    /**
+     * Returns the value of the given optional int attribute of the current element.
+     *
+     * @param reader       The XML reader positioned on a start element.
+     * @param name         The attribute name.
+     * @param defaultValue The value returned if the attribute is missing.
+     * @return The attribute value, or the default value if it is missing.
+     * @throws IllegalArgumentException If the attribute is not an int.
+     */
+    private static int intAttribute(XMLStreamReader reader, String name, int defaultValue)
+            throws IllegalArgumentException {
+        String value = reader.getAttributeValue(null, name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * Places the given items in an array indexed by (id - 1).
+     *
+     * @param items    The items.
+     * @param idOf     The function returning the id of an item.
+     * @param newArray The array constructor.
+     * @param kind     The name of the item type (used in error messages).
+     * @param <T>      The item type.
+     * @return The array of the items, indexed by (id - 1).
+     * @throws IllegalArgumentException If the ids are not unique and consequent (1, 2, ..., n).
+     */
+    private static <T> T[] indexById(List<T> items, ToIntFunction<T> idOf, IntFunction<T[]> newArray, String kind)
+            throws IllegalArgumentException {
+        T[] array = newArray.apply(items.size());
+        for (T item : items) {
+            int id = idOf.applyAsInt(item);
+            if (id > array.length || array[id - 1] != null)
+                throw new IllegalArgumentException(kind + " ids must be unique and consequent (1, 2, ..., n). "
+                        + "Invalid id: " + id);
+            array[id - 1] = item;
+        }
+        return array;
+    }
+
+    /**
+     * Starts measuring a section by resetting the peak usage of all heap memory pools.
+     */
+    private void startSection() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        sectionStart = System.nanoTime();
+    }
+
+    /**
+     * Stops measuring the given section and stores its load time and peak heap usage.
+     *
+     * @param section The index of the section.
+     */
+    private void endSection(int section) {
+        sectionNanos[section] = System.nanoTime() - sectionStart;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) peak += pool.getPeakUsage().getUsed();
+        sectionPeakHeap[section] = peak;
+    }
+
+    /**
+     * Returns the index of the given section name.
+     *
+     * @param section The section name.
+     * @return The section index.
+     * @throws IllegalArgumentException If the given section name is unknown.
+     */
+    private static int sectionIndex(String section) throws IllegalArgumentException {
+        for (int i = 0; i < SECTIONS.length; i++)
+            if (SECTIONS[i].equals(section)) return i;
+        throw new IllegalArgumentException("Unknown section: " + section);
+    }
+
+    /**
+     * The specification of a class that is read but not created yet.
+     */
+    private static class ClassSpec {
+        private final int id, limit, parentId;
+        private final boolean requiresRoom;
+        private RoomAssignment[] roomAssignments;
+        private TimeAssignment[] timeAssignments;
+        private Class built;
+        private boolean building;
+
+        private ClassSpec(int id, int limit, int parentId, boolean requiresRoom) {
+            this.id = id;
+            this.limit = limit;
+            this.parentId = parentId;
+            this.requiresRoom = requiresRoom;
+        }
+    }
+
+    /**
+     * The specification of a subpart that is read but not created yet.
+     */
+    private static class SubpartSpec {
+        private final int id;
+        private final ArrayList<ClassSpec> classes = new ArrayList<>();
+
+        private SubpartSpec(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * The specification of a config that is read but not created yet.
+     */
+    private static class ConfigSpec {
+        private final int id;
+        private final ArrayList<SubpartSpec> subparts = new ArrayList<>();
+
+        private ConfigSpec(int id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.dataset;
+
+import com.dataset.constraints.DistributionConstraint;
+import com.dataset.constraints.HardConstraint;
+import com.dataset.constraints.PairCompatibility;
+import com.dataset.constraints.SoftConstraint;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * This class saves a fully resolved problem instance to a compact binary snapshot file and loads it back. Loading a
+ * snapshot skips XML parsing completely: the file is memory-mapped (MappedByteBuffer) and the model objects are
+ * rebuilt straight from the mapped bytes.
+ * <p>
+ * The snapshot consists of the following sections, in order: the header (magic number, format version, instance name,
+ * nrDays, nrWeeks, slotsPerDay, and optimization weights), the distinct times (as bit masks, indexed by their ids, so
+ * every other section refers to times by id), the rooms (with their unavailable times), the non-zero travel times, the
+ * classes (ordered so that every parent is written before its children, with their possible room and time
+ * assignments), the course structure (configs and subparts referring to class ids), the hard and soft
+ * distribution constraints (their ITC 2019 type and class ids), and the students (referring to course ids), followed
+ * by the CRC-32 checksum of all the preceding bytes. All numbers are stored as big-endian ints (bit masks as longs)
+ * and all strings as UTF-8 bytes preceded by their length.
+ * <p>
+ * A snapshot is read defensively: a truncated or corrupt file is reported as an IOException, never as a runtime
+ * exception of the decoding. The checksum is verified before decoding, so corrupt values that would still decode
+ * (e.g., a flipped bit of a penalty) are rejected as well.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.6
+ */
+public class ProblemSnapshot {
+    private static final int MAGIC = 0x49544353;                                                                // ITCS
+    private static final int VERSION = 3;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private ProblemSnapshot() {
+    }
+
+    /**
+     * Writes the given problem instance to the given snapshot file. An existing file is overwritten.
+     *
+     * @param problem The problem instance.
+     * @param file    The path to the snapshot file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Problem problem, Path file) throws IOException {
+        try (CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file), BUFFER_SIZE), new CRC32());
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, problem.getName());
+            out.writeInt(problem.getNrDays());
+            out.writeInt(problem.getNrWeeks());
+            out.writeInt(problem.getSlotsPerDay());
+            out.writeInt(problem.getTimeWeight());
+            out.writeInt(problem.getRoomWeight());
+            out.writeInt(problem.getDistributionWeight());
+            out.writeInt(problem.getStudentWeight());
+
+            Time[] times = problem.getTimes();
+            out.writeInt(times.length);
+            for (Time time : times) {
+                out.writeInt(time.getWeeksLength());
+                out.writeInt(time.getWeeksMask().length);
+                for (long word : time.getWeeksMask()) out.writeLong(word);
+                out.writeInt(time.getDaysLength());
+                out.writeLong(time.getDaysMask());
+                out.writeInt(time.getStart());
+                out.writeInt(time.getLength());
+            }
+
+            Room[] rooms = problem.getRooms();
+            out.writeInt(rooms.length);
+            for (Room room : rooms) {
+                out.writeInt(room.getId());
+                out.writeInt(room.getCapacity());
+                out.writeInt(room.getUnavailable().length);
+                for (Time time : room.getUnavailable()) out.writeInt(time.getId());
+            }
+
+            TravelTime travelTime = problem.getTravelTime();
+            int travelCount = 0;
+            for (int i = 1; i <= rooms.length; i++)
+                for (int j = i + 1; j <= rooms.length; j++)
+                    if (travelTime.getTravelTime(i, j) != 0) travelCount++;
+            out.writeInt(travelCount);
+            for (int i = 1; i <= rooms.length; i++)
+                for (int j = i + 1; j <= rooms.length; j++)
+                    if (travelTime.getTravelTime(i, j) != 0) {
+                        out.writeInt(i);
+                        out.writeInt(j);
+                        out.writeInt(travelTime.getTravelTime(i, j));
+                    }
+
+            Class[] classes = problem.getClasses();
+            out.writeInt(classes.length);
+            boolean[] written = new boolean[classes.length];
+            for (Class aClass : classes) writeClass(out, aClass, written);
+
+            Course[] courses = problem.getCourses();
+            out.writeInt(courses.length);
+            for (Course course : courses) {
+                out.writeInt(course.getId());
+                out.writeInt(course.getConfigurations().length);
+                for (Config config : course.getConfigurations()) {
+                    out.writeInt(config.getId());
+                    out.writeInt(config.getSubparts().length);
+                    for (Subpart subpart : config.getSubparts()) {
+                        out.writeInt(subpart.getId());
+                        out.writeInt(subpart.getClasses().length);
+                        for (Class aClass : subpart.getClasses()) out.writeInt(aClass.getId());
+                    }
+                }
+            }
+
+            out.writeInt(problem.getHardConstraints().length);
+            for (HardConstraint hardConstraint : problem.getHardConstraints())
+                writeConstraint(out, hardConstraint.getConstraint());
+            out.writeInt(problem.getSoftConstraints().length);
+            for (SoftConstraint softConstraint : problem.getSoftConstraints()) {
+                writeConstraint(out, softConstraint.getConstraint());
+                out.writeInt(softConstraint.getPenalty());
+            }
+
+            Student[] students = problem.getStudents();
+            out.writeInt(students.length);
+            for (Student student : students) {
+                out.writeInt(student.getId());
+                out.writeInt(student.getCourses().length);
+                for (Course course : student.getCourses()) out.writeInt(course.getId());
+            }
+            out.writeInt((int) checked.getChecksum().getValue());
+        }
+    }
+
+    /**
+     * Reads a problem instance from the given snapshot file by memory-mapping it. As in ProblemLoader, the
+     * compatibility matrices of the pair constraints are compiled within the default budget
+     * (PairCompatibility.DEFAULT_BUDGET).
+     *
+     * @param file The path to the snapshot file.
+     * @return The problem instance.
+     * @throws IOException If the file cannot be read, is not a snapshot of a supported version, or is truncated or
+     *                     corrupt.
+     */
+    public static Problem read(Path file) throws IOException {
+        return read(file, PairCompatibility.DEFAULT_BUDGET);
+    }
+
+    /**
+     * Reads a problem instance from the given snapshot file by memory-mapping it, and compiles the compatibility
+     * matrices of its pair constraints within the given budget (see ProblemLoader.setCompatibilityBudget()).
+     * <p>
+     * The lengths of the arrays are checked against the remaining bytes of the file before they are allocated, and
+     * any other inconsistency of the decoded data (e.g., an id out of range, an unknown constraint type, or a time that
+     * does not match the header) is reported as an IOException as well.
+     *
+     * @param file        The path to the snapshot file.
+     * @param budgetBytes The memory budget of the compatibility matrices in bytes. 0 disables them.
+     * @return The problem instance.
+     * @throws IOException              If the file cannot be read, is not a snapshot of a supported version, or is
+     *                                  truncated or corrupt.
+     * @throws IllegalArgumentException If the given budget is negative.
+     */
+    public static Problem read(Path file, long budgetBytes) throws IOException, IllegalArgumentException {
+        if (budgetBytes < 0) throw new IllegalArgumentException("Budget cannot be negative: " + budgetBytes);
+        MappedByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (in.remaining() < 12 || in.getInt() != MAGIC)
+            throw new IOException("The given file is not an ITC 2019 problem instance snapshot.");
+        int version = in.getInt();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version: " + version);
+        CRC32 crc = new CRC32();
+        crc.update(in.duplicate().position(0).limit(in.capacity() - 4));
+        if ((int) crc.getValue() != in.getInt(in.capacity() - 4))
+            throw new IOException("The snapshot " + file + " is truncated or corrupt (checksum mismatch).");
+        in.limit(in.capacity() - 4);
+        Problem problem;
+        try {
+            problem = decode(in);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("The snapshot " + file + " is truncated.", e);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("The snapshot " + file + " is corrupt at byte " + in.position() + ": "
+                    + e.getMessage(), e);
+        }
+        if (in.hasRemaining())
+            throw new IOException("The snapshot " + file + " has " + in.remaining() + " unexpected trailing bytes.");
+        PairCompatibility.compile(problem, budgetBytes);
+        return problem;
+    }
+
+    /**
+     * Decodes the sections of a snapshot that follow its magic number and version.
+     *
+     * @param in The mapped snapshot.
+     * @return The problem instance.
+     * @throws IOException If a length or a reference of the snapshot is invalid.
+     */
+    private static Problem decode(MappedByteBuffer in) throws IOException {
+        String name = readString(in);
+        int nrDays = in.getInt(), nrWeeks = in.getInt(), slotsPerDay = in.getInt();
+        int timeWeight = in.getInt(), roomWeight = in.getInt(), distributionWeight = in.getInt(),
+                studentWeight = in.getInt();
+        if (nrDays < 1 || nrDays > 7 || nrWeeks < 1 || slotsPerDay < 1 || slotsPerDay > 288)
+            throw new IOException("Invalid header: nrDays=" + nrDays + ", nrWeeks=" + nrWeeks + ", slotsPerDay="
+                    + slotsPerDay + '.');
+
+        Time[] times = new Time[readLength(in, 28)];
+        for (int i = 0; i < times.length; i++) {
+            int weeksLength = in.getInt();
+            long[] weeks = new long[readLength(in, 8)];
+            for (int j = 0; j < weeks.length; j++) weeks[j] = in.getLong();
+            int daysLength = in.getInt();
+            long days = in.getLong();
+            if (weeksLength != nrWeeks || weeks.length != (nrWeeks + 63) >>> 6 || daysLength != nrDays)
+                throw new IOException("Time " + i + " does not match the number of weeks and days of the header.");
+            times[i] = new Time(i, weeks, weeksLength, days, daysLength, in.getInt(), in.getInt());
+        }
+
+        Room[] rooms = new Room[readLength(in, 12)];
+        for (int i = 0; i < rooms.length; i++) {
+            int id = in.getInt(), capacity = in.getInt();
+            if (id != i + 1) throw new IOException("Room " + (i + 1) + " has the invalid id " + id + '.');
+            Time[] unavailable = new Time[readLength(in, 4)];
+            for (int j = 0; j < unavailable.length; j++) unavailable[j] = times[in.getInt()];
+            rooms[i] = new Room(id, capacity, unavailable);
+        }
+
+        TravelTime travelTime = new TravelTime(rooms.length);
+        for (int i = readLength(in, 12); i > 0; i--) travelTime.setTravelTime(in.getInt(), in.getInt(), in.getInt());
+        travelTime.compact();
+
+        Class[] classes = new Class[readLength(in, 20)];
+        for (int i = 0; i < classes.length; i++) {
+            int id = in.getInt(), limit = in.getInt(), parentId = in.getInt();
+            RoomAssignment[] roomAssignments = null;
+            if (in.getInt(in.position()) != -1) {
+                int roomCount = readLength(in, 8);
+                roomAssignments = new RoomAssignment[roomCount];
+                for (int j = 0; j < roomCount; j++)
+                    roomAssignments[j] = new RoomAssignment(rooms[in.getInt() - 1], in.getInt());
+            } else in.getInt();
+            TimeAssignment[] timeAssignments = new TimeAssignment[readLength(in, 8)];
+            for (int j = 0; j < timeAssignments.length; j++)
+                timeAssignments[j] = new TimeAssignment(times[in.getInt()], in.getInt());
+            if (classes[id - 1] != null) throw new IOException("Duplicate class id: " + id);
+            if (parentId != 0 && classes[parentId - 1] == null)
+                throw new IOException("The parent class " + parentId + " of class " + id + " is not read before it.");
+            classes[id - 1] = new Class(id, limit, roomAssignments, timeAssignments,
+                    parentId == 0 ? null : classes[parentId - 1]);
+        }
+        for (int i = 0; i < classes.length; i++)
+            if (classes[i] == null) throw new IOException("Class " + (i + 1) + " is missing.");
+
+        Course[] courses = new Course[readLength(in, 8)];
+        for (int i = 0; i < courses.length; i++) {
+            int courseId = in.getInt();
+            Config[] configs = new Config[readLength(in, 8)];
+            for (int j = 0; j < configs.length; j++) {
+                int configId = in.getInt();
+                Subpart[] subparts = new Subpart[readLength(in, 8)];
+                for (int k = 0; k < subparts.length; k++) {
+                    int subpartId = in.getInt();
+                    Class[] subpartClasses = new Class[readLength(in, 4)];
+                    for (int l = 0; l < subpartClasses.length; l++) subpartClasses[l] = classes[in.getInt() - 1];
+                    subparts[k] = new Subpart(subpartId, subpartClasses);
+                }
+                configs[j] = new Config(configId, subparts);
+            }
+            courses[i] = new Course(courseId, configs);
+        }
+
+        HardConstraint[] hardConstraints = new HardConstraint[readLength(in, 8)];
+        for (int i = 0; i < hardConstraints.length; i++)
+            hardConstraints[i] = new HardConstraint(readConstraint(in, classes, travelTime));
+        SoftConstraint[] softConstraints = new SoftConstraint[readLength(in, 12)];
+        for (int i = 0; i < softConstraints.length; i++)
+            softConstraints[i] = new SoftConstraint(readConstraint(in, classes, travelTime), in.getInt());
+
+        Student[] students = new Student[readLength(in, 8)];
+        for (int i = 0; i < students.length; i++) {
+            int id = in.getInt();
+            Course[] studentCourses = new Course[readLength(in, 4)];
+            for (int j = 0; j < studentCourses.length; j++) studentCourses[j] = courses[in.getInt() - 1];
+            students[i] = new Student(id, studentCourses);
+        }
+
+        return new Problem(name, nrDays, nrWeeks, slotsPerDay, timeWeight, roomWeight, distributionWeight,
+                studentWeight, times, rooms, travelTime, courses, classes, hardConstraints, softConstraints, students);
+    }
+
+    /**
+     * Writes the given class after writing its parent (if not written yet), so that a parent is always read before its
+     * children. A class that does not require a room is written with a room assignment count of -1.
+     *
+     * @param out     The output stream.
+     * @param aClass  The class to be written.
+     * @param written The classes that are already written, indexed by (id - 1).
+     * @throws IOException If the class cannot be written.
+     */
+    private static void writeClass(DataOutputStream out, Class aClass, boolean[] written) throws IOException {
+        if (written[aClass.getId() - 1]) return;
+        if (aClass.getParent() != null) writeClass(out, aClass.getParent(), written);
+        written[aClass.getId() - 1] = true;
+        out.writeInt(aClass.getId());
+        out.writeInt(aClass.getLimit());
+        out.writeInt(aClass.getParent() == null ? 0 : aClass.getParent().getId());
+        if (aClass.requiresRoom()) {
+            out.writeInt(aClass.getPossibleRoomAssignments().length);
+            for (RoomAssignment roomAssignment : aClass.getPossibleRoomAssignments()) {
+                out.writeInt(roomAssignment.getRoom().getId());
+                out.writeInt(roomAssignment.getPenalty());
+            }
+        } else out.writeInt(-1);
+        out.writeInt(aClass.getPossibleTimeAssignments().length);
+        for (TimeAssignment timeAssignment : aClass.getPossibleTimeAssignments()) {
+            out.writeInt(timeAssignment.getTime().getId());
+            out.writeInt(timeAssignment.getPenalty());
+        }
+    }
+
+    /**
+     * Writes the type and the class ids of the given distribution constraint.
+     *
+     * @param out        The output stream.
+     * @param constraint The distribution constraint.
+     * @throws IOException If the constraint cannot be written.
+     */
+    private static void writeConstraint(DataOutputStream out, DistributionConstraint constraint) throws IOException {
+        writeString(out, constraint.getType());
+        out.writeInt(constraint.getClasses().length);
+        for (Class aClass : constraint.getClasses()) out.writeInt(aClass.getId());
+    }
+
+    /**
+     * Reads a distribution constraint written by writeConstraint.
+     *
+     * @param in         The mapped snapshot.
+     * @param classes    The classes of the problem instance, indexed by (id - 1).
+     * @param travelTime The travel times between the rooms of the problem instance.
+     * @return The distribution constraint.
+     * @throws IOException If the number of classes of the constraint is invalid.
+     */
+    private static DistributionConstraint readConstraint(MappedByteBuffer in, Class[] classes,
+                                                         TravelTime travelTime) throws IOException {
+        String type = readString(in);
+        Class[] constraintClasses = new Class[readLength(in, 4)];
+        for (int i = 0; i < constraintClasses.length; i++) constraintClasses[i] = classes[in.getInt() - 1];
+        return DistributionConstraint.create(type, constraintClasses, travelTime);
+    }
+
+    /**
+     * Writes the given string as its UTF-8 byte count followed by its bytes. A null string is written with a count of
+     * -1.
+     *
+     * @param out    The output stream.
+     * @param string The string.
+     * @throws IOException If the string cannot be written.
+     */
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by writeString.
+     *
+     * @param in The mapped snapshot.
+     * @return The string.
+     * @throws IOException If the length of the string is invalid.
+     */
+    private static String readString(MappedByteBuffer in) throws IOException {
+        if (in.getInt(in.position()) == -1) {
+            in.getInt();
+            return null;
+        }
+        byte[] bytes = new byte[readLength(in, 1)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the length of an array (or string) and checks it against the remaining bytes of the snapshot, so a corrupt
+     * length is reported before anything is allocated for it.
+     *
+     * @param in        The mapped snapshot.
+     * @param itemBytes The minimum number of bytes of an item of the array in the snapshot.
+     * @return The length.
+     * @throws IOException If the length is negative or the remaining bytes cannot hold that many items.
+     */
+    private static int readLength(MappedByteBuffer in, int itemBytes) throws IOException {
+        final int position = in.position(), length = in.getInt();
+        if (length < 0 || (long) length * itemBytes > in.remaining())
+            throw new IOException("Invalid length " + length + " at byte " + position + " of the snapshot.");
+        return length;
+    }
+}
@@ -10,7 +10,7 @@ import java.util.Arrays;
  * Created by Sina on 13-Dec-21
  *
  * @author Sina
- * @version 0.6
+ * @version 0.7
  */
 public class Room {
     private final int id;
@@ -56,7 +56,7 @@ public class Room {
      *
      * @return Unavailable times.
      */
-    Time[] getUnavailable() {
+    public Time[] getUnavailable() {
         return unavailable;
     }
 
@@ -8,7 +8,7 @@ import java.util.Arrays;
  * Created by Sina on 15-Dec-21
  *
  * @author Sina
- * @version 0.4
+ * @version 0.6
  */
 public class Student {
     private final int id;
@@ -34,7 +34,7 @@ public class Student {
      *
      * @return Student id.
      */
-    int getId() {
+    public int getId() {
         return id;
     }
 
@@ -43,7 +43,7 @@ public class Student {
      *
      * @return Courses
      */
-    Course[] getCourses() {
+    public Course[] getCourses() {
         return courses;
     }
 
@@ -10,9 +10,9 @@ import java.util.Arrays;
  * Created by Sina on 16-Dec-21
  *
  * @author Sina
- * @version 0.2
+ * @version 0.3
  */
-class Subpart {
+public class Subpart {
     private final int id;
     private final Class[] classes;
 
@@ -36,7 +36,7 @@ class Subpart {
      *
      * @return Subpart id.
      */
-    int getId() {
+    public int getId() {
         return id;
     }
 
@@ -45,7 +45,7 @@ class Subpart {
      *
      * @return Subpart classes.
      */
-    Class[] getClasses() {
+    public Class[] getClasses() {
         return classes;
     }
 
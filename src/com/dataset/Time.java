@@ -11,19 +11,31 @@ import java.util.Arrays;
  * When talking about the time taken (in timeslots), regardless of the day or week, an int containing the number of
  * timeslots is used rather than an object of this class for simplification.
  * <p>
+ * The weeks and days are stored as bit masks, where bit i is set if and only if the week (day) i is included. The days
+ * fit in a single long (there are at most 7 days in a week), and the weeks are stored as an array of longs (64 weeks
+ * per long), which has a single item for all the instances of the ITC 2019 dataset. The masks are used with the bitwise
+ * operations of LogicalOperators. The boolean array getters are kept as a compatibility view and create a new array on
+ * each call; therefore, they should not be used in performance-critical code.
+ * <p>
+ * Two times are equal if they have the same weeks, days, start, and length (regardless of their ids). Times are
+ * interned in a TimePool while loading a problem instance, so each distinct time exists once and has a dense id.
+ * <p>
  * Created by Sina on 13-Dec-21
  *
  * @author Sina
- * @version 0.6
+ * @version 0.10
  */
 public class Time {
-    private final boolean[] weeks;
-    private final boolean[] days;
+    private final int id;
+    private final long[] weeks;
+    private final long days;
+    private final int weeksLength;
+    private final int daysLength;
     private final int start;
     private final int length;
 
     /**
-     * Constructs a time object.
+     * Constructs a time object that is not part of a time pool (its id is -1).
      *
      * @param weeks  A boolean string that indicates on which week(s) this time takes place. A true (1) value indicates
      *               the inclusion of that week and 0 otherwise.
@@ -35,9 +47,30 @@ public class Time {
      *                                  of boolean[] days > 7.
      */
     Time(boolean[] weeks, boolean[] days, int start, int length) throws IllegalArgumentException {
+        this(-1, toMask(weeks), weeks.length, toMask(days)[0], days.length, start, length);
+    }
+
+    /**
+     * Constructs a time object from the bit masks of its weeks and days.
+     *
+     * @param id          The id of this time in its time pool, or -1 if this time is not part of a time pool.
+     * @param weeks       The weeks mask, where bit i of item (i / 64) is set if and only if week i is included.
+     * @param weeksLength The number of weeks of the weeks bit string.
+     * @param days        The days mask, where bit i is set if and only if day i of the week is included.
+     * @param daysLength  The number of days of the days bit string.
+     * @param start       An int indicating on which timeslot does this time start.
+     * @param length      An int indicating for how many timeslots does this time last.
+     * @throws IllegalArgumentException When start < 0, start > 288, length < 0, start + length > 288, or if the
+     *                                  number of days > 7.
+     */
+    Time(int id, long[] weeks, int weeksLength, long days, int daysLength, int start, int length)
+            throws IllegalArgumentException {
+        this.id = id;
         this.weeks = weeks;
-        if (days.length > 7) throw new IllegalArgumentException("There cannot be more than 7 days in a week.");
+        this.weeksLength = weeksLength;
+        if (daysLength > 7) throw new IllegalArgumentException("There cannot be more than 7 days in a week.");
         this.days = days;
+        this.daysLength = daysLength;
         if (start < 0 || start > 288) throw new IllegalArgumentException("The start time should be between 0 and 288.");
         this.start = start;
         if (length < 0) throw new IllegalArgumentException("The length (duration) of time cannot below 0 (timeslots).");
@@ -46,24 +79,116 @@ public class Time {
         this.length = length;
     }
 
+    /**
+     * Converts the given boolean string to a bit mask (64 bits per item), where bit i of item (i / 64) is set if and
+     * only if booleans[i] is true. The mask has at least one item.
+     *
+     * @param booleans The boolean string.
+     * @return The bit mask.
+     */
+    static long[] toMask(boolean[] booleans) {
+        long[] mask = new long[Math.max(1, (booleans.length + 63) >>> 6)];
+        for (int i = 0; i < booleans.length; i++)
+            if (booleans[i]) mask[i >>> 6] |= 1L << i;
+        return mask;
+    }
+
+    /**
+     * Returns the id of this time in its time pool. All the times of a problem instance are interned in a single time
+     * pool, where two times with the same weeks, days, start, and length have the same id. Returns -1 if this time is
+     * not part of a time pool.
+     *
+     * @return Time id.
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * Returns a boolean string indicating the inclusion or exclusion of each week.
+     * <p>
+     * IMPORTANT: This is a compatibility view that creates a new array on each call. Use getWeeksMask() or hasWeek(int)
+     * in performance-critical code.
      *
      * @return weeks.
      */
     public boolean[] getWeeks() {
-        return weeks;
+        boolean[] booleans = new boolean[weeksLength];
+        for (int i = 0; i < weeksLength; i++) booleans[i] = hasWeek(i);
+        return booleans;
     }
 
     /**
      * Returns a boolean string indicating the inclusion or exclusion of each day in the week.
+     * <p>
+     * IMPORTANT: This is a compatibility view that creates a new array on each call. Use getDaysMask() or hasDay(int)
+     * in performance-critical code.
      *
      * @return days.
      */
     public boolean[] getDays() {
+        boolean[] booleans = new boolean[daysLength];
+        for (int i = 0; i < daysLength; i++) booleans[i] = hasDay(i);
+        return booleans;
+    }
+
+    /**
+     * Returns the bit mask of the weeks, where bit i of item (i / 64) is set if and only if week i is included. The
+     * returned array must not be modified.
+     *
+     * @return weeks mask.
+     */
+    public long[] getWeeksMask() {
+        return weeks;
+    }
+
+    /**
+     * Returns the bit mask of the days, where bit i is set if and only if day i of the week is included.
+     *
+     * @return days mask.
+     */
+    public long getDaysMask() {
         return days;
     }
 
+    /**
+     * Returns the number of weeks of the weeks bit string of this time.
+     *
+     * @return weeks length.
+     */
+    public int getWeeksLength() {
+        return weeksLength;
+    }
+
+    /**
+     * Returns the number of days of the days bit string of this time.
+     *
+     * @return days length.
+     */
+    public int getDaysLength() {
+        return daysLength;
+    }
+
+    /**
+     * Checks if the given week is included in this time.
+     *
+     * @param week The week index (starting from 0).
+     * @return True if this time takes place on the given week, and false otherwise.
+     */
+    public boolean hasWeek(int week) {
+        return week < weeksLength && (weeks[week >>> 6] & (1L << week)) != 0;
+    }
+
+    /**
+     * Checks if the given day of the week is included in this time.
+     *
+     * @param day The day index (starting from 0).
+     * @return True if this time takes place on the given day of the week, and false otherwise.
+     */
+    public boolean hasDay(int day) {
+        return (days & (1L << day)) != 0;
+    }
+
     /**
      * Returns the starting timeslot of this time.
      *
@@ -91,9 +216,59 @@ public class Time {
         return (start + length);
     }
 
+    /**
+     * Returns the bits of the timeslots of this time that fall in the given word of a day bitmap, where bit i of word w
+     * stands for timeslot (64 × w + i) of the day.
+     *
+     * @param word The word index.
+     * @return Slot mask. Returns 0 if this time takes no timeslot of the given word.
+     */
+    public long getSlotMask(int word) {
+        final int from = start - (word << 6), to = start + length - 1 - (word << 6);
+        if (length == 0 || to < 0 || from > 63) return 0;
+        return (-1L >>> (63 - Math.min(to, 63))) & (-1L << Math.max(from, 0));
+    }
+
+    /**
+     * Checks if this time and the given time overlap, or follow each other with less than the given travel time
+     * between them. This means that they share a week and a day, and
+     * (this.end + travel > other.start) ∧ (other.end + travel > this.start).
+     * With travel = 0, this is the overlap check of room conflicts; with the travel time between the rooms of the two
+     * times, this is the check of student conflicts (and the negation of the SameAttendees constraint).
+     *
+     * @param other  The other time.
+     * @param travel The number of timeslots needed to travel between the two times.
+     * @return True if the two times overlap (considering the travel time), and false otherwise.
+     */
+    public boolean overlaps(Time other, int travel) {
+        if (start + length + travel <= other.start || other.start + other.length + travel <= start
+                || (days & other.days) == 0) return false;
+        for (int i = Math.min(weeks.length, other.weeks.length) - 1; i >= 0; i--)
+            if ((weeks[i] & other.weeks[i]) != 0) return true;
+        return false;
+    }
+
     @Override
     public String toString() {
-        return "Time{" + "weeks=" + Arrays.toString(weeks) + ", days=" + Arrays.toString(days) + ", start=" + start
-                + ", length=" + length + '}';
+        return "Time{" + "weeks=" + Arrays.toString(getWeeks()) + ", days=" + Arrays.toString(getDays()) + ", start="
+                + start + ", length=" + length + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Time)) return false;
+        Time time = (Time) o;
+        return days == time.days && start == time.start && length == time.length && weeksLength == time.weeksLength
+                && daysLength == time.daysLength && Arrays.equals(weeks, time.weeks);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(weeks);
+        result = 31 * result + Long.hashCode(days);
+        result = 31 * result + start;
+        result = 31 * result + length;
+        return 31 * result + weeksLength;
     }
-}
\ No newline at end of file
+}
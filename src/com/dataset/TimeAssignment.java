@@ -7,11 +7,12 @@ package com.dataset;
  * Created by Sina on 15-Dec-21
  *
  * @author Sina
- * @version 0.5
+ * @version 0.6
  */
 public class TimeAssignment {
     private final Time time;
     private final int penalty;
+    private int index = -1;
 
     /**
      * Constructs a time assignment object.
@@ -44,6 +45,29 @@ public class TimeAssignment {
         return penalty;
     }
 
+    /**
+     * Returns the position of this time assignment in the possible time assignments of its class, which is used to
+     * refer to this time assignment by a primitive index.
+     *
+     * @return Index. Returns -1 if this time assignment does not belong to a class.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets the position of this time assignment in the possible time assignments of its class. This is called once, by
+     * the constructor of the class.
+     *
+     * @param index The position of this time assignment in the possible time assignments of its class.
+     * @throws IllegalArgumentException If this time assignment already belongs to a class at a different position.
+     */
+    void setIndex(int index) throws IllegalArgumentException {
+        if (this.index != -1 && this.index != index)
+            throw new IllegalArgumentException("This time assignment already belongs to another class.");
+        this.index = index;
+    }
+
     @Override
     public String toString() {
         return "TimeAssignment{" + "time=" + time + ", penalty=" + penalty + '}';
@@ -0,0 +1,137 @@
+package com.dataset;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * This class represents a pool of canonical times. Real problem instances repeat the same time (weeks, days, start, and
+ * length) in thousands of possible time assignments of different classes. Interning the times while loading a problem
+ * instance keeps a single time object per distinct time, which reduces the heap usage and allows comparing times by
+ * their ids instead of by their contents. The ids are dense (0, 1, ..., size - 1) in the order of first occurrence.
+ * <p>
+ * IMPORTANT: This class is not thread-safe. A time pool is meant to be filled by a single loader.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class TimePool {
+    private static final int TIME_OBJECT_BYTES = 48;                     // object header + fields (compressed oops)
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final HashMap<Time, Time> pool = new HashMap<>();
+    private final ArrayList<Time> times = new ArrayList<>();
+    private int requestCount;
+    private long savedBytes;
+
+    /**
+     * Returns the canonical time with the given weeks and days bit strings (e.g., "1010100"), start, and length. If no
+     * such time exists in this pool, a new time is created with the next id and added to this pool.
+     *
+     * @param weeks  The weeks bit string.
+     * @param days   The days bit string.
+     * @param start  The starting timeslot.
+     * @param length The number of timeslots.
+     * @return The canonical time.
+     * @throws IllegalArgumentException If the bit strings are missing or the time is invalid.
+     */
+    Time intern(String weeks, String days, int start, int length) throws IllegalArgumentException {
+        if (weeks == null || days == null) throw new IllegalArgumentException("Missing days or weeks bit string.");
+        return intern(toMask(weeks), weeks.length(), toMask(days)[0], days.length(), start, length);
+    }
+
+    /**
+     * Returns the canonical time with the given weeks and days bit masks, start, and length. If no such time exists in
+     * this pool, a new time is created with the next id and added to this pool.
+     *
+     * @param weeks       The weeks mask, where bit i of item (i / 64) is set if and only if week i is included.
+     * @param weeksLength The number of weeks of the weeks bit string.
+     * @param days        The days mask, where bit i is set if and only if day i of the week is included.
+     * @param daysLength  The number of days of the days bit string.
+     * @param start       The starting timeslot.
+     * @param length      The number of timeslots.
+     * @return The canonical time.
+     * @throws IllegalArgumentException If the time is invalid.
+     */
+    Time intern(long[] weeks, int weeksLength, long days, int daysLength, int start, int length)
+            throws IllegalArgumentException {
+        requestCount++;
+        Time candidate = new Time(times.size(), weeks, weeksLength, days, daysLength, start, length);
+        Time canonical = pool.putIfAbsent(candidate, candidate);
+        if (canonical != null) {
+            savedBytes += TIME_OBJECT_BYTES + ARRAY_HEADER_BYTES + 8L * weeks.length;
+            return canonical;
+        }
+        times.add(candidate);
+        return candidate;
+    }
+
+    /**
+     * Returns the time with the given id.
+     *
+     * @param id The time id.
+     * @return The time with the given id.
+     * @throws IndexOutOfBoundsException If there is no time with the given id.
+     */
+    public Time get(int id) throws IndexOutOfBoundsException {
+        return times.get(id);
+    }
+
+    /**
+     * Returns the number of distinct times in this pool.
+     *
+     * @return Pool size.
+     */
+    public int size() {
+        return times.size();
+    }
+
+    /**
+     * Returns the number of times that have been requested from this pool (including the duplicates).
+     *
+     * @return Request count.
+     */
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns the estimated number of heap bytes saved by this pool, which is the shallow size of all the duplicate
+     * time objects (and their weeks masks) that did not need to be kept.
+     *
+     * @return Estimated saved bytes.
+     */
+    public long getSavedBytes() {
+        return savedBytes;
+    }
+
+    /**
+     * Returns all the times of this pool, indexed by their ids.
+     *
+     * @return Times.
+     */
+    Time[] toArray() {
+        return times.toArray(new Time[0]);
+    }
+
+    @Override
+    public String toString() {
+        return "TimePool{" + "size=" + times.size() + ", requestCount=" + requestCount + ", savedBytes=" + savedBytes
+                + '}';
+    }
+
+    /**
+     * Converts a bit string (e.g., "1010100") to a bit mask (64 bits per item), where bit i of item (i / 64) is set if
+     * and only if the i-th character is '1'. The mask has at least one item.
+     *
+     * @param bits The bit string.
+     * @return The bit mask.
+     */
+    private static long[] toMask(String bits) {
+        long[] mask = new long[Math.max(1, (bits.length() + 63) >>> 6)];
+        for (int i = 0; i < bits.length(); i++)
+            if (bits.charAt(i) == '1') mask[i >>> 6] |= 1L << i;
+        return mask;
+    }
+}
@@ -1,50 +1,59 @@
 package com.dataset;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * This class represents the travel time between the rooms of the ITC 2019 dataset, which expresses the number of
  * timeslots needed to get from one room to other rooms.
  * <p>
+ * Travel times are symmetric and most room pairs of the ITC 2019 instances have a travel time of 0. Therefore, instead
+ * of a dense roomNo × roomNo matrix, the travel times are kept in one of the following two representations, which is
+ * chosen automatically by compact() (called once the problem instance is loaded) based on which one takes less memory:
+ * <p>
+ * 1) Sparse: an open-addressing hash table of the non-zero travel times, keyed by the index of the room pair in the
+ * upper triangle of the matrix (used while loading and for instances where few room pairs have a travel time).
+ * <p>
+ * 2) Dense: a flat short array of the upper triangle of the matrix (without the diagonal), which takes
+ * roomNo × (roomNo - 1) / 2 shorts.
+ * <p>
+ * Both representations answer getTravelTime(id1, id2) in O(1) (expected O(1) for the sparse representation). The
+ * largest travel time from each room is kept as well, so the pairs of rooms without any travel time (most of them)
+ * are answered without looking up the representation, and the student conflict checks can bound the travel time of a
+ * room (see getMaxTravelTime(int)). Rooms with the same travel times to every room (e.g., the rooms of a building) are
+ * grouped into travel classes, so moving a class between two rooms of the same travel class cannot change any travel
+ * time (see getTravelClass(int)).
+ * <p>
  * Created by Sina on 17-Dec-21
  *
  * @author Sina
- * @version 0.5
+ * @version 0.10
  */
 public class TravelTime {
-    private static TravelTime travelTimeInstance = null;
-    private final int[][] travelTime;
+    private static final int SPARSE_ENTRY_BYTES = 6;                                           // int key + short value
 
-    private TravelTime(int roomNo) {
-        travelTime = new int[roomNo][roomNo];
-    }
+    private final int roomNo;
+    private final int[] roomMaxTravelTime;
+    private int[] travelClasses;
+    private short[] dense;
+    private int[] keys;                                                       // pair index + 1, 0 marks an empty slot
+    private short[] values;
+    private int size;
+    private int maxTravelTime;
 
     /**
-     * Initializes (creates an instance for) the static constructor of this singleton class. This method has to be
-     * performed FIRST (only once) to have the object of this class.
+     * Constructs a travel time object (with all travel times set to 0) for the given number of rooms. Each problem
+     * instance owns its own travel time object.
      *
      * @param roomNo The total number of rooms in the problem instance.
-     * @return The object or instance of this singleton class.
-     * @throws ExceptionInInitializerError If this class has been initialized before.
+     * @throws IllegalArgumentException If roomNo < 0.
      */
-    static TravelTime createInstance(int roomNo) throws ExceptionInInitializerError {
-        if (travelTimeInstance != null)
-            throw new ExceptionInInitializerError("An object of this singleton class has already been created.");
-        travelTimeInstance = new TravelTime(roomNo);
-        return travelTimeInstance;
-    }
-
-    /**
-     * Returns the singleton instance of travel time.
-     *
-     * @return The travel time instance
-     * @throws NullPointerException If this singleton class has not yet been initialized or created.
-     */
-    public static TravelTime getInstance() throws NullPointerException {
-        if (travelTimeInstance == null)
-            throw new NullPointerException("An object of this singleton class must be created first (using the "
-                    + "createInstance method).");
-        return travelTimeInstance;
+    TravelTime(int roomNo) throws IllegalArgumentException {
+        if (roomNo < 0) throw new IllegalArgumentException("The number of rooms cannot be negative.");
+        this.roomNo = roomNo;
+        roomMaxTravelTime = new int[roomNo];
+        keys = new int[16];
+        values = new short[16];
     }
 
     /**
@@ -56,7 +65,18 @@ public class TravelTime {
      * @throws ArrayIndexOutOfBoundsException If the given index is < 0 or >= size.
      */
     public int getTravelTime(int id1, int id2) throws ArrayIndexOutOfBoundsException {
-        return travelTime[id1 - 1][id2 - 1];
+        if (id1 == id2) {
+            checkId(id1);
+            return 0;
+        }
+        final int index = pairIndex(id1, id2);
+        if (roomMaxTravelTime[id1 - 1] == 0 || roomMaxTravelTime[id2 - 1] == 0) return 0;
+        if (dense != null) return dense[index];
+        final int key = index + 1, mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return values[slot];
+            if (keys[slot] == 0) return 0;
+        }
     }
 
     /**
@@ -66,14 +86,217 @@ public class TravelTime {
      * @param id2   The id of room 2 (destination).
      * @param value The number of timeslots needed to go from room 1 to room 2.
      * @throws ArrayIndexOutOfBoundsException If the given index is < 0 or >= size.
+     * @throws IllegalArgumentException       If the value is < 0 or > Short.MAX_VALUE, or if id1 == id2 and value != 0.
+     */
+    void setTravelTime(int id1, int id2, int value) throws ArrayIndexOutOfBoundsException, IllegalArgumentException {
+        if (value < 0 || value > Short.MAX_VALUE)
+            throw new IllegalArgumentException("Travel time must be between 0 and " + Short.MAX_VALUE + '.');
+        if (id1 == id2) {
+            checkId(id1);
+            if (value != 0) throw new IllegalArgumentException("The travel time within a room must be 0.");
+            return;
+        }
+        final int index = pairIndex(id1, id2);
+        travelClasses = null;
+        maxTravelTime = Math.max(maxTravelTime, value);
+        roomMaxTravelTime[id1 - 1] = Math.max(roomMaxTravelTime[id1 - 1], value);
+        roomMaxTravelTime[id2 - 1] = Math.max(roomMaxTravelTime[id2 - 1], value);
+        if (dense != null) {
+            dense[index] = (short) value;
+            return;
+        }
+        final int key = index + 1;
+        int mask = keys.length - 1, slot = hash(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) slot = (slot + 1) & mask;
+        if (keys[slot] == 0) {
+            if (value == 0) return;
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                values[slot] = (short) value;
+                rehash(keys.length * 2);
+                return;
+            }
+        }
+        values[slot] = (short) value;
+    }
+
+    /**
+     * Returns the largest travel time that has been set between any two rooms, which is an upper bound of all the
+     * travel times.
+     *
+     * @return Maximum travel time (timeslots).
+     */
+    public int getMaxTravelTime() {
+        return maxTravelTime;
+    }
+
+    /**
+     * Returns the largest travel time that has been set between the given room and any other room, which is an upper
+     * bound of all the travel times from the room.
+     *
+     * @param id The room id.
+     * @return Maximum travel time from the room (timeslots).
+     * @throws ArrayIndexOutOfBoundsException If the given id is < 1 or > roomNo.
+     */
+    public int getMaxTravelTime(int id) throws ArrayIndexOutOfBoundsException {
+        checkId(id);
+        return roomMaxTravelTime[id - 1];
+    }
+
+    /**
+     * Returns the travel class of the given room. Two rooms are in the same travel class if their travel times to
+     * every room are the same (so the travel time between them is 0), and the rooms without any travel time are in
+     * class 0. Until compact() is called, each room with a travel time is in its own class.
+     * <p>
+     * Running time = O(1).
+     *
+     * @param id The room id.
+     * @return Travel class of the room.
+     * @throws ArrayIndexOutOfBoundsException If the given id is < 1 or > roomNo.
+     */
+    public int getTravelClass(int id) throws ArrayIndexOutOfBoundsException {
+        checkId(id);
+        if (roomMaxTravelTime[id - 1] == 0) return 0;
+        return travelClasses == null ? id : travelClasses[id - 1];
+    }
+
+    /**
+     * Switches to the representation that takes less memory (the dense upper triangle or the sparse hash table) for
+     * the current travel times, and trims the sparse hash table to its minimum capacity. This method has to be called
+     * once all the travel times are set. The travel classes of the rooms are computed as well (see
+     * getTravelClass(int)).
+     */
+    void compact() {
+        classify();
+        if (dense != null) return;
+        final long pairs = (long) roomNo * (roomNo - 1) / 2;
+        final int capacity = capacityFor(size);
+        if (pairs * Short.BYTES < (long) capacity * SPARSE_ENTRY_BYTES && pairs <= Integer.MAX_VALUE) {
+            dense = new short[(int) pairs];
+            for (int slot = 0; slot < keys.length; slot++)
+                if (keys[slot] != 0) dense[keys[slot] - 1] = values[slot];
+            keys = null;
+            values = null;
+        } else if (capacity < keys.length) rehash(capacity);
+    }
+
+    /**
+     * Checks if the travel times are kept in the dense representation.
+     *
+     * @return True if the dense upper triangle is used and false if the sparse hash table is used.
      */
-    void setTravelTime(int id1, int id2, int value) throws ArrayIndexOutOfBoundsException {
-        travelTime[id1 - 1][id2 - 1] = value;
-        travelTime[id2 - 1][id1 - 1] = value;
+    boolean isDense() {
+        return dense != null;
     }
 
     @Override
     public String toString() {
-        return "TravelTime{" + "travelTime=" + Arrays.toString(travelTime) + '}';
+        return "TravelTime{" + "roomNo=" + roomNo + ", representation=" + (dense != null ? "dense" : "sparse")
+                + (dense != null ? "" : ", nonZero=" + size) + '}';
+    }
+
+    /**
+     * Returns the index of the given room pair in the upper triangle of the travel time matrix.
+     *
+     * @param id1 The id of room 1.
+     * @param id2 The id of room 2 (id1 != id2).
+     * @return Pair index.
+     * @throws ArrayIndexOutOfBoundsException If any of the given ids is < 1 or > roomNo.
+     */
+    private int pairIndex(int id1, int id2) throws ArrayIndexOutOfBoundsException {
+        checkId(id1);
+        checkId(id2);
+        final long i = Math.min(id1, id2) - 1, j = Math.max(id1, id2) - 1;
+        return (int) (i * (2L * roomNo - i - 1) / 2 + (j - i - 1));
+    }
+
+    /**
+     * Checks that the given room id exists.
+     *
+     * @param id The room id.
+     * @throws ArrayIndexOutOfBoundsException If the given id is < 1 or > roomNo.
+     */
+    private void checkId(int id) throws ArrayIndexOutOfBoundsException {
+        if (id < 1 || id > roomNo) throw new ArrayIndexOutOfBoundsException("Invalid room id: " + id);
+    }
+
+    /**
+     * Groups the rooms with travel times into travel classes (numbered from 1) by comparing their travel times to all
+     * the rooms. The rows of the travel time matrix are hashed first, so only the rooms with the same hash are
+     * compared. Running time = O(roomNo²) (expected).
+     */
+    private void classify() {
+        travelClasses = new int[roomNo];
+        final HashMap<Integer, ArrayList<Integer>> representatives = new HashMap<>();
+        int classNo = 0;
+        for (int id = 1; id <= roomNo; id++) {
+            if (roomMaxTravelTime[id - 1] == 0) continue;
+            int hash = 1;
+            for (int other = 1; other <= roomNo; other++) hash = 31 * hash + getTravelTime(id, other);
+            final ArrayList<Integer> rooms = representatives.computeIfAbsent(hash, key -> new ArrayList<>());
+            for (int representative : rooms)
+                if (sameTravelTimes(id, representative)) {
+                    travelClasses[id - 1] = travelClasses[representative - 1];
+                    break;
+                }
+            if (travelClasses[id - 1] == 0) {
+                travelClasses[id - 1] = ++classNo;
+                rooms.add(id);
+            }
+        }
+    }
+
+    /**
+     * Checks if the given rooms have the same travel times to every room.
+     *
+     * @param id1 The id of room 1.
+     * @param id2 The id of room 2.
+     * @return True if the travel times of the two rooms are the same, and false otherwise.
+     */
+    private boolean sameTravelTimes(int id1, int id2) {
+        for (int other = 1; other <= roomNo; other++)
+            if (getTravelTime(id1, other) != getTravelTime(id2, other)) return false;
+        return true;
+    }
+
+    /**
+     * Rebuilds the sparse hash table with the given capacity.
+     *
+     * @param capacity The new capacity (a power of two).
+     */
+    private void rehash(int capacity) {
+        final int[] oldKeys = keys;
+        final short[] oldValues = values;
+        keys = new int[capacity];
+        values = new short[capacity];
+        final int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != 0) slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+    }
+
+    /**
+     * Returns the smallest power of two capacity that keeps the given number of entries at most half full.
+     *
+     * @param entries The number of entries.
+     * @return Capacity.
+     */
+    private static int capacityFor(int entries) {
+        return Math.max(16, Integer.highestOneBit(Math.max(1, entries * 2 - 1)) << 1);
+    }
+
+    /**
+     * Spreads the bits of the given key.
+     *
+     * @param key The key.
+     * @return Hash.
+     */
+    private static int hash(int key) {
+        final int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,233 @@
+package com.dataset.constraints;
+
+import com.dataset.Class;
+import com.dataset.Problem;
+import com.dataset.Time;
+import com.dataset.TimeAssignment;
+import com.utils.Timetable;
+
+import java.util.Arrays;
+
+/**
+ * This abstract class represents an aggregate distribution constraint as defined in the ITC 2019 dataset (MaxDays,
+ * MaxDayLoad, MaxBreaks, and MaxBlock). Unlike a pair distribution constraint, an aggregate constraint is evaluated
+ * over the times of all its classes at once, split into cells: each cell is a day of the week (for MaxDays) or a day
+ * of a week of the semester (for the others). The violations of the constraint are computed from the values of its
+ * cells (see cellValue() and total()), where the value of a cell only depends on the times of the classes that meet on
+ * that cell.
+ * <p>
+ * Since moving a class only changes the cells of its old and new times, the cell values can be kept for a timetable
+ * and updated incrementally (see AggregateState).
+ * <p>
+ * A constraint is shared by all the timetables (and threads) of its problem instance, so the buffers of the full
+ * evaluations (the times of the classes, the times of a cell, the weeks mask, and the day loads) are kept per thread
+ * and reused, so the evaluations allocate nothing once the buffers of a thread have grown to the largest constraint.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.3
+ */
+abstract class AggregateDistributionConstraint extends DistributionConstraint {
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    /**
+     * Constructs an aggregate distribution constraint over the given classes.
+     *
+     * @param classes The list of classes that this constraint is applied to.
+     */
+    AggregateDistributionConstraint(Class[] classes) {
+        super(classes);
+    }
+
+    /**
+     * Checks if the cells of this constraint are the days of the weeks of the semester (true) or only the days of the
+     * week, regardless of the weeks (false).
+     *
+     * @return True if the cells are (week, day) pairs, and false if they are days.
+     */
+    boolean isWeekly() {
+        return true;
+    }
+
+    /**
+     * Returns the value of a cell, given the times of the classes that meet on the cell.
+     *
+     * @param times The times of the classes that meet on the cell. Their order may be changed by this method.
+     * @param n     The number of times (the first n items of the given array).
+     * @return Cell value.
+     */
+    abstract int cellValue(Time[] times, int n);
+
+    /**
+     * Returns the violations count of this constraint, given the sum of the values of its cells.
+     *
+     * @param sum The sum of the cell values.
+     * @return Violations count.
+     */
+    int total(int sum) {
+        return sum;
+    }
+
+    @Override
+    public boolean isSatisfied(Timetable timetable) throws NullPointerException {
+        return violationCount(timetable) == 0;
+    }
+
+    @Override
+    public int violationCount(Timetable timetable) throws NullPointerException {
+        final Class[] classes = getClasses();
+        final Time[] times = BUFFERS.get().times(classes.length);
+        for (int i = 0; i < classes.length; i++)
+            times[i] = timetable.getEvent(classes[i].getId()).getTimeAssignment().getTime();
+        return evaluate(timetable.getProblem(), times, classes.length);
+    }
+
+    /**
+     * Counts the violations of this constraint over the classes that are assigned a time in the given timetable (the
+     * others are ignored). For an aggregate constraint, all the violations involve all its classes, so the result
+     * does not depend on the given class.
+     * <p>
+     * Running time = O(c × n), where c is the number of cells that any of the classes meets on and n is the number of
+     * classes of this constraint. See AggregateState for the incremental version.
+     *
+     * @param timetable A candidate, or possible, solution.
+     * @param aClass    One of the classes of this constraint.
+     * @return Violations count of the scheduled classes of this constraint.
+     */
+    @Override
+    public int violationCount(Timetable timetable, Class aClass) {
+        final Class[] classes = getClasses();
+        final Time[] times = BUFFERS.get().times(classes.length);
+        int n = 0;
+        TimeAssignment timeAssignment;
+        for (Class c : classes)
+            if ((timeAssignment = timetable.getEvent(c.getId()).getTimeAssignment()) != null)
+                times[n++] = timeAssignment.getTime();
+        return evaluate(timetable.getProblem(), times, n);
+    }
+
+    @Override
+    public int scheduledViolationCount(Timetable timetable) {
+        return violationCount(timetable, getClasses()[0]);
+    }
+
+    /**
+     * Computes the violations count of this constraint for the given times of its classes, in one pass over the times
+     * per cell that any of them meets on.
+     *
+     * @param problem The problem instance.
+     * @param times   The times of the (scheduled) classes of this constraint.
+     * @param n       The number of times (the first n items of the given array).
+     * @return Violations count.
+     */
+    int evaluate(Problem problem, Time[] times, int n) {
+        final Buffers buffers = BUFFERS.get();
+        final Time[] cell = buffers.cell(n);
+        final int words = isWeekly() ? (problem.getNrWeeks() + 63) >>> 6 : 1;
+        final long[] weeks = buffers.weeks(words);
+        long days = 0;
+        for (int i = 0; i < n; i++) {
+            days |= times[i].getDaysMask();
+            if (isWeekly())
+                for (int j = 0; j < words; j++) weeks[j] |= times[i].getWeeksMask()[j];
+        }
+        if (!isWeekly()) weeks[0] = 1;
+        int sum = 0, m, week, day;
+        for (int j = 0; j < words; j++)
+            for (long w = weeks[j]; w != 0; w &= w - 1) {
+                week = (j << 6) + Long.numberOfTrailingZeros(w);
+                for (long d = days; d != 0; d &= d - 1) {
+                    day = Long.numberOfTrailingZeros(d);
+                    m = 0;
+                    for (int i = 0; i < n; i++)
+                        if (times[i].hasDay(day) && (!isWeekly() || times[i].hasWeek(week))) cell[m++] = times[i];
+                    if (m > 0) sum += cellValue(cell, m);
+                }
+            }
+        return total(sum);
+    }
+
+    /**
+     * Returns a zeroed int buffer of the current thread of (at least) the given size, for the evaluations of the
+     * subclasses. It is reused by the next call on the same thread.
+     *
+     * @param size The size.
+     * @return Int buffer.
+     */
+    static int[] intBuffer(int size) {
+        return BUFFERS.get().ints(size);
+    }
+
+    /**
+     * Sorts the given times by their start (insertion sort, since the number of classes meeting on a cell is small).
+     *
+     * @param times The times.
+     * @param n     The number of times (the first n items of the given array).
+     */
+    static void sortByStart(Time[] times, int n) {
+        Time time;
+        int j;
+        for (int i = 1; i < n; i++) {
+            time = times[i];
+            for (j = i - 1; j >= 0 && times[j].getStart() > time.getStart(); j--) times[j + 1] = times[j];
+            times[j + 1] = time;
+        }
+    }
+
+    /**
+     * This class represents the evaluation buffers of a thread, which grow to the largest evaluation on the thread.
+     */
+    private static class Buffers {
+        private Time[] times = new Time[0];
+        private Time[] cell = new Time[0];
+        private long[] weeks = new long[0];
+        private int[] ints = new int[0];
+
+        /**
+         * Returns the buffer of the times of the classes of a constraint.
+         *
+         * @param n The number of times.
+         * @return Times buffer.
+         */
+        Time[] times(int n) {
+            if (times.length < n) times = new Time[n];
+            return times;
+        }
+
+        /**
+         * Returns the buffer of the times of a cell.
+         *
+         * @param n The number of times.
+         * @return Cell buffer.
+         */
+        Time[] cell(int n) {
+            if (cell.length < n) cell = new Time[n];
+            return cell;
+        }
+
+        /**
+         * Returns the zeroed weeks mask buffer.
+         *
+         * @param words The number of words (longs) of the mask.
+         * @return Weeks buffer.
+         */
+        long[] weeks(int words) {
+            if (weeks.length < words) weeks = new long[words];
+            else Arrays.fill(weeks, 0, words, 0);
+            return weeks;
+        }
+
+        /**
+         * Returns the zeroed int buffer.
+         *
+         * @param size The size.
+         * @return Int buffer.
+         */
+        int[] ints(int size) {
+            if (ints.length < size) ints = new int[size];
+            else Arrays.fill(ints, 0, size, 0);
+            return ints;
+        }
+    }
+}
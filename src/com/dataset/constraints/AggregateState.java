@@ -0,0 +1,167 @@
+package com.dataset.constraints;
+
+import com.dataset.Class;
+import com.dataset.Problem;
+import com.dataset.Time;
+import com.dataset.TimeAssignment;
+import com.utils.Timetable;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the cell values of an aggregate distribution constraint (see AggregateDistributionConstraint) for a
+ * timetable, so the violations count of the constraint is available in O(1) and can be updated incrementally when a
+ * class of the constraint moves: only the cells of the old and new times of the moved class are re-evaluated, each in
+ * one pass over the classes of the constraint.
+ * <p>
+ * The state only counts the classes that are assigned a time, so it starts with no violations for an empty timetable
+ * and is kept up to date by the timetable (see Timetable.assign).
+ * <p>
+ * IMPORTANT: A state belongs to a single timetable and is not thread-safe.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.2
+ */
+public class AggregateState {
+    private final AggregateDistributionConstraint constraint;
+    private final int nrWeeks;
+    private final int nrDays;
+    private final int[] cells;
+    private final Time[] buffer;
+    private final long[] weeks;
+    private int sum;
+
+    /**
+     * Constructs an empty state (no classes scheduled) of the given constraint.
+     *
+     * @param constraint The aggregate distribution constraint.
+     * @param problem    The problem instance.
+     */
+    private AggregateState(AggregateDistributionConstraint constraint, Problem problem) {
+        this.constraint = constraint;
+        nrWeeks = constraint.isWeekly() ? problem.getNrWeeks() : 1;
+        nrDays = problem.getNrDays();
+        cells = new int[nrWeeks * nrDays];
+        buffer = new Time[constraint.getClasses().length];
+        weeks = new long[(nrWeeks + 63) >>> 6];
+    }
+
+    /**
+     * Creates an empty state of the given constraint if it is an aggregate constraint.
+     *
+     * @param constraint The distribution constraint.
+     * @param problem    The problem instance.
+     * @return The state of the given constraint. Returns null if the given constraint is not an aggregate constraint.
+     */
+    public static AggregateState create(DistributionConstraint constraint, Problem problem) {
+        return constraint instanceof AggregateDistributionConstraint aggregate
+                ? new AggregateState(aggregate, problem) : null;
+    }
+
+    /**
+     * Returns the violations count of the constraint of this state.
+     *
+     * @return Violations count.
+     */
+    public int getViolationCount() {
+        return constraint.total(sum);
+    }
+
+    /**
+     * Returns the violations count that the constraint of this state would have after the given class moved from the
+     * given old time to its current time in the given timetable, without updating this state.
+     * <p>
+     * Running time = O(c × n), where c is the number of cells of the old and current times of the class and n is the
+     * number of classes of the constraint.
+     *
+     * @param timetable The timetable of this state.
+     * @param aClass    The moved class (one of the classes of the constraint).
+     * @param oldTime   The time of the class before the move, or null.
+     * @return Violations count after the move.
+     */
+    public int evaluate(Timetable timetable, Class aClass, Time oldTime) {
+        return constraint.total(sum + refresh(timetable, aClass, oldTime, false));
+    }
+
+    /**
+     * Updates this state after the given class moved from the given old time to its current time in the given
+     * timetable.
+     *
+     * @param timetable The timetable of this state.
+     * @param aClass    The moved class (one of the classes of the constraint).
+     * @param oldTime   The time of the class before the move, or null.
+     */
+    public void update(Timetable timetable, Class aClass, Time oldTime) {
+        sum += refresh(timetable, aClass, oldTime, true);
+    }
+
+    @Override
+    public String toString() {
+        return "AggregateState{" + "constraint=" + constraint.getType() + ", violations=" + getViolationCount() + '}';
+    }
+
+    /**
+     * Re-evaluates the cells of the old and current times of the given class.
+     *
+     * @param timetable The timetable of this state.
+     * @param aClass    The moved class.
+     * @param oldTime   The time of the class before the move, or null.
+     * @param commit    True if the new cell values are to be stored.
+     * @return The change of the sum of the cell values.
+     */
+    private int refresh(Timetable timetable, Class aClass, Time oldTime, boolean commit) {
+        final TimeAssignment timeAssignment = timetable.getEvent(aClass.getId()).getTimeAssignment();
+        final Time newTime = timeAssignment == null ? null : timeAssignment.getTime();
+        if (oldTime == newTime) return 0;
+        Arrays.fill(weeks, 0);
+        final long days = addWeeks(oldTime) | addWeeks(newTime);
+        if (!constraint.isWeekly()) weeks[0] = 1;
+        int delta = 0, week, day, value;
+        for (int j = 0; j < weeks.length; j++)
+            for (long w = weeks[j]; w != 0; w &= w - 1) {
+                week = (j << 6) + Long.numberOfTrailingZeros(w);
+                for (long d = days; d != 0; d &= d - 1) {
+                    day = Long.numberOfTrailingZeros(d);
+                    value = cellValue(timetable, week, day);
+                    delta += value - cells[week * nrDays + day];
+                    if (commit) cells[week * nrDays + day] = value;
+                }
+            }
+        return delta;
+    }
+
+    /**
+     * Adds the weeks of the given time to the weeks buffer (if the cells are weekly).
+     *
+     * @param time The time, or null.
+     * @return The days mask of the given time. Returns 0 if the given time is null.
+     */
+    private long addWeeks(Time time) {
+        if (time == null) return 0;
+        if (constraint.isWeekly())
+            for (int j = 0; j < weeks.length; j++) weeks[j] |= time.getWeeksMask()[j];
+        return time.getDaysMask();
+    }
+
+    /**
+     * Evaluates the given cell over the classes of the constraint that are assigned a time in the given timetable.
+     *
+     * @param timetable The timetable.
+     * @param week      The week of the cell (0 if the cells are not weekly).
+     * @param day       The day of the cell.
+     * @return Cell value.
+     */
+    private int cellValue(Timetable timetable, int week, int day) {
+        int n = 0;
+        TimeAssignment timeAssignment;
+        Time time;
+        for (Class c : constraint.getClasses())
+            if ((timeAssignment = timetable.getEvent(c.getId()).getTimeAssignment()) != null) {
+                time = timeAssignment.getTime();
+                if (time.hasDay(day) && (!constraint.isWeekly() || time.hasWeek(week))) buffer[n++] = time;
+            }
+        return n == 0 ? 0 : constraint.cellValue(buffer, n);
+    }
+}
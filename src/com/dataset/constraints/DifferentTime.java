@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Event;
+import com.dataset.Room;
+import com.dataset.Time;
 
 /**
  * This class represent the Distribution Constraint (C3): DifferentTime: Given classes must be taught during different
@@ -12,7 +13,7 @@ import com.utils.Event;
  * Created by Sina on 11-Mar-22
  *
  * @author Sina
- * @version 0.1
+ * @version 0.2
  */
 class DifferentTime extends PairDistributionConstraint {
 
@@ -26,9 +27,8 @@ class DifferentTime extends PairDistributionConstraint {
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // (Ci.end ≤ Cj.start) ∨ (Cj.end ≤ Ci.start)
-        return e1.getTimeAssignment().getTime().getEnd() <= e2.getTimeAssignment().getTime().getStart()
-                || e2.getTimeAssignment().getTime().getEnd() <= e1.getTimeAssignment().getTime().getStart();
+        return t1.getEnd() <= t2.getStart() || t2.getEnd() <= t1.getStart();
     }
 }
\ No newline at end of file
@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Event;
+import com.dataset.Room;
+import com.dataset.Time;
 import com.utils.LogicalOperators;
 
 /**
@@ -12,7 +13,7 @@ import com.utils.LogicalOperators;
  * Created by Sina on 15-Mar-22
  *
  * @author Sina
- * @version 0.2
+ * @version 0.3
  */
 class DifferentWeeks extends PairDistributionConstraint {
 
@@ -26,9 +27,8 @@ class DifferentWeeks extends PairDistributionConstraint {
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // (Ci.weeks and Cj.weeks) = 0
-        return LogicalOperators.andIsFalse(e1.getTimeAssignment().getTime().getWeeks()
-                , e2.getTimeAssignment().getTime().getWeeks());
+        return LogicalOperators.andIsFalse(t1.getWeeksMask(), t2.getWeeksMask());
     }
 }
\ No newline at end of file
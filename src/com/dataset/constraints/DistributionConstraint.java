@@ -1,6 +1,7 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
+import com.dataset.TravelTime;
 import com.utils.Timetable;
 
 import java.util.ArrayList;
@@ -15,9 +16,9 @@ import java.util.Arrays;
  * Created by Sina on 10-Mar-22
  *
  * @author Sina
- * @version 0.5
+ * @version 0.11
  */
-abstract class DistributionConstraint {
+public abstract class DistributionConstraint {
     private final Class[] classes;
 
     /**
@@ -34,10 +35,127 @@ abstract class DistributionConstraint {
      *
      * @return The list of classes of this constraint.
      */
-    Class[] getClasses() {
+    public Class[] getClasses() {
         return classes;
     }
 
+    /**
+     * Returns the ITC 2019 type of this distribution constraint as it appears in the type attribute of a distribution
+     * element in the problem instance XML file, including its parameters (e.g., "SameAttendees" or "MaxDays(2)").
+     *
+     * @return Distribution constraint type.
+     */
+    public String getType() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Checks if the soft penalty of this constraint is divided by the number of weeks of the semester (MaxDayLoad,
+     * MaxBreaks, and MaxBlock), which is done once, over the total violations count (see SoftConstraint.calcPenalty()).
+     *
+     * @return True if the soft penalty of this constraint is divided by nrWeeks, and false otherwise.
+     */
+    public boolean isAveragedOverWeeks() {
+        return false;
+    }
+
+    /**
+     * Creates the distribution constraint described by the given ITC 2019 type over the given classes. The type is the
+     * value of the type attribute of a distribution element in the problem instance XML file, including its parameters
+     * (e.g., "SameAttendees", "MaxDays(2)", or "WorkDays(96)").
+     *
+     * @param type       The ITC 2019 distribution constraint type (with its parameters, if any).
+     * @param classes    The list of classes that this constraint is applied to.
+     * @param travelTime The travel times between the rooms of the problem instance of the given classes.
+     * @return The distribution constraint object of the given type.
+     * @throws IllegalArgumentException If the given type is unknown or its parameters are malformed.
+     */
+    public static DistributionConstraint create(String type, Class[] classes, TravelTime travelTime)
+            throws IllegalArgumentException {
+        int open = type.indexOf('(');
+        String name = open < 0 ? type : type.substring(0, open);
+        int[] params = parseParameters(type, open);
+        switch (name) {
+            case "SameStart":
+                return new SameStart(classes);
+            case "SameTime":
+                return new SameTime(classes);
+            case "DifferentTime":
+                return new DifferentTime(classes);
+            case "SameDays":
+                return new SameDays(classes);
+            case "DifferentDays":
+                return new DifferentDays(classes);
+            case "SameWeeks":
+                return new SameWeeks(classes);
+            case "DifferentWeeks":
+                return new DifferentWeeks(classes);
+            case "SameRoom":
+                return new SameRoom(classes);
+            case "DifferentRoom":
+                return new DifferentRoom(classes);
+            case "Overlap":
+                return new Overlap(classes);
+            case "NotOverlap":
+                return new NotOverlap(classes);
+            case "SameAttendees":
+                return new SameAttendees(classes, travelTime);
+            case "Precedence":
+                return new Precedence(classes);
+            case "WorkDays":
+                return new WorkDays(classes, requireParameter(type, params, 0));
+            case "MinGap":
+                return new MinGap(classes, requireParameter(type, params, 0));
+            case "MaxDays":
+                return new MaxDays(classes, requireParameter(type, params, 0));
+            case "MaxDayLoad":
+                return new MaxDayLoad(classes, requireParameter(type, params, 0));
+            case "MaxBreaks":
+                return new MaxBreaks(classes, requireParameter(type, params, 0), requireParameter(type, params, 1));
+            case "MaxBlock":
+                return new MaxBlock(classes, requireParameter(type, params, 0), requireParameter(type, params, 1));
+            default:
+                throw new IllegalArgumentException("Unknown or unsupported distribution constraint type: " + type);
+        }
+    }
+
+    /**
+     * Parses the comma separated int parameters of the given distribution constraint type (e.g., "MaxBreaks(1,12)").
+     *
+     * @param type The ITC 2019 distribution constraint type.
+     * @param open The index of the opening parenthesis in the given type, or -1 if the type has no parameters.
+     * @return The parameters of the given type. An empty array if the type has no parameters.
+     * @throws IllegalArgumentException If the parameters are malformed.
+     */
+    private static int[] parseParameters(String type, int open) throws IllegalArgumentException {
+        if (open < 0) return new int[0];
+        if (!type.endsWith(")"))
+            throw new IllegalArgumentException("Malformed distribution constraint type: " + type);
+        String[] tokens = type.substring(open + 1, type.length() - 1).split(",");
+        int[] params = new int[tokens.length];
+        try {
+            for (int i = 0; i < tokens.length; i++) params[i] = Integer.parseInt(tokens[i].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed distribution constraint parameters: " + type);
+        }
+        return params;
+    }
+
+    /**
+     * Returns the parameter at the given position or throws if the given type does not provide it.
+     *
+     * @param type   The ITC 2019 distribution constraint type.
+     * @param params The parsed parameters of the type.
+     * @param index  The position of the desired parameter.
+     * @return The parameter at the given position.
+     * @throws IllegalArgumentException If the type has fewer parameters than required.
+     */
+    private static int requireParameter(String type, int[] params, int index) throws IllegalArgumentException {
+        if (index >= params.length)
+            throw new IllegalArgumentException("Missing parameter for distribution constraint type: " + type);
+        return params[index];
+    }
+
     @Override
     public String toString() {
         return "DistributionConstraint{type=" + this.getClass().getSimpleName() + ", classes="
@@ -52,7 +170,7 @@ abstract class DistributionConstraint {
      * @return True if the input timetable satisfies this constraint for all its classes, and false otherwise.
      * @throws NullPointerException If a given timetable is not fully scheduled.
      */
-    abstract boolean isSatisfied(Timetable timetable) throws NullPointerException;
+    public abstract boolean isSatisfied(Timetable timetable) throws NullPointerException;
 
     /**
      * Counts the number of times that the given timetable violates this constraint over its classes.
@@ -61,7 +179,60 @@ abstract class DistributionConstraint {
      * @return Violations count of the input timetable.
      * @throws NullPointerException If a given timetable is not fully scheduled.
      */
-    abstract int violationCount(Timetable timetable) throws NullPointerException;
+    public abstract int violationCount(Timetable timetable) throws NullPointerException;
+
+    /**
+     * Counts the number of times that the given timetable violates this constraint, where the violations involve the
+     * given class. Unlike violationCount(timetable), the given timetable does not need to be fully scheduled: the
+     * constraint is only evaluated over the scheduled events of its classes. Therefore, the difference of the results
+     * of this method before and after changing the assignment of the given class is the change in the violations count
+     * of this constraint, which is what an incremental (delta) evaluation needs.
+     * <p>
+     * This implementation evaluates the whole constraint when all its classes are scheduled (and returns 0 otherwise),
+     * which suits the constraints that are not defined over pairs of classes.
+     *
+     * @param timetable A candidate, or possible, solution.
+     * @param aClass    One of the classes of this constraint.
+     * @return Violations count of the input timetable that involve the given class.
+     */
+    public int violationCount(Timetable timetable, Class aClass) {
+        for (Class c : classes)
+            if (!timetable.getEvent(c.getId()).isScheduled()) return 0;
+        return violationCount(timetable);
+    }
+
+    /**
+     * Counts the violations of this constraint over the scheduled events of its classes, so the given timetable does
+     * not need to be fully scheduled. For a fully scheduled timetable, the result is the same as violationCount().
+     * <p>
+     * This implementation evaluates the whole constraint when all its classes are scheduled (and returns 0 otherwise),
+     * as violationCount(timetable, aClass) does.
+     *
+     * @param timetable A candidate, or possible, solution.
+     * @return Violations count of the scheduled events of the input timetable.
+     */
+    public int scheduledViolationCount(Timetable timetable) {
+        for (Class c : classes)
+            if (!timetable.getEvent(c.getId()).isScheduled()) return 0;
+        return violationCount(timetable);
+    }
+
+    /**
+     * Passes the violations of the given timetable for this distribution constraint to the given visitor, one by one,
+     * until the visitor returns false. Nothing is allocated for the violations, so this is what the hot paths (e.g.,
+     * conflict-directed neighborhoods) should use instead of getViolations().
+     * <p>
+     * This implementation reports a single violation (with class ids 0) if the constraint is not satisfied, which
+     * suits the constraints that are not defined over pairs of classes.
+     *
+     * @param timetable A candidate, or possible, solution.
+     * @param visitor   The violation visitor.
+     * @return True if all the violations were visited, and false if the visitor stopped the visit.
+     * @throws NullPointerException If a given timetable is not fully scheduled.
+     */
+    public boolean visitViolations(Timetable timetable, ViolationVisitor visitor) throws NullPointerException {
+        return isSatisfied(timetable) || visitor.visit(this, 0, 0);
+    }
 
     /**
      * Returns the list of all violations of the given timetable for this distribution constraint.
@@ -72,7 +243,9 @@ abstract class DistributionConstraint {
      */
     ArrayList<Violation> getViolations(Timetable timetable) throws NullPointerException {
         ArrayList<Violation> violations = new ArrayList<>();
-        if (!isSatisfied(timetable)) violations.add(new Violation(null, null, this));
+        visitViolations(timetable, (constraint, classId1, classId2) -> violations.add(new Violation(
+                classId1 == 0 ? null : timetable.getEvent(classId1), classId2 == 0 ? null : timetable.getEvent(classId2),
+                constraint)));
         return violations;
     }
 }
\ No newline at end of file
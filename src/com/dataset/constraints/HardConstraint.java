@@ -7,9 +7,9 @@ package com.dataset.constraints;
  * Created by Sina on 10-Mar-22
  *
  * @author Sina
- * @version 0.2
+ * @version 0.4
  */
-class HardConstraint {
+public class HardConstraint {
     private final DistributionConstraint constraint;
 
     /**
@@ -17,7 +17,7 @@ class HardConstraint {
      *
      * @param constraint A distribution constraint.
      */
-    HardConstraint(DistributionConstraint constraint) {
+    public HardConstraint(DistributionConstraint constraint) {
         this.constraint = constraint;
     }
 
@@ -26,7 +26,7 @@ class HardConstraint {
      *
      * @return Distribution constraint.
      */
-    DistributionConstraint getConstraint() {
+    public DistributionConstraint getConstraint() {
         return constraint;
     }
 
@@ -0,0 +1,68 @@
+package com.dataset.constraints;
+
+import com.dataset.Class;
+import com.dataset.Time;
+
+/**
+ * This class represents the Distribution Constraint (C19): MaxBlock(M,S): This constraint limits the length of a block
+ * of consecutive classes during a day (not more than M slots in a block). For each day of week and week, two
+ * consecutive classes are considered to be in the same block if the gap between them is not more than S time slots.
+ * This means that for each week w ∈ {0, 1, …, nrWeeks − 1} of the semester and each day of the week
+ * d ∈ {0, 1, …, nrDays − 1}, every block B of MergeBlocks({(C.start, C.end) | (C.days and 2d) ≠ 0 ∧ (C.weeks and 2w)
+ * ≠ 0}) satisfies B.end − B.start ≤ M, where MergeBlocks merges the blocks (start, end) that are at most S time slots
+ * apart. As in the reference (UniTime) validator, a block of a single class is never a violation. When the constraint
+ * is soft, the penalty is multiplied by the number of blocks that are over the M time slots over each day of the week
+ * and week of the semester and divided by the number of weeks of the semester at the end (using integer division), as
+ * in MaxDayLoad.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+class MaxBlock extends AggregateDistributionConstraint {
+    private final int maxBlockLength;
+    private final int maxGap;
+
+    /**
+     * Constructs a MaxBlock constraint object over the given classes.
+     *
+     * @param classes        The list of classes that this constraint is applied to.
+     * @param maxBlockLength The maximum length of a block in time slots (M).
+     * @param maxGap         The maximum number of empty time slots between two classes of the same block (S).
+     */
+    MaxBlock(Class[] classes, int maxBlockLength, int maxGap) {
+        super(classes);
+        this.maxBlockLength = maxBlockLength;
+        this.maxGap = maxGap;
+    }
+
+    @Override
+    public String getType() {
+        return "MaxBlock(" + maxBlockLength + ',' + maxGap + ')';
+    }
+
+    @Override
+    public boolean isAveragedOverWeeks() {
+        return true;
+    }
+
+    @Override
+    int cellValue(Time[] times, int n) {
+        // |{B ∈ MergeBlocks(...) | B.end − B.start > M ∧ B has more than one class}|
+        sortByStart(times, n);
+        int count = 0, blockStart = times[0].getStart(), blockEnd = times[0].getEnd(), blockSize = 1;
+        for (int i = 1; i < n; i++)
+            if (times[i].getStart() > blockEnd + maxGap) {
+                if (blockSize > 1 && blockEnd - blockStart > maxBlockLength) count++;
+                blockStart = times[i].getStart();
+                blockEnd = times[i].getEnd();
+                blockSize = 1;
+            } else {
+                blockEnd = Math.max(blockEnd, times[i].getEnd());
+                blockSize++;
+            }
+        if (blockSize > 1 && blockEnd - blockStart > maxBlockLength) count++;
+        return count;
+    }
+}
@@ -0,0 +1,62 @@
+package com.dataset.constraints;
+
+import com.dataset.Class;
+import com.dataset.Time;
+
+/**
+ * This class represents the Distribution Constraint (C18): MaxBreaks(R,S): This constraint limits the number of breaks
+ * during a day between a given set of classes (not more than R breaks during a day). For each day of week and week,
+ * there is a break between classes if there is more than S empty time slots in between. Two consecutive classes are
+ * considered to be in the same block if the gap between them is not more than S time slots. This means that for each
+ * week w ∈ {0, 1, …, nrWeeks − 1} of the semester and each day of the week d ∈ {0, 1, …, nrDays − 1}, the number of
+ * blocks is not greater than R + 1,
+ * |MergeBlocks({(C.start, C.end) | (C.days and 2d) ≠ 0 ∧ (C.weeks and 2w) ≠ 0})| ≤ R + 1
+ * where MergeBlocks merges the blocks (start, end) that are at most S time slots apart. When the constraint is soft,
+ * the penalty is multiplied by the number of additional breaks computed over each day of the week and week of the
+ * semester and divided by the number of weeks of the semester at the end (using integer division), as in MaxDayLoad.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+class MaxBreaks extends AggregateDistributionConstraint {
+    private final int maxBreaks;
+    private final int minBreakLength;
+
+    /**
+     * Constructs a MaxBreaks constraint object over the given classes.
+     *
+     * @param classes        The list of classes that this constraint is applied to.
+     * @param maxBreaks      The maximum number of breaks on any day of the semester (R).
+     * @param minBreakLength The maximum number of empty time slots between two classes of the same block (S).
+     */
+    MaxBreaks(Class[] classes, int maxBreaks, int minBreakLength) {
+        super(classes);
+        this.maxBreaks = maxBreaks;
+        this.minBreakLength = minBreakLength;
+    }
+
+    @Override
+    public String getType() {
+        return "MaxBreaks(" + maxBreaks + ',' + minBreakLength + ')';
+    }
+
+    @Override
+    public boolean isAveragedOverWeeks() {
+        return true;
+    }
+
+    @Override
+    int cellValue(Time[] times, int n) {
+        // max(|MergeBlocks(...)| − (R + 1), 0)
+        sortByStart(times, n);
+        int blocks = 1, blockEnd = times[0].getEnd();
+        for (int i = 1; i < n; i++)
+            if (times[i].getStart() > blockEnd + minBreakLength) {
+                blocks++;
+                blockEnd = times[i].getEnd();
+            } else blockEnd = Math.max(blockEnd, times[i].getEnd());
+        return Math.max(blocks - maxBreaks - 1, 0);
+    }
+}
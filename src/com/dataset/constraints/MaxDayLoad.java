@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Timetable;
+import com.dataset.Problem;
+import com.dataset.Time;
 
 /**
  * This class represents the Distribution Constraint (C17): MaxDayLoad(S): Given classes must be spread over the days
@@ -15,22 +16,23 @@ import com.utils.Timetable;
  * weeks of the semester (using integer division). Importantly the integer division is computed at the very end.
  * That is (penalty × ∑w,dmax(DayLoad(d,w) − S, 0)) / nrWeeks
  * <p>
+ * The violations count of this constraint is ∑w,dmax(DayLoad(d,w) − S, 0), and the division by nrWeeks is done by the
+ * soft constraint (see SoftConstraint.calcPenalty()). A full evaluation accumulates the day loads in a small int array
+ * in one pass over the classes.
+ * <p>
  * Created by Sina on 29-Mar-22
  *
  * @author Sina
- * @version 0.2
+ * @version 0.7
  */
-class MaxDayLoad extends DistributionConstraint {
-
-    //TODO: Fix the soft constraint penalty calculation for this constraint.
-
+class MaxDayLoad extends AggregateDistributionConstraint {
     private final int maxTimeslots;
 
     /**
      * Constructs a maxDayLoad constraint object over the given classes.
      *
      * @param classes      The list of classes that this constraint is applied to.
-     * @param maxTimeslots The maximum number of timeslots allowed for the given classes over the entire term.
+     * @param maxTimeslots The maximum number of timeslots allowed for the given classes on any day of the semester.
      */
     MaxDayLoad(Class[] classes, int maxTimeslots) {
         super(classes);
@@ -38,33 +40,40 @@ class MaxDayLoad extends DistributionConstraint {
     }
 
     @Override
-    boolean isSatisfied(Timetable timetable) throws NullPointerException {
-        int dayLoad;
-        for (int w = 0; w < timetable.getWeeksLength(); w++)
-            for (int d = 0; d < timetable.getDaysLength(); d++) {
-                dayLoad = 0;
-                for (Class aClass : getClasses()) {
-                    if (dayLoad > maxTimeslots) return false;
-                    if (timetable.getEvent(aClass.getId()).getTimeAssignment().getTime().getWeeks()[w]
-                            && timetable.getEvent(aClass.getId()).getTimeAssignment().getTime().getDays()[d])
-                        dayLoad += timetable.getEvent(aClass.getId()).getTimeAssignment().getTime().getLength();
-                }
-            }
+    public String getType() {
+        return "MaxDayLoad(" + maxTimeslots + ')';
+    }
+
+    @Override
+    public boolean isAveragedOverWeeks() {
         return true;
     }
 
     @Override
-    int violationCount(Timetable timetable) throws NullPointerException {
-        int total = 0, dayLoad;
-        for (int w = 0; w < timetable.getWeeksLength(); w++)
-            for (int d = 0; d < timetable.getDaysLength(); d++) {
-                dayLoad = 0;
-                for (Class aClass : getClasses())
-                    if (timetable.getEvent(aClass.getId()).getTimeAssignment().getTime().getWeeks()[w]
-                            && timetable.getEvent(aClass.getId()).getTimeAssignment().getTime().getDays()[d])
-                        dayLoad += timetable.getEvent(aClass.getId()).getTimeAssignment().getTime().getLength();
-                total += Math.max(dayLoad - maxTimeslots, 0);
-            }
+    int cellValue(Time[] times, int n) {
+        // max(DayLoad(d,w) − S, 0)
+        int dayLoad = 0;
+        for (int i = 0; i < n; i++) dayLoad += times[i].getLength();
+        return Math.max(dayLoad - maxTimeslots, 0);
+    }
+
+    @Override
+    int evaluate(Problem problem, Time[] times, int n) {
+        final int nrDays = problem.getNrDays();
+        final int size = problem.getNrWeeks() * nrDays;
+        final int[] dayLoads = intBuffer(size);
+        long[] weeks;
+        for (int i = 0; i < n; i++) {
+            weeks = times[i].getWeeksMask();
+            for (int j = 0; j < weeks.length; j++)
+                for (long w = weeks[j]; w != 0; w &= w - 1) {
+                    final int offset = ((j << 6) + Long.numberOfTrailingZeros(w)) * nrDays;
+                    for (long d = times[i].getDaysMask(); d != 0; d &= d - 1)
+                        dayLoads[offset + Long.numberOfTrailingZeros(d)] += times[i].getLength();
+                }
+        }
+        int total = 0;
+        for (int i = 0; i < size; i++) total += Math.max(dayLoads[i] - maxTimeslots, 0);
         return total;
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Timetable;
+import com.dataset.Problem;
+import com.dataset.Time;
 
 /**
  * This class represents the Distribution Constraint (C16): MaxDays(D): Given classes cannot spread over more than D
@@ -11,12 +12,15 @@ import com.utils.Timetable;
  * where countNonzeroBits(x) returns the number of non-zero bits in the bit string x. When the constraint is soft, the
  * penalty is multiplied by the number of days that exceed the given constant D.
  * <p>
+ * The cells of this constraint are the days of the week (see AggregateDistributionConstraint), and a cell counts 1 if
+ * any class meets on it. A full evaluation only ORs the day masks of the classes.
+ * <p>
  * Created by Sina on 29-Mar-22
  *
  * @author Sina
- * @version 0.3
+ * @version 0.7
  */
-class MaxDays extends DistributionConstraint {
+class MaxDays extends AggregateDistributionConstraint {
     private final int maxDays;
 
     /**
@@ -31,29 +35,30 @@ class MaxDays extends DistributionConstraint {
     }
 
     @Override
-    boolean isSatisfied(Timetable timetable) {
-        int trueCounter = 0;
-        for (int i = 0; i < timetable.getDaysLength(); i++) {
-            if (trueCounter > maxDays) return false;
-            for (Class aClass : getClasses())
-                if (timetable.getEvent(aClass.getId()).getTimeAssignment().getTime().getDays()[i]) {
-                    trueCounter++;
-                    break;
-                }
-        }
-        return true;
+    public String getType() {
+        return "MaxDays(" + maxDays + ')';
+    }
+
+    @Override
+    boolean isWeekly() {
+        return false;
+    }
+
+    @Override
+    int cellValue(Time[] times, int n) {
+        return 1;
+    }
+
+    @Override
+    int total(int sum) {
+        return Math.max(sum - maxDays, 0);
     }
 
     @Override
-    int violationCount(Timetable timetable) {
-        int trueCounter = 0;
-        for (int i = 0; i < timetable.getDaysLength(); i++) {
-            for (Class aClass : getClasses())
-                if (timetable.getEvent(aClass.getId()).getTimeAssignment().getTime().getDays()[i]) {
-                    trueCounter++;
-                    break;
-                }
-        }
-        return (trueCounter <= maxDays) ? 0 : (trueCounter - maxDays);
+    int evaluate(Problem problem, Time[] times, int n) {
+        // countNonzeroBits(C1.days or C2.days or ⋅ ⋅ ⋅ Cn.days) ≤ D
+        long days = 0;
+        for (int i = 0; i < n; i++) days |= times[i].getDaysMask();
+        return total(Long.bitCount(days));
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Event;
+import com.dataset.Room;
+import com.dataset.Time;
 import com.utils.LogicalOperators;
 
 /**
@@ -14,7 +15,7 @@ import com.utils.LogicalOperators;
  * Created by Sina on 17-Mar-22
  *
  * @author Sina
- * @version 0.2
+ * @version 0.5
  */
 class MinGap extends PairDistributionConstraint {
     private final int minGap;
@@ -31,13 +32,16 @@ class MinGap extends PairDistributionConstraint {
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    public String getType() {
+        return "MinGap(" + minGap + ')';
+    }
+
+    @Override
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // ((Ci.days and Cj.days) = 0) ∨ ((Ci.weeks and Cj.weeks) = 0) ∨ (Ci.end + G ≤ Cj.start)
         // ∨ (Cj.end + G ≤ Ci.start)
-        return LogicalOperators.andIsFalse(e1.getTimeAssignment().getTime().getDays(),
-                e2.getTimeAssignment().getTime().getDays())
-                || LogicalOperators.andIsFalse(e1.getTimeAssignment().getTime().getWeeks()
-                , e2.getTimeAssignment().getTime().getWeeks())
-                || (e1.getTimeAssignment().getTime().getEnd() + minGap <= e2.getTimeAssignment().getTime().getStart());
+        return LogicalOperators.andIsFalse(t1.getDaysMask(), t2.getDaysMask())
+                || LogicalOperators.andIsFalse(t1.getWeeksMask(), t2.getWeeksMask())
+                || (t1.getEnd() + minGap <= t2.getStart()) || (t2.getEnd() + minGap <= t1.getStart());
     }
 }
\ No newline at end of file
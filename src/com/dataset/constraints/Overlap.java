@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Event;
+import com.dataset.Room;
+import com.dataset.Time;
 import com.utils.LogicalOperators;
 
 /**
@@ -13,7 +14,7 @@ import com.utils.LogicalOperators;
  * Created by Sina on 15-Mar-22
  *
  * @author Sina
- * @version 0.2
+ * @version 0.3
  */
 class Overlap extends PairDistributionConstraint {
 
@@ -27,13 +28,10 @@ class Overlap extends PairDistributionConstraint {
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // (Cj.start < Ci.end) ∧ (Ci.start < Cj.end) ∧ ((Ci.days and Cj.days) ≠ 0) ∧ ((Ci.weeks and Cj.weeks) ≠ 0)
-        return e2.getTimeAssignment().getTime().getStart() < e1.getTimeAssignment().getTime().getEnd()
-                && e1.getTimeAssignment().getTime().getStart() < e2.getTimeAssignment().getTime().getEnd()
-                && !LogicalOperators.andIsFalse(e1.getTimeAssignment().getTime().getDays()
-                , e2.getTimeAssignment().getTime().getDays())
-                && !LogicalOperators.andIsFalse(e1.getTimeAssignment().getTime().getWeeks()
-                , e2.getTimeAssignment().getTime().getWeeks());
+        return t2.getStart() < t1.getEnd() && t1.getStart() < t2.getEnd()
+                && !LogicalOperators.andIsFalse(t1.getDaysMask(), t2.getDaysMask())
+                && !LogicalOperators.andIsFalse(t1.getWeeksMask(), t2.getWeeksMask());
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.dataset.constraints;
+
+import com.dataset.Problem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * This class compiles the compatibility bit-matrices of the pair distribution constraints of a problem instance (see
+ * PairDistributionConstraint) within a memory budget. The constraints are compiled from the smallest to the largest
+ * matrices until the budget is used up, so the constraints over small domains (which are usually the most frequent
+ * ones) are compiled first. The compilation of the constraints runs in parallel.
+ * <p>
+ * An instance of this class keeps the numbers of the compiled constraints and the used memory, to be reported.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class PairCompatibility {
+    /**
+     * The default memory budget of the compatibility matrices of a problem instance (64 MB).
+     */
+    public static final long DEFAULT_BUDGET = 64L << 20;
+
+    private final int constraintNo;
+    private final int compiledNo;
+    private final long bytes;
+    private final long nanos;
+
+    /**
+     * Constructs a compilation summary.
+     *
+     * @param constraintNo The number of pair constraints of the problem instance.
+     * @param compiledNo   The number of compiled pair constraints.
+     * @param bytes        The memory used by the compiled matrices in bytes.
+     * @param nanos        The compilation time in nanoseconds.
+     */
+    private PairCompatibility(int constraintNo, int compiledNo, long bytes, long nanos) {
+        this.constraintNo = constraintNo;
+        this.compiledNo = compiledNo;
+        this.bytes = bytes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Compiles the compatibility matrices of the pair constraints (hard and soft) of the given problem instance, as
+     * long as the total size of the matrices does not exceed the given budget. The constraints that are already
+     * compiled are skipped.
+     *
+     * @param problem     The problem instance.
+     * @param budgetBytes The memory budget in bytes. 0 compiles nothing.
+     * @return The compilation summary.
+     * @throws IllegalArgumentException If the given budget is negative.
+     */
+    public static PairCompatibility compile(Problem problem, long budgetBytes) throws IllegalArgumentException {
+        if (budgetBytes < 0) throw new IllegalArgumentException("Budget cannot be negative: " + budgetBytes);
+        final long start = System.nanoTime();
+        ArrayList<PairDistributionConstraint> constraints = new ArrayList<>();
+        for (HardConstraint constraint : problem.getHardConstraints()) collect(constraint.getConstraint(), constraints);
+        for (SoftConstraint constraint : problem.getSoftConstraints()) collect(constraint.getConstraint(), constraints);
+        final long[] sizes = new long[constraints.size()];
+        Integer[] order = new Integer[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = constraints.get(i).getCompatibilityBytes();
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> sizes[i]));
+        ArrayList<PairDistributionConstraint> selected = new ArrayList<>();
+        long bytes = 0;
+        for (int i : order) {
+            if (sizes[i] > budgetBytes - bytes) break;
+            bytes += sizes[i];
+            selected.add(constraints.get(i));
+        }
+        selected.parallelStream().forEach(PairDistributionConstraint::compile);
+        return new PairCompatibility(constraints.size(), selected.size(), bytes, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the number of pair constraints of the problem instance.
+     *
+     * @return The number of pair constraints.
+     */
+    public int getConstraintNo() {
+        return constraintNo;
+    }
+
+    /**
+     * Returns the number of pair constraints that were compiled.
+     *
+     * @return The number of compiled constraints.
+     */
+    public int getCompiledNo() {
+        return compiledNo;
+    }
+
+    /**
+     * Returns the memory used by the compiled matrices.
+     *
+     * @return Bytes.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the compilation time.
+     *
+     * @return Nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "PairCompatibility{" + "constraints=" + constraintNo + ", compiled=" + compiledNo + ", bytes=" + bytes
+                + '}';
+    }
+
+    /**
+     * Adds the given constraint to the given list if it is a pair constraint that is not compiled yet.
+     *
+     * @param constraint  The distribution constraint.
+     * @param constraints The list of pair constraints.
+     */
+    private static void collect(DistributionConstraint constraint, ArrayList<PairDistributionConstraint> constraints) {
+        if (constraint instanceof PairDistributionConstraint pair && !pair.isCompiled()) constraints.add(pair);
+    }
+}
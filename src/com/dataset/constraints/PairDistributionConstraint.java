@@ -1,23 +1,34 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
+import com.dataset.Room;
+import com.dataset.RoomAssignment;
+import com.dataset.Time;
 import com.utils.Event;
 import com.utils.Timetable;
 
-import java.util.ArrayList;
-
 /**
  * This abstract class represents a pair distribution constraint as defined in the ITC 2019 dataset. A distribution
  * constraint can either be pair or can be over a list of classes. While a pair distribution constraint is applied and
  * checked over a pair of events (scheduled classes), others evaluate and perform the check method over features of a
  * list of events (scheduled classes). The necessary check methods for violations are also added here.
  * <p>
+ * Since the possible times and rooms of each class are fixed, the result of the check method for a pair of classes only
+ * depends on the option (the index of the possible time and/or room, depending on what the constraint looks at) of
+ * each class. Therefore, a pair constraint can be compiled into a compatibility bit-matrix for each pair of its
+ * classes, indexed by (option of class i, option of class j), so checking a pair is a single bit lookup. The matrices
+ * are optional (see PairCompatibility, which compiles them within a memory budget); without them, the check method is
+ * used.
+ * <p>
  * Created by Sina on 25-Mar-22
  *
  * @author Sina
- * @version 0.2
+ * @version 0.7
  */
 abstract class PairDistributionConstraint extends DistributionConstraint {
+    static final int TIME = 1, ROOM = 2;
+
+    private long[][] compatibility;
 
     /**
      * Constructs a pair distribution constraint over the given classes.
@@ -30,55 +41,296 @@ abstract class PairDistributionConstraint extends DistributionConstraint {
 
     /**
      * This is the logic and the primary checking of this constraint. It checks to see whether the requirement of this
-     * distribution constraint is satisfied over the given pair of scheduled classes (events).
+     * distribution constraint is satisfied over the given pair of scheduled classes (given by their times and rooms).
      * <p>
      * To see the exact procedure of this check method, refer to the JavaDoc of its corresponding class.
      *
+     * @param t1 The time of the first scheduled class (Ci).
+     * @param r1 The room of the first scheduled class (Ci), or null if it does not require a room.
+     * @param t2 The time of the second scheduled class (Cj).
+     * @param r2 The room of the second scheduled class (Cj), or null if it does not require a room.
+     * @return True if the given pair satisfy this constraint, and false otherwise.
+     */
+    abstract boolean check(Time t1, Room r1, Time t2, Room r2);
+
+    /**
+     * Checks to see whether the requirement of this distribution constraint is satisfied over the given pair of
+     * scheduled classes (events).
+     *
      * @param e1 The first scheduled class (event) (Ci).
      * @param e2 The second scheduled class (event) (Cj).
      * @return True if the given event pair satisfy this constraint, and false otherwise.
      * @throws NullPointerException If a given event is not scheduled.
      */
-    abstract boolean check(Event e1, Event e2) throws NullPointerException;
+    final boolean check(Event e1, Event e2) throws NullPointerException {
+        return check(e1.getTimeAssignment().getTime(), room(e1.getRoomAssignment()), e2.getTimeAssignment().getTime(),
+                room(e2.getRoomAssignment()));
+    }
+
+    /**
+     * Returns what the check method of this constraint looks at: TIME, ROOM, or both (TIME | ROOM). This defines the
+     * options of the classes in the compatibility matrices.
+     *
+     * @return TIME, ROOM, or TIME | ROOM.
+     */
+    int getDependencies() {
+        return TIME;
+    }
 
     @Override
-    boolean isSatisfied(Timetable timetable) {
+    public boolean isSatisfied(Timetable timetable) {
         Event e1, e2;
         for (int i = 0; i < getClasses().length - 1; i++) {
             e1 = timetable.getEvent(getClasses()[i].getId());
             for (int j = i + 1; j < getClasses().length; j++) {
                 e2 = timetable.getEvent(getClasses()[j].getId());
-                if (!check(e1, e2)) return false;
+                if (!satisfies(i, j, e1, e2)) return false;
             }
         }
         return true;
     }
 
     @Override
-    int violationCount(Timetable timetable) {
+    public int violationCount(Timetable timetable) {
         Event e1, e2;
         int count = 0;
         for (int i = 0; i < getClasses().length - 1; i++) {
             e1 = timetable.getEvent(getClasses()[i].getId());
             for (int j = i + 1; j < getClasses().length; j++) {
                 e2 = timetable.getEvent(getClasses()[j].getId());
-                if (!check(e1, e2)) count++;
+                if (!satisfies(i, j, e1, e2)) count++;
             }
         }
         return count;
     }
 
+    /**
+     * Counts the pairs of classes of this constraint that violate this constraint in the given timetable, skipping
+     * the pairs with an unscheduled event.
+     *
+     * @param timetable A candidate, or possible, solution.
+     * @return The number of violating pairs of scheduled events.
+     */
     @Override
-    ArrayList<Violation> getViolations(Timetable timetable) {
+    public int scheduledViolationCount(Timetable timetable) {
         Event e1, e2;
-        ArrayList<Violation> violations = new ArrayList<>();
+        int count = 0;
         for (int i = 0; i < getClasses().length - 1; i++) {
             e1 = timetable.getEvent(getClasses()[i].getId());
+            if (!e1.isScheduled()) continue;
             for (int j = i + 1; j < getClasses().length; j++) {
                 e2 = timetable.getEvent(getClasses()[j].getId());
-                if (!check(e1, e2)) violations.add(new Violation(e1, e2, this));
+                if (e2.isScheduled() && !satisfies(i, j, e1, e2)) count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the pairs of classes of this constraint that include the given class and violate this constraint in the
+     * given timetable. The pairs with an unscheduled event are skipped. Each pair is checked in the order of the
+     * classes of this constraint, which matters for the constraints that are not symmetric (e.g., Precedence).
+     * <p>
+     * Running time = O(n), where n is the number of classes of this constraint.
+     *
+     * @param timetable A candidate, or possible, solution.
+     * @param aClass    One of the classes of this constraint.
+     * @return The number of violating pairs that include the given class.
+     */
+    @Override
+    public int violationCount(Timetable timetable, Class aClass) {
+        final Event event = timetable.getEvent(aClass.getId());
+        if (!event.isScheduled()) return 0;
+        final Class[] classes = getClasses();
+        int position = 0;
+        while (classes[position] != aClass) position++;
+        Event other;
+        int count = 0;
+        for (int i = 0; i < classes.length; i++) {
+            if (i == position) continue;
+            other = timetable.getEvent(classes[i].getId());
+            if (other.isScheduled() && !(i > position ? satisfies(position, i, event, other)
+                    : satisfies(i, position, other, event))) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean visitViolations(Timetable timetable, ViolationVisitor visitor) throws NullPointerException {
+        final Class[] classes = getClasses();
+        Event e1, e2;
+        for (int i = 0; i < classes.length - 1; i++) {
+            e1 = timetable.getEvent(classes[i].getId());
+            for (int j = i + 1; j < classes.length; j++) {
+                e2 = timetable.getEvent(classes[j].getId());
+                if (!satisfies(i, j, e1, e2) && !visitor.visit(this, classes[i].getId(), classes[j].getId()))
+                    return false;
             }
         }
-        return violations;
+        return true;
+    }
+
+    /**
+     * Checks if the compatibility matrices of this constraint are compiled.
+     *
+     * @return True if this constraint is compiled, and false otherwise.
+     */
+    boolean isCompiled() {
+        return compatibility != null;
+    }
+
+    /**
+     * Returns the number of bytes the compatibility matrices of this constraint take (one bit per pair of options of
+     * each pair of classes).
+     *
+     * @return Matrices size in bytes. Returns Long.MAX_VALUE if a matrix would have more than Integer.MAX_VALUE bits.
+     */
+    long getCompatibilityBytes() {
+        final Class[] classes = getClasses();
+        long bytes = 0, bits;
+        for (int i = 0; i < classes.length - 1; i++)
+            for (int j = i + 1; j < classes.length; j++) {
+                bits = (long) domainSize(classes[i]) * domainSize(classes[j]);
+                if (bits > Integer.MAX_VALUE) return Long.MAX_VALUE;
+                bytes += ((bits + 63) >>> 6) * Long.BYTES + 16;
+            }
+        return bytes;
+    }
+
+    /**
+     * Compiles the compatibility matrices of this constraint by running the check method over all the pairs of
+     * options of each pair of classes.
+     */
+    void compile() {
+        final Class[] classes = getClasses();
+        long[][] matrices = new long[classes.length * (classes.length - 1) / 2][];
+        int pair = 0, n1, n2, bit;
+        for (int i = 0; i < classes.length - 1; i++)
+            for (int j = i + 1; j < classes.length; j++, pair++) {
+                n1 = domainSize(classes[i]);
+                n2 = domainSize(classes[j]);
+                long[] bits = new long[(int) (((long) n1 * n2 + 63) >>> 6)];
+                for (int o1 = 0; o1 < n1; o1++)
+                    for (int o2 = 0; o2 < n2; o2++)
+                        if (check(time(classes[i], o1), room(classes[i], o1), time(classes[j], o2),
+                                room(classes[j], o2))) {
+                            bit = o1 * n2 + o2;
+                            bits[bit >>> 6] |= 1L << bit;
+                        }
+                matrices[pair] = bits;
+            }
+        compatibility = matrices;
+    }
+
+    /**
+     * Checks if the given pair of events satisfies this constraint, using the compatibility matrix of the pair if this
+     * constraint is compiled and the check method otherwise.
+     *
+     * @param i  The position of the class of the first event in the classes of this constraint.
+     * @param j  The position of the class of the second event in the classes of this constraint (i < j).
+     * @param e1 The first event.
+     * @param e2 The second event.
+     * @return True if the given event pair satisfy this constraint, and false otherwise.
+     * @throws NullPointerException If a given event is not scheduled.
+     */
+    private boolean satisfies(int i, int j, Event e1, Event e2) throws NullPointerException {
+        if (compatibility == null) return check(e1, e2);
+        final int n = getClasses().length;
+        final int bit = option(getClasses()[i], e1) * domainSize(getClasses()[j]) + option(getClasses()[j], e2);
+        return (compatibility[i * (2 * n - i - 1) / 2 + (j - i - 1)][bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Returns the number of options of the given class, which is the number of its possible times, rooms, or (times ×
+     * rooms), depending on the dependencies of this constraint. A class that does not require a room has a single
+     * room option (no room).
+     *
+     * @param aClass The class.
+     * @return The number of options.
+     */
+    private int domainSize(Class aClass) {
+        final int times = aClass.getPossibleTimeAssignments().length;
+        final int rooms = aClass.requiresRoom() ? aClass.getPossibleRoomAssignments().length : 1;
+        switch (getDependencies()) {
+            case TIME:
+                return times;
+            case ROOM:
+                return rooms;
+            default:
+                return (int) Math.min((long) times * rooms, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Returns the option of the current assignment of the given (scheduled) event.
+     *
+     * @param aClass The class of the event.
+     * @param event  The event.
+     * @return Option.
+     */
+    private int option(Class aClass, Event event) {
+        final int room = Math.max(event.getRoomIndex(), 0);
+        switch (getDependencies()) {
+            case TIME:
+                return event.getTimeIndex();
+            case ROOM:
+                return room;
+            default:
+                return event.getTimeIndex() * (aClass.requiresRoom() ? aClass.getPossibleRoomAssignments().length : 1)
+                        + room;
+        }
+    }
+
+    /**
+     * Returns the time of the given option of the given class.
+     *
+     * @param aClass The class.
+     * @param option The option.
+     * @return Time. Returns the first possible time if this constraint does not depend on time.
+     */
+    private Time time(Class aClass, int option) {
+        switch (getDependencies()) {
+            case TIME:
+                return aClass.getPossibleTimeAssignments()[option].getTime();
+            case ROOM:
+                return aClass.getPossibleTimeAssignments()[0].getTime();
+            default:
+                return aClass.getPossibleTimeAssignments()[option / domainSize(aClass, ROOM)].getTime();
+        }
+    }
+
+    /**
+     * Returns the room of the given option of the given class.
+     *
+     * @param aClass The class.
+     * @param option The option.
+     * @return Room. Returns null if the class does not require a room or this constraint does not depend on room.
+     */
+    private Room room(Class aClass, int option) {
+        if (!aClass.requiresRoom() || getDependencies() == TIME) return null;
+        return aClass.getPossibleRoomAssignments()[getDependencies() == ROOM ? option
+                : option % domainSize(aClass, ROOM)].getRoom();
+    }
+
+    /**
+     * Returns the number of possible rooms (or 1 if no room is required) or times of the given class.
+     *
+     * @param aClass     The class.
+     * @param dependency TIME or ROOM.
+     * @return The number of possible times or rooms.
+     */
+    private static int domainSize(Class aClass, int dependency) {
+        if (dependency == TIME) return aClass.getPossibleTimeAssignments().length;
+        return aClass.requiresRoom() ? aClass.getPossibleRoomAssignments().length : 1;
+    }
+
+    /**
+     * Returns the room of the given room assignment.
+     *
+     * @param roomAssignment The room assignment.
+     * @return Room. Returns null if the given room assignment is null.
+     */
+    private static Room room(RoomAssignment roomAssignment) {
+        return roomAssignment == null ? null : roomAssignment.getRoom();
     }
-}
\ No newline at end of file
+}
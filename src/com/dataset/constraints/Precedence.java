@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Event;
+import com.dataset.Room;
+import com.dataset.Time;
 import com.utils.LogicalOperators;
 
 /**
@@ -24,7 +25,7 @@ import com.utils.LogicalOperators;
  * Created by Sina on 17-Mar-22
  *
  * @author Sina
- * @version 0.2
+ * @version 0.3
  */
 class Precedence extends PairDistributionConstraint {
 
@@ -38,17 +39,13 @@ class Precedence extends PairDistributionConstraint {
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // (first(Ci.weeks) < first(Cj.weeks)) ∨ [ (first(Ci.weeks) = first(Cj.weeks)) ∧
         // [ (first(Ci .days) < first(Cj .days)) ∨ ((first(Ci.days) = first(Cj.days)) ∧ (Ci.end ≤ Cj.start)) ] ]
-        return LogicalOperators.firstTrueIndex(e1.getTimeAssignment().getTime().getWeeks())
-                < LogicalOperators.firstTrueIndex(e2.getTimeAssignment().getTime().getWeeks())
-                || (LogicalOperators.firstTrueIndex(e1.getTimeAssignment().getTime().getWeeks())
-                == LogicalOperators.firstTrueIndex(e2.getTimeAssignment().getTime().getWeeks())
-                && (LogicalOperators.firstTrueIndex(e1.getTimeAssignment().getTime().getDays())
-                < LogicalOperators.firstTrueIndex(e2.getTimeAssignment().getTime().getDays())
-                || LogicalOperators.firstTrueIndex(e1.getTimeAssignment().getTime().getDays())
-                == LogicalOperators.firstTrueIndex(e2.getTimeAssignment().getTime().getDays())
-                && e1.getTimeAssignment().getTime().getEnd() <= e2.getTimeAssignment().getTime().getStart()));
+        final int week1 = LogicalOperators.firstTrueIndex(t1.getWeeksMask());
+        final int week2 = LogicalOperators.firstTrueIndex(t2.getWeeksMask());
+        final int day1 = LogicalOperators.firstTrueIndex(t1.getDaysMask());
+        final int day2 = LogicalOperators.firstTrueIndex(t2.getDaysMask());
+        return week1 < week2 || (week1 == week2 && (day1 < day2 || day1 == day2 && t1.getEnd() <= t2.getStart()));
     }
 }
\ No newline at end of file
@@ -1,8 +1,9 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
+import com.dataset.Room;
+import com.dataset.Time;
 import com.dataset.TravelTime;
-import com.utils.Event;
 import com.utils.LogicalOperators;
 
 /**
@@ -13,35 +14,39 @@ import com.utils.LogicalOperators;
  * (Cj.end + Cj.room.travel[Ci.room] ≤ Ci.start) ∨
  * ((Ci.days and Cj.days) = 0) ∨ ((Ci.weeks and Cj.weeks) = 0)
  * for any two classes Ci and Cj from the constraint; Ci.room.travel[Cj.room] is the travel time between the assigned
- * rooms of Ci and Cj.
+ * rooms of Ci and Cj. If any of the two classes does not require a room, the travel time between them is 0.
  * <p>
  * Created by Sina on 17-Mar-22
  *
  * @author Sina
- * @version 0.1
+ * @version 0.3
  */
 class SameAttendees extends PairDistributionConstraint {
+    private final TravelTime travelTime;
 
     /**
      * Constructs a SameAttendees constraint object over the given classes.
      *
-     * @param classes The list of classes that this constraint is applied to.
+     * @param classes    The list of classes that this constraint is applied to.
+     * @param travelTime The travel times between the rooms of the problem instance of the given classes.
      */
-    SameAttendees(Class[] classes) {
+    SameAttendees(Class[] classes, TravelTime travelTime) {
         super(classes);
+        this.travelTime = travelTime;
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // (Ci.end + Ci.room.travel[Cj.room] ≤ Cj.start) ∨ (Cj.end + Cj.room.travel[Ci.room] ≤ Ci.start)
         // ∨ ((Ci.days and Cj.days) = 0) ∨ ((Ci.weeks and Cj.weeks) = 0)
-        int travelTime = TravelTime.getInstance().getTravelTime(e1.getRoomAssignment().getRoom().getId()
-                , e2.getRoomAssignment().getRoom().getId());
-        return e1.getTimeAssignment().getTime().getEnd() + travelTime <= e2.getTimeAssignment().getTime().getStart()
-                || e2.getTimeAssignment().getTime().getEnd() + travelTime <= e1.getTimeAssignment().getTime().getStart()
-                || LogicalOperators.andIsFalse(e1.getTimeAssignment().getTime().getDays()
-                , e2.getTimeAssignment().getTime().getDays())
-                || LogicalOperators.andIsFalse(e1.getTimeAssignment().getTime().getWeeks()
-                , e2.getTimeAssignment().getTime().getWeeks());
+        int travel = r1 == null || r2 == null ? 0 : travelTime.getTravelTime(r1.getId(), r2.getId());
+        return t1.getEnd() + travel <= t2.getStart() || t2.getEnd() + travel <= t1.getStart()
+                || LogicalOperators.andIsFalse(t1.getDaysMask(), t2.getDaysMask())
+                || LogicalOperators.andIsFalse(t1.getWeeksMask(), t2.getWeeksMask());
     }
-}
\ No newline at end of file
+
+    @Override
+    int getDependencies() {
+        return TIME | ROOM;
+    }
+}
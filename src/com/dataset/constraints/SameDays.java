@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Event;
+import com.dataset.Room;
+import com.dataset.Time;
 import com.utils.LogicalOperators;
 
 /**
@@ -16,7 +17,7 @@ import com.utils.LogicalOperators;
  * Created by Sina on 11-Mar-22
  *
  * @author Sina
- * @version 0.3
+ * @version 0.4
  */
 class SameDays extends PairDistributionConstraint {
 
@@ -30,9 +31,8 @@ class SameDays extends PairDistributionConstraint {
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // ((Ci.days or Cj.days) = Ci.days) ∨ ((Ci.days or Cj.days) = Cj.days)
-        return LogicalOperators.areSubsets(e1.getTimeAssignment().getTime().getDays()
-                , e2.getTimeAssignment().getTime().getDays());
+        return LogicalOperators.areSubsets(t1.getDaysMask(), t2.getDaysMask());
     }
 }
\ No newline at end of file
@@ -1,17 +1,19 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Event;
+import com.dataset.Room;
+import com.dataset.Time;
 
 /**
  * This class represents the Distribution Constraint (C8): SameRoom: Given classes should be placed in the same room.
  * This means that (Ci.room = Cj.room) for any two classes Ci and Cj from the constraint; Ci.room is the assigned room
- * of Ci.
+ * of Ci. A pair that includes a class which does not require a room (and has no assigned room) satisfies this
+ * constraint.
  * <p>
  * Created by Sina on 15-Mar-22
  *
  * @author Sina
- * @version 0.1
+ * @version 0.3
  */
 class SameRoom extends PairDistributionConstraint {
 
@@ -25,8 +27,13 @@ class SameRoom extends PairDistributionConstraint {
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // Ci.room = Cj.room
-        return e1.getRoomAssignment().getRoom() == e2.getRoomAssignment().getRoom();
+        return r1 == null || r2 == null || r1 == r2;
     }
-}
\ No newline at end of file
+
+    @Override
+    int getDependencies() {
+        return ROOM;
+    }
+}
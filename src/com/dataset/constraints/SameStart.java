@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Event;
+import com.dataset.Room;
+import com.dataset.Time;
 
 /**
  * This class represent the Distribution Constraint (C1): SameStart: Given classes must start at the same time slot,
@@ -11,7 +12,7 @@ import com.utils.Event;
  * Created by Sina on 11-Mar-22
  *
  * @author Sina
- * @version 0.2
+ * @version 0.3
  */
 class SameStart extends PairDistributionConstraint {
 
@@ -25,8 +26,8 @@ class SameStart extends PairDistributionConstraint {
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // Ci.start = Cj.start
-        return e1.getTimeAssignment().getTime().getStart() == e2.getTimeAssignment().getTime().getStart();
+        return t1.getStart() == t2.getStart();
     }
 }
\ No newline at end of file
@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Event;
+import com.dataset.Room;
+import com.dataset.Time;
 
 /**
  * This class represents the Distribution Constraint (C2): SameTime: Given classes must be taught at the same time of
@@ -14,7 +15,7 @@ import com.utils.Event;
  * Created by Sina on 11-Mar-22
  *
  * @author Sina
- * @version 0.1
+ * @version 0.2
  */
 class SameTime extends PairDistributionConstraint {
 
@@ -28,11 +29,9 @@ class SameTime extends PairDistributionConstraint {
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // (Ci.start ≤ Cj.start ∧ Cj.end ≤ Ci.end) ∨ (Cj.start ≤ Ci.start ∧ Ci.end ≤ Cj.end)
-        return (e1.getTimeAssignment().getTime().getStart() <= e2.getTimeAssignment().getTime().getStart()
-                && e2.getTimeAssignment().getTime().getEnd() <= e1.getTimeAssignment().getTime().getEnd())
-                || (e2.getTimeAssignment().getTime().getStart() <= e1.getTimeAssignment().getTime().getStart()
-                && e1.getTimeAssignment().getTime().getEnd() <= e2.getTimeAssignment().getTime().getEnd());
+        return (t1.getStart() <= t2.getStart() && t2.getEnd() <= t1.getEnd())
+                || (t2.getStart() <= t1.getStart() && t1.getEnd() <= t2.getEnd());
     }
 }
\ No newline at end of file
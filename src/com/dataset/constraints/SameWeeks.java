@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Event;
+import com.dataset.Room;
+import com.dataset.Time;
 import com.utils.LogicalOperators;
 
 /**
@@ -14,7 +15,7 @@ import com.utils.LogicalOperators;
  * Created by Sina on 15-Mar-22
  *
  * @author Sina
- * @version 0.2
+ * @version 0.3
  */
 class SameWeeks extends PairDistributionConstraint {
 
@@ -28,9 +29,8 @@ class SameWeeks extends PairDistributionConstraint {
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // (Ci.weeks or Cj.weeks) = Ci.weeks) ∨ (Ci.weeks or Cj.weeks) = Cj.weeks)
-        return LogicalOperators.areSubsets(e1.getTimeAssignment().getTime().getWeeks()
-                , e2.getTimeAssignment().getTime().getWeeks());
+        return LogicalOperators.areSubsets(t1.getWeeksMask(), t2.getWeeksMask());
     }
 }
\ No newline at end of file
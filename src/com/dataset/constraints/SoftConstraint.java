@@ -5,14 +5,15 @@ package com.dataset.constraints;
  * satisfied and there is a penalty for each violation. When any of the constraints that can be validated on pairs of
  * classes is soft, the provided penalty is incurred for every pair of classes of the constraint that are in a
  * violation. In other words, if M pairs of classes do not satisfy the distribution constraint, the total penalty for
- * violation of this constraint is M × penalty.
+ * violation of this constraint is M × penalty. For MaxDayLoad, MaxBreaks, and MaxBlock, the total penalty is divided by
+ * the number of weeks of the semester.
  * <p>
  * Created by Sina on 10-Mar-22
  *
  * @author Sina
- * @version 0.4
+ * @version 0.7
  */
-class SoftConstraint {
+public class SoftConstraint {
     private final DistributionConstraint constraint;
     private final int penalty;
 
@@ -23,7 +24,7 @@ class SoftConstraint {
      * @param penalty    The penalty of each violation.
      * @throws IllegalArgumentException If the given penalty is < 1.
      */
-    SoftConstraint(DistributionConstraint constraint, int penalty) throws IllegalArgumentException {
+    public SoftConstraint(DistributionConstraint constraint, int penalty) throws IllegalArgumentException {
         this.constraint = constraint;
         if (penalty < 1)
             throw new IllegalArgumentException("Soft constraint violation penalty for a distribution constraint must "
@@ -36,7 +37,7 @@ class SoftConstraint {
      *
      * @return Distribution Constraint.
      */
-    DistributionConstraint getConstraint() {
+    public DistributionConstraint getConstraint() {
         return constraint;
     }
 
@@ -45,7 +46,7 @@ class SoftConstraint {
      *
      * @return Penalty.
      */
-    int getPenalty() {
+    public int getPenalty() {
         return penalty;
     }
 
@@ -55,12 +56,15 @@ class SoftConstraint {
     }
 
     /**
-     * Calculates the total penalty of violations (total penalty = penalty * count(violations)).
+     * Calculates the total penalty of violations (total penalty = penalty * count(violations)). For the constraints
+     * whose penalty is averaged over the weeks of the semester (see DistributionConstraint.isAveragedOverWeeks()), the
+     * total penalty is divided by the number of weeks (using integer division, at the very end).
      *
      * @param violationsCount The number of occurred violations.
+     * @param nrWeeks         The number of weeks of the semester.
      * @return Total penalty.
      */
-    final int calcPenalty(int violationsCount) {
-        return penalty * violationsCount;
+    public final int calcPenalty(int violationsCount, int nrWeeks) {
+        return constraint.isAveragedOverWeeks() ? penalty * violationsCount / nrWeeks : penalty * violationsCount;
     }
 }
\ No newline at end of file
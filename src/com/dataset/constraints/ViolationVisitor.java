@@ -0,0 +1,25 @@
+package com.dataset.constraints;
+
+/**
+ * This interface represents a callback that receives the violations of distribution constraints one by one (see
+ * DistributionConstraint.visitViolations()), as primitive class ids, so the violations can be counted, reported, or
+ * searched for the first offender without creating a list or a Violation object per violation.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+@FunctionalInterface
+public interface ViolationVisitor {
+
+    /**
+     * Receives a violation of the given distribution constraint.
+     *
+     * @param constraint The violated distribution constraint.
+     * @param classId1   The id of the first class of the violating pair. 0 in case of list distribution constraints.
+     * @param classId2   The id of the second class of the violating pair. 0 in case of list distribution constraints.
+     * @return True to continue visiting the violations, and false to stop.
+     */
+    boolean visit(DistributionConstraint constraint, int classId1, int classId2);
+}
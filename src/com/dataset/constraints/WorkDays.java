@@ -1,7 +1,8 @@
 package com.dataset.constraints;
 
 import com.dataset.Class;
-import com.utils.Event;
+import com.dataset.Room;
+import com.dataset.Time;
 import com.utils.LogicalOperators;
 
 /**
@@ -15,7 +16,7 @@ import com.utils.LogicalOperators;
  * Created by Sina on 17-Mar-22
  *
  * @author Sina
- * @version 0.2
+ * @version 0.4
  */
 class WorkDays extends PairDistributionConstraint {
     private final int maxGap;                                                                                           // S
@@ -33,14 +34,15 @@ class WorkDays extends PairDistributionConstraint {
     }
 
     @Override
-    boolean check(Event e1, Event e2) throws NullPointerException {
+    public String getType() {
+        return "WorkDays(" + maxGap + ')';
+    }
+
+    @Override
+    boolean check(Time t1, Room r1, Time t2, Room r2) {
         // ((Ci.days and Cj.days) = 0) ∨ ((Ci.weeks and Cj.weeks) = 0) ∨ (max(Ci.end,Cj.end)−min(Ci.start,Cj.start) ≤ S)
-        return LogicalOperators.andIsFalse(e1.getTimeAssignment().getTime().getDays()
-                , e2.getTimeAssignment().getTime().getDays())
-                || LogicalOperators.andIsFalse(e1.getTimeAssignment().getTime().getWeeks()
-                , e2.getTimeAssignment().getTime().getWeeks())
-                || (Math.max(e1.getTimeAssignment().getTime().getEnd(), e2.getTimeAssignment().getTime().getEnd())
-                - Math.min(e1.getTimeAssignment().getTime().getStart(), e2.getTimeAssignment().getTime().getStart())
-                <= maxGap);
+        return LogicalOperators.andIsFalse(t1.getDaysMask(), t2.getDaysMask())
+                || LogicalOperators.andIsFalse(t1.getWeeksMask(), t2.getWeeksMask())
+                || (Math.max(t1.getEnd(), t2.getEnd()) - Math.min(t1.getStart(), t2.getStart()) <= maxGap);
     }
 }
\ No newline at end of file
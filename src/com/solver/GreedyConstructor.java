@@ -0,0 +1,326 @@
+package com.solver;
+
+import com.dataset.Problem;
+import com.dataset.ProblemIndex;
+import com.dataset.RoomAssignment;
+import com.dataset.Time;
+import com.utils.DeltaEvaluator;
+import com.utils.Event;
+import com.utils.RoomOccupancy;
+import com.utils.Timetable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * This class constructs an initial solution of a problem instance of the ITC 2019 dataset by assigning a time and a
+ * room to each unscheduled class of a timetable, one class at a time:
+ * <p>
+ * 1) Ordering: the classes are taken from a priority queue, the most difficult first. A class is more difficult if it
+ * has fewer options (possible times × possible rooms) and, among the classes with the same number of options, if it
+ * has more hard distribution constraints;
+ * <p>
+ * 2) Selection: the option with the fewest new hard violations and then the lowest weighted penalty is assigned (see
+ * DeltaEvaluator), with random tie-breaking. For each time, only the cheapest few rooms that are free at that time
+ * (see RoomOccupancy) are evaluated, so the number of evaluated options stays close to the number of times;
+ * <p>
+ * 3) Limited backtracking: if the best option of a class adds hard violations, it is still assigned, and the classes
+ * in conflict with it (the other events in its room at overlapping times and the scheduled classes of its violated
+ * hard constraints) are unassigned, as long as unassigning them removes violations, and put back in the queue. The
+ * number of unassignments of each class and their total number are limited, after which the remaining violations are
+ * accepted.
+ * <p>
+ * Students are not enrolled here (see the student sectioning of the solver).
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class GreedyConstructor {
+    /**
+     * The default number of free rooms evaluated for each time of a class.
+     */
+    public static final int DEFAULT_ROOMS_PER_TIME = 3;
+
+    /**
+     * The default limit on the number of unassignments, per class of the problem instance.
+     */
+    public static final int DEFAULT_BACKTRACKS_PER_CLASS = 20;
+
+    /**
+     * The maximum number of times a class is unassigned, so that a class that cannot be placed without violations
+     * (e.g., because of an unsatisfiable constraint) does not use up the backtracking limit by cycling.
+     */
+    public static final int MAX_UNASSIGNMENTS_PER_CLASS = 5;
+
+    private final Timetable timetable;
+    private final Problem problem;
+    private final DeltaEvaluator evaluator;
+    private final Random random;
+    private final long[] optionNos;
+    private final int[] degrees;
+    private final int[][] roomOrders;
+    private final int[] marks;
+    private final int[] unassignments;
+    private int mark;
+    private int roomsPerTime = DEFAULT_ROOMS_PER_TIME;
+    private long maxBacktracks;
+    private long backtracks, evaluations, nanos;
+
+    /**
+     * Constructs a greedy constructor for the given timetable.
+     *
+     * @param timetable The timetable to be completed.
+     * @param seed      The seed of the random tie-breaking.
+     */
+    public GreedyConstructor(Timetable timetable, long seed) {
+        this.timetable = timetable;
+        problem = timetable.getProblem();
+        evaluator = new DeltaEvaluator(timetable);
+        random = new Random(seed);
+        final com.dataset.Class[] classes = problem.getClasses();
+        optionNos = new long[classes.length];
+        degrees = new int[classes.length];
+        roomOrders = new int[classes.length][];
+        marks = new int[classes.length];
+        unassignments = new int[classes.length];
+        for (com.dataset.Class aClass : classes) {
+            optionNos[aClass.getId() - 1] = (long) aClass.getPossibleTimeAssignments().length
+                    * (aClass.requiresRoom() ? aClass.getPossibleRoomAssignments().length : 1);
+            degrees[aClass.getId() - 1] = problem.getIndex().getHardConstraints(aClass.getId()).length;
+        }
+        maxBacktracks = (long) DEFAULT_BACKTRACKS_PER_CLASS * classes.length;
+    }
+
+    /**
+     * Sets the number of free rooms evaluated for each time of a class.
+     *
+     * @param roomsPerTime The number of rooms per time.
+     * @throws IllegalArgumentException If the given number is less than 1.
+     */
+    public void setRoomsPerTime(int roomsPerTime) throws IllegalArgumentException {
+        if (roomsPerTime < 1) throw new IllegalArgumentException("Rooms per time cannot be less than 1.");
+        this.roomsPerTime = roomsPerTime;
+    }
+
+    /**
+     * Sets the limit on the total number of unassignments of a construction.
+     *
+     * @param maxBacktracks The maximum number of unassignments. 0 disables backtracking.
+     * @throws IllegalArgumentException If the given limit is negative.
+     */
+    public void setMaxBacktracks(long maxBacktracks) throws IllegalArgumentException {
+        if (maxBacktracks < 0) throw new IllegalArgumentException("Max backtracks cannot be negative.");
+        this.maxBacktracks = maxBacktracks;
+    }
+
+    /**
+     * Assigns a time and a room (if needed) to every class of the timetable that is not scheduled yet.
+     *
+     * @return True if the timetable is a feasible solution afterwards (see Timetable.isFeasible()), and false
+     * otherwise.
+     */
+    public boolean construct() {
+        final long start = System.nanoTime();
+        backtracks = 0;
+        evaluations = 0;
+        Arrays.fill(unassignments, 0);
+        PriorityQueue<Integer> queue = new PriorityQueue<>(Comparator.<Integer>comparingLong(c -> optionNos[c - 1])
+                .thenComparingInt(c -> -degrees[c - 1]).thenComparingInt(c -> c));
+        for (int classId = 1; classId <= optionNos.length; classId++)
+            if (!timetable.getEvent(classId).isScheduled()) queue.add(classId);
+        int classId;
+        while (!queue.isEmpty()) {
+            classId = queue.poll();
+            if (timetable.getEvent(classId).isScheduled()) continue;
+            final int hardBefore = timetable.getHardViolations();
+            final long option = selectOption(classId);
+            evaluator.applyMove(classId, (int) (option >> 32), (int) option);
+            if (timetable.getHardViolations() > hardBefore && backtracks < maxBacktracks
+                    && unassignments[classId - 1] < MAX_UNASSIGNMENTS_PER_CLASS)
+                unassignConflicts(classId, hardBefore, queue);
+        }
+        nanos = System.nanoTime() - start;
+        return timetable.isFeasible();
+    }
+
+    /**
+     * Returns the number of unassignments of the last construction.
+     *
+     * @return Backtracks.
+     */
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    /**
+     * Returns the number of evaluated options of the last construction.
+     *
+     * @return Evaluations.
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Returns the running time of the last construction.
+     *
+     * @return Nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "GreedyConstructor{" + "backtracks=" + backtracks + ", evaluations=" + evaluations + ", ms="
+                + nanos / 1_000_000 + ", evaluation=" + timetable.getEvaluation() + '}';
+    }
+
+    /**
+     * Selects the best option of the given (unscheduled) class: the fewest new hard violations, then the lowest
+     * weighted penalty, and then a random one of the ties. The times for which none of the rooms of the class is free
+     * are only evaluated (with their cheapest room) if no time has a free room.
+     *
+     * @param classId The class id.
+     * @return The time index in the upper 32 bits and the room index (or -1) in the lower 32 bits.
+     */
+    private long selectOption(int classId) {
+        final com.dataset.Class aClass = problem.getClassById(classId);
+        final int timeNo = aClass.getPossibleTimeAssignments().length;
+        final int[] rooms = aClass.requiresRoom() ? getRoomOrder(aClass) : null;
+        final RoomOccupancy occupancy = timetable.getRoomOccupancy();
+        final Event event = timetable.getEvent(classId);
+        final Selection selection = new Selection();
+        for (int t = 0; t < timeNo; t++) {
+            if (rooms == null) {
+                evaluate(classId, t, -1, selection);
+                continue;
+            }
+            final Time time = aClass.getPossibleTimeAssignments()[t].getTime();
+            final RoomAssignment[] roomAssignments = aClass.getPossibleRoomAssignments();
+            int evaluated = 0;
+            for (int i = 0; i < rooms.length && evaluated < roomsPerTime; i++)
+                if (occupancy.countConflicts(roomAssignments[rooms[i]].getRoom().getId(), time, event) == 0) {
+                    evaluate(classId, t, rooms[i], selection);
+                    evaluated++;
+                }
+        }
+        if (selection.ties == 0)
+            for (int t = 0; t < timeNo; t++) evaluate(classId, t, rooms == null ? -1 : rooms[0], selection);
+        return ((long) selection.time << 32) | (selection.room & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Evaluates the given option of the given class and keeps it in the given selection if it is the best so far.
+     *
+     * @param classId   The class id.
+     * @param timeIndex The time index.
+     * @param roomIndex The room index, or -1.
+     * @param selection The best option so far.
+     */
+    private void evaluate(int classId, int timeIndex, int roomIndex, Selection selection) {
+        final int penalty = evaluator.evaluateMove(classId, timeIndex, roomIndex), hard = evaluator.getHardDelta();
+        evaluations++;
+        if (selection.ties > 0 && (hard > selection.hard || hard == selection.hard && penalty > selection.penalty))
+            return;
+        if (selection.ties == 0 || hard < selection.hard || penalty < selection.penalty) selection.ties = 0;
+        if (random.nextInt(++selection.ties) == 0) {
+            selection.hard = hard;
+            selection.penalty = penalty;
+            selection.time = timeIndex;
+            selection.room = roomIndex;
+        }
+    }
+
+    /**
+     * Unassigns the classes in conflict with the given (just assigned) class, one at a time and as long as unassigning
+     * them removes hard violations, until the hard violations are back to the given level or the backtracking limit is
+     * reached. The unassigned classes are added to the given queue.
+     *
+     * @param classId    The class id.
+     * @param hardBefore The hard violations before the class was assigned.
+     * @param queue      The queue of the unscheduled classes.
+     */
+    private void unassignConflicts(int classId, int hardBefore, PriorityQueue<Integer> queue) {
+        final Event event = timetable.getEvent(classId);
+        final Time time = event.getTimeAssignment().getTime();
+        final RoomOccupancy occupancy = timetable.getRoomOccupancy();
+        final ProblemIndex index = problem.getIndex();
+        mark++;
+        marks[classId - 1] = mark;
+        if (event.getRoomAssignment() != null) {
+            final int roomId = event.getRoomAssignment().getRoom().getId();
+            for (int i = occupancy.getEventCount(roomId) - 1; i >= 0 && isConflicting(hardBefore); i--) {
+                final int otherId = occupancy.getClassId(roomId, i);
+                if (time.overlaps(timetable.getEvent(otherId).getTimeAssignment().getTime(), 0))
+                    tryUnassign(otherId, queue);
+            }
+        }
+        for (int i : index.getHardConstraints(classId)) {
+            if (!isConflicting(hardBefore)) return;
+            if (timetable.getHardViolationCount(i) == 0) continue;
+            for (com.dataset.Class other : problem.getHardConstraints()[i].getConstraint().getClasses())
+                if (isConflicting(hardBefore) && timetable.getEvent(other.getId()).getTimeAssignment() != null)
+                    tryUnassign(other.getId(), queue);
+        }
+    }
+
+    /**
+     * Checks if the timetable still has more hard violations than the given level and the backtracking limit is not
+     * reached.
+     *
+     * @param hardBefore The hard violations before the current class was assigned.
+     * @return True if more classes should be unassigned, and false otherwise.
+     */
+    private boolean isConflicting(int hardBefore) {
+        return timetable.getHardViolations() > hardBefore && backtracks < maxBacktracks;
+    }
+
+    /**
+     * Unassigns the given class if it was not considered yet for the current class, it was not unassigned too many
+     * times, and unassigning it removes hard violations, and adds it to the given queue.
+     *
+     * @param classId The class id.
+     * @param queue   The queue of the unscheduled classes.
+     */
+    private void tryUnassign(int classId, PriorityQueue<Integer> queue) {
+        if (marks[classId - 1] == mark || unassignments[classId - 1] >= MAX_UNASSIGNMENTS_PER_CLASS) return;
+        marks[classId - 1] = mark;
+        evaluator.evaluateMove(classId, -1, -1);
+        if (evaluator.getHardDelta() >= 0) return;
+        evaluator.applyMove(classId, -1, -1);
+        unassignments[classId - 1]++;
+        backtracks++;
+        queue.add(classId);
+    }
+
+    /**
+     * Returns the indexes of the possible rooms of the given class, sorted by their penalties.
+     *
+     * @param aClass The class.
+     * @return Room indexes.
+     */
+    private int[] getRoomOrder(com.dataset.Class aClass) {
+        int[] order = roomOrders[aClass.getId() - 1];
+        if (order != null) return order;
+        final RoomAssignment[] rooms = aClass.getPossibleRoomAssignments();
+        Integer[] sorted = new Integer[rooms.length];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = i;
+        Arrays.sort(sorted, Comparator.comparingInt(i -> rooms[i].getPenalty()));
+        order = new int[sorted.length];
+        for (int i = 0; i < order.length; i++) order[i] = sorted[i];
+        roomOrders[aClass.getId() - 1] = order;
+        return order;
+    }
+
+    /**
+     * This class represents the best option found so far by selectOption().
+     */
+    private static class Selection {
+        private int hard, penalty, time = -1, room = -1, ties;
+    }
+}
@@ -0,0 +1,245 @@
+package com.solver;
+
+import com.dataset.Problem;
+import com.utils.CompactTimetable;
+import com.utils.Timetable;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class runs a parallel search on a problem instance of the ITC 2019 dataset with the island model: each island is
+ * an independent simulated annealing search (see SimulatedAnnealing) on its own thread, with its own timetable and
+ * random seed, over the same problem instance (which is only read by the searches).
+ * <p>
+ * Every exchange period, each island publishes its best timetable (a copy, as a CompactTimetable) in its own slot of an
+ * atomic array, if it improved since its last publication, and continues from the best published timetable of the
+ * other islands if that one is better than its own best. Therefore, the islands only meet at the exchange points, and
+ * the hot path of the searches takes no locks and shares no mutable state.
+ * <p>
+ * The islands search with the students: each island sections the students of its initial timetable (its own
+ * construction, or the initial solution if it has no enrollments) with its own seed before its search starts (see
+ * SimulatedAnnealing.solve()), so the islands start from different enrollments, and the published timetables carry the
+ * enrollments of their islands.
+ * <p>
+ * The driver reports the iterations, the throughput (evaluated moves per second of the search loop, without the
+ * construction of the initial timetables), and the best cost of each island (see getReport()).
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.3
+ */
+public class IslandSearch {
+    private final Problem problem;
+    private final int islandNo;
+    private final long seed;
+    private final AtomicReferenceArray<Elite> elites;
+    private final SimulatedAnnealing[] searches;
+    private long timeLimitMillis = 60_000;
+    private long exchangePeriodMillis = 5_000;
+    private CompactTimetable initialSolution;
+    private CompactTimetable best;
+    private long bestCost = Long.MAX_VALUE, nanos;
+
+    /**
+     * Constructs a parallel search with the given number of islands for the given problem instance.
+     *
+     * @param problem  The problem instance.
+     * @param islandNo The number of islands (threads).
+     * @param seed     The seed of the first island (island i uses seed + i).
+     * @throws IllegalArgumentException If the number of islands is less than 1.
+     */
+    public IslandSearch(Problem problem, int islandNo, long seed) throws IllegalArgumentException {
+        if (islandNo < 1) throw new IllegalArgumentException("The number of islands cannot be less than 1.");
+        this.problem = problem;
+        this.islandNo = islandNo;
+        this.seed = seed;
+        elites = new AtomicReferenceArray<>(islandNo);
+        searches = new SimulatedAnnealing[islandNo];
+    }
+
+    /**
+     * Sets the wall-clock time budget of the search.
+     *
+     * @param millis The time limit in milliseconds.
+     * @throws IllegalArgumentException If the given time limit is not positive.
+     */
+    public void setTimeLimit(long millis) throws IllegalArgumentException {
+        if (millis <= 0) throw new IllegalArgumentException("Time limit must be positive.");
+        timeLimitMillis = millis;
+    }
+
+    /**
+     * Sets the period of the exchange of the best timetables between the islands.
+     *
+     * @param millis The exchange period in milliseconds.
+     * @throws IllegalArgumentException If the given period is not positive.
+     */
+    public void setExchangePeriod(long millis) throws IllegalArgumentException {
+        if (millis <= 0) throw new IllegalArgumentException("Exchange period must be positive.");
+        exchangePeriodMillis = millis;
+    }
+
+    /**
+     * Sets the timetable that all the islands start from (e.g., a solution read by SolutionReader). Without it, each
+     * island constructs its own initial timetable. If the given timetable has no enrollments, each island sections
+     * its students.
+     *
+     * @param initialSolution The initial timetable, or null.
+     * @throws IllegalArgumentException If the given timetable belongs to a different problem instance.
+     */
+    public void setInitialSolution(CompactTimetable initialSolution) throws IllegalArgumentException {
+        if (initialSolution != null && initialSolution.getProblem() != problem)
+            throw new IllegalArgumentException("The given timetable belongs to a different problem instance.");
+        this.initialSolution = initialSolution;
+    }
+
+    /**
+     * Runs the islands until the time budget is used up.
+     *
+     * @return The best timetable found by any island.
+     * @throws IllegalStateException If the search is interrupted.
+     */
+    public CompactTimetable solve() throws IllegalStateException {
+        final long start = System.nanoTime();
+        for (int i = 0; i < islandNo; i++) elites.set(i, null);
+        ExecutorService executor = Executors.newFixedThreadPool(islandNo);
+        try {
+            ArrayList<Future<CompactTimetable>> results = new ArrayList<>();
+            for (int i = 0; i < islandNo; i++) results.add(executor.submit(island(i)));
+            best = null;
+            bestCost = Long.MAX_VALUE;
+            for (int i = 0; i < islandNo; i++) {
+                final CompactTimetable result = results.get(i).get();
+                if (searches[i].getBestCost() < bestCost) {
+                    best = result;
+                    bestCost = searches[i].getBestCost();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The search was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("An island failed: " + e.getCause(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        nanos = System.nanoTime() - start;
+        return best;
+    }
+
+    /**
+     * Returns the cost of the best timetable (see SimulatedAnnealing.getBestCost()).
+     *
+     * @return Best cost.
+     */
+    public long getBestCost() {
+        return bestCost;
+    }
+
+    /**
+     * Returns the search of the given island of the last run, which holds its statistics.
+     *
+     * @param island The island index (0 .. islands - 1).
+     * @return Simulated annealing search.
+     */
+    public SimulatedAnnealing getSearch(int island) {
+        return searches[island];
+    }
+
+    /**
+     * Returns the total number of evaluated moves per second of all the islands of the last run, where the moves of
+     * each island are divided by the time of its search loop only (see SimulatedAnnealing.getMovesPerSecond()).
+     *
+     * @return Moves per second.
+     */
+    public double getMovesPerSecond() {
+        double total = 0;
+        for (SimulatedAnnealing search : searches) total += search.getMovesPerSecond();
+        return total;
+    }
+
+    /**
+     * Returns a human-readable report of the last run: the iterations, the throughput, the search time (without the
+     * construction), and the best cost of each island, and the total throughput and wall-clock time.
+     *
+     * @return Report.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < islandNo; i++)
+            report.append(String.format("island %3d  %,14d moves  %,12.0f moves/s  %.1f s  best %,d  reheats %d%n",
+                    i, searches[i].getIterations(), searches[i].getMovesPerSecond(),
+                    searches[i].getSearchNanos() / 1e9, searches[i].getBestCost(), searches[i].getReheats()));
+        return report.append(String.format("total %d islands  %,12.0f moves/s  best %,d  %.1f s", islandNo,
+                getMovesPerSecond(), bestCost, nanos / 1e9)).toString();
+    }
+
+    @Override
+    public String toString() {
+        return "IslandSearch{" + "islands=" + islandNo + ", bestCost=" + bestCost + ", ms=" + nanos / 1_000_000 + '}';
+    }
+
+    /**
+     * Creates the task of the given island, which runs its search on its own timetable.
+     *
+     * @param island The island index.
+     * @return The island task, which returns the best timetable of the island.
+     */
+    private Callable<CompactTimetable> island(int island) {
+        Timetable timetable = new Timetable(problem);
+        SimulatedAnnealing search = new SimulatedAnnealing(timetable, seed + island);
+        search.setTimeLimit(timeLimitMillis);
+        search.setExchange((solution, cost) -> exchange(island, solution, cost), exchangePeriodMillis);
+        searches[island] = search;
+        return () -> {
+            if (initialSolution != null) initialSolution.restore(timetable);
+            return search.solve();
+        };
+    }
+
+    /**
+     * Publishes the given best timetable of the given island if it improved, and returns the best published timetable
+     * of the other islands if it is better.
+     *
+     * @param island   The island index.
+     * @param solution The best timetable of the island.
+     * @param cost     The cost of the best timetable of the island.
+     * @return A better timetable, or null.
+     */
+    private CompactTimetable exchange(int island, CompactTimetable solution, long cost) {
+        final Elite own = elites.get(island);
+        if (own == null || cost < own.cost) elites.set(island, new Elite(new CompactTimetable(solution), cost));
+        Elite better = null, elite;
+        for (int i = 0; i < islandNo; i++)
+            if (i != island && (elite = elites.get(i)) != null && elite.cost < cost
+                    && (better == null || elite.cost < better.cost)) better = elite;
+        return better == null ? null : better.solution;
+    }
+
+    /**
+     * This class represents a published best timetable of an island, which is never changed after it is published.
+     */
+    private static class Elite {
+        private final CompactTimetable solution;
+        private final long cost;
+
+        /**
+         * Constructs an elite timetable.
+         *
+         * @param solution The timetable.
+         * @param cost     The cost of the timetable.
+         */
+        Elite(CompactTimetable solution, long cost) {
+            this.solution = solution;
+            this.cost = cost;
+        }
+    }
+}
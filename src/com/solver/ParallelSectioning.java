@@ -0,0 +1,359 @@
+package com.solver;
+
+import com.dataset.Course;
+import com.dataset.Problem;
+import com.dataset.ProblemIndex;
+import com.dataset.Student;
+import com.utils.StudentSchedules;
+import com.utils.Timetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class sections the students of a problem instance of the ITC 2019 dataset (see StudentSectioning) with many
+ * courses at the same time. The enrollments of a student in different courses only interact through the personal
+ * schedule of the student, so courses without common students can be sectioned independently:
+ * <p>
+ * 1) Batches: the courses are colored greedily (the courses with the most students first) so that no two courses of
+ * the same color have a common student. Each color is a batch;
+ * <p>
+ * 2) Search: the courses of a batch are sectioned in parallel, each by a worker with its own search state. The
+ * students of a course are sectioned one after another in a random order, and their enrollments are kept as pending
+ * enrollments of the course (which count against the class limits) instead of being written to the timetable, which is
+ * only read during the search;
+ * <p>
+ * 3) Apply: once all the courses of the batch are sectioned, their enrollments are written to the timetable, in the
+ * order of the courses in the batch.
+ * <p>
+ * In the first pass, the courses of a batch only see the enrollments of the batches before it. Therefore, the batches
+ * are sectioned again in the later passes (see setPasses()), where the previous enrollments of the courses of a batch
+ * are removed before the batch is sectioned, so each course sees the enrollments of the students in all their other
+ * courses.
+ * <p>
+ * Hence, no locks are taken on the students or the timetable, and the result only depends on the seed (the order of
+ * the students of each course is drawn from a random generator of its own), not on the number of threads or their
+ * timing.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class ParallelSectioning {
+    /**
+     * The default number of passes over the batches.
+     */
+    public static final int DEFAULT_PASSES = 2;
+
+    private final Timetable timetable;
+    private final Problem problem;
+    private final StudentSectioning sectioning;
+    private final int threadNo;
+    private final long seed;
+    private final int[][] batches;
+    private int maxNodes = StudentSectioning.DEFAULT_MAX_NODES;
+    private int passes = DEFAULT_PASSES;
+    private long nodes, unsectioned, nanos, searchNanos;
+
+    /**
+     * Constructs a parallel student sectioning for the given timetable.
+     *
+     * @param timetable The timetable whose students are to be sectioned.
+     * @param threadNo  The number of threads.
+     * @param seed      The seed of the order of the students.
+     * @throws IllegalArgumentException If the number of threads is less than 1.
+     */
+    public ParallelSectioning(Timetable timetable, int threadNo, long seed) throws IllegalArgumentException {
+        if (threadNo < 1) throw new IllegalArgumentException("The number of threads cannot be less than 1.");
+        this.timetable = timetable;
+        problem = timetable.getProblem();
+        sectioning = new StudentSectioning(timetable, seed);
+        this.threadNo = threadNo;
+        this.seed = seed;
+        batches = batch();
+    }
+
+    /**
+     * Sets the limit on the number of search nodes of an enrollment (see StudentSectioning.setMaxNodes()).
+     *
+     * @param maxNodes The maximum number of search nodes.
+     * @throws IllegalArgumentException If the given limit is less than 1.
+     */
+    public void setMaxNodes(int maxNodes) throws IllegalArgumentException {
+        sectioning.setMaxNodes(maxNodes);
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Sets the number of passes over the batches.
+     *
+     * @param passes The number of passes.
+     * @throws IllegalArgumentException If the given number is less than 1.
+     */
+    public void setPasses(int passes) throws IllegalArgumentException {
+        if (passes < 1) throw new IllegalArgumentException("The number of passes cannot be less than 1.");
+        this.passes = passes;
+    }
+
+    /**
+     * Sections all the students from scratch: all the current enrollments are removed, and the courses are sectioned
+     * batch by batch, in each pass.
+     *
+     * @return True if every student is enrolled in every course of theirs without exceeding a class limit, and false
+     * otherwise.
+     * @throws IllegalStateException If the sectioning is interrupted.
+     */
+    public boolean section() throws IllegalStateException {
+        final long start = System.nanoTime();
+        final StudentSchedules schedules = timetable.getStudentSchedules();
+        nodes = unsectioned = searchNanos = 0;
+        for (Student student : problem.getStudents())
+            for (int n = schedules.getEventCount(student.getId()); n > 0; n--)
+                timetable.unenroll(schedules.getClassId(student.getId(), n - 1), student.getId());
+        final BlockingQueue<Worker> workers = new ArrayBlockingQueue<>(threadNo);
+        for (int i = 0; i < threadNo; i++) workers.add(new Worker());
+        final Random random = new Random(seed);
+        boolean withinLimits = true;
+        ExecutorService executor = Executors.newFixedThreadPool(threadNo);
+        try {
+            for (int pass = 0; pass < passes; pass++) {
+                unsectioned = 0;
+                withinLimits = true;
+                for (int[] batch : batches) withinLimits &= section(executor, workers, batch, random);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The sectioning was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("A course could not be sectioned: " + e.getCause(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        nanos = System.nanoTime() - start;
+        return withinLimits && unsectioned == 0;
+    }
+
+    /**
+     * Sections the courses of the given batch: their current enrollments are removed, the courses are sectioned in
+     * parallel, and then their enrollments are written to the timetable.
+     *
+     * @param executor The executor of the threads.
+     * @param workers  The idle workers.
+     * @param batch    The course ids of the batch.
+     * @param random   The random generator of the seeds of the courses.
+     * @return True if every student of the batch is enrolled in its courses without exceeding a class limit.
+     * @throws InterruptedException If the thread is interrupted while waiting for the courses.
+     * @throws ExecutionException   If a course cannot be sectioned.
+     */
+    private boolean section(ExecutorService executor, BlockingQueue<Worker> workers, int[] batch, Random random)
+            throws InterruptedException, ExecutionException {
+        final StudentSchedules schedules = timetable.getStudentSchedules();
+        final ProblemIndex index = problem.getIndex();
+        for (int courseId : batch)
+            for (int studentId : sectioning.getStudents(courseId))
+                for (int n = schedules.getEventCount(studentId) - 1; n >= 0; n--)
+                    if (index.getCourse(schedules.getClassId(studentId, n)) == courseId)
+                        timetable.unenroll(schedules.getClassId(studentId, n), studentId);
+        boolean withinLimits = true;
+        final long searchStart = System.nanoTime();
+        ArrayList<Future<CourseEnrollments>> results = new ArrayList<>(batch.length);
+        for (int courseId : batch) {
+            final long courseSeed = random.nextLong();
+            results.add(executor.submit(() -> section(workers, courseId, courseSeed)));
+        }
+        final CourseEnrollments[] enrollments = new CourseEnrollments[batch.length];
+        for (int i = 0; i < batch.length; i++) enrollments[i] = results.get(i).get();
+        searchNanos += System.nanoTime() - searchStart;
+        for (CourseEnrollments course : enrollments) {
+            nodes += course.nodes;
+            for (int i = 0; i < course.students.length; i++) {
+                if (course.costs[i] == Integer.MAX_VALUE) unsectioned++;
+                else if (course.costs[i] >= StudentSectioning.LIMIT_COST) withinLimits = false;
+                for (int j = 0; j < course.classes[i].length && course.classes[i][j] != 0; j++)
+                    timetable.enroll(course.classes[i][j], course.students[i]);
+            }
+        }
+        return withinLimits;
+    }
+
+    /**
+     * Returns the number of batches of courses without common students.
+     *
+     * @return The number of batches.
+     */
+    public int getBatchNo() {
+        return batches.length;
+    }
+
+    /**
+     * Returns the number of search nodes of the last call of section().
+     *
+     * @return Search nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of (student, course) pairs that could not be sectioned in the last call of section(), because
+     * no consistent enrollment exists.
+     *
+     * @return Unsectioned pairs.
+     */
+    public long getUnsectioned() {
+        return unsectioned;
+    }
+
+    /**
+     * Returns the running time of the last call of section().
+     *
+     * @return Nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns the running time of the parallel search of the last call of section(), which excludes removing the
+     * previous enrollments and writing the new ones to the timetable.
+     *
+     * @return Nanoseconds.
+     */
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelSectioning{" + "threads=" + threadNo + ", batches=" + batches.length + ", nodes=" + nodes
+                + ", unsectioned=" + unsectioned + ", ms=" + nanos / 1_000_000 + ", searchMs="
+                + searchNanos / 1_000_000 + ", studentConflicts=" + timetable.getStudentSchedules().getConflicts()
+                + '}';
+    }
+
+    /**
+     * Sections the students of the course with the given id with a worker taken from the given queue, without writing
+     * the enrollments to the timetable.
+     *
+     * @param workers  The idle workers.
+     * @param courseId The course id.
+     * @param seed     The seed of the order of the students of the course.
+     * @return The enrollments of the students of the course.
+     * @throws InterruptedException If the thread is interrupted while waiting for a worker.
+     */
+    private CourseEnrollments section(BlockingQueue<Worker> workers, int courseId, long seed)
+            throws InterruptedException {
+        final Worker worker = workers.take();
+        try {
+            final int[] students = sectioning.getStudents(courseId).clone();
+            final Random random = new Random(seed);
+            for (int i = students.length - 1; i > 0; i--) {
+                final int j = random.nextInt(i + 1), swap = students[i];
+                students[i] = students[j];
+                students[j] = swap;
+            }
+            final CourseEnrollments enrollments = new CourseEnrollments(students,
+                    worker.sectioning.getMaxEnrollmentSize());
+            final long before = worker.sectioning.getNodes();
+            for (int i = 0; i < students.length; i++) {
+                enrollments.costs[i] = worker.sectioning.find(students[i], courseId, worker.pending,
+                        enrollments.classes[i]);
+                for (int j = 0; j < enrollments.classes[i].length && enrollments.classes[i][j] != 0; j++)
+                    worker.pending[enrollments.classes[i][j] - 1]++;
+            }
+            enrollments.nodes = worker.sectioning.getNodes() - before;
+            for (int[] classes : enrollments.classes)
+                for (int j = 0; j < classes.length && classes[j] != 0; j++) worker.pending[classes[j] - 1]--;
+            return enrollments;
+        } finally {
+            workers.put(worker);
+        }
+    }
+
+    /**
+     * Colors the courses greedily, the courses with the most students first, so that no two courses of the same
+     * color have a common student.
+     *
+     * @return The course ids of each color.
+     */
+    private int[][] batch() {
+        int courseNo = 0;
+        for (Course course : problem.getCourses()) courseNo = Math.max(courseNo, course.getId());
+        final Integer[] order = new Integer[problem.getCourses().length];
+        for (int i = 0; i < order.length; i++) order[i] = problem.getCourses()[i].getId();
+        Arrays.sort(order, Comparator.comparingInt((Integer id) -> -sectioning.getStudents(id).length)
+                .thenComparingInt(id -> id));
+        final int[] colors = new int[courseNo];
+        final int[] marks = new int[courseNo + 1];
+        final ArrayList<ArrayList<Integer>> batches = new ArrayList<>();
+        int mark = 0;
+        for (int courseId : order) {
+            final int[] students = sectioning.getStudents(courseId);
+            if (students.length == 0) continue;
+            mark++;
+            for (int studentId : students)
+                for (Course course : problem.getStudents()[studentId - 1].getCourses())
+                    if (colors[course.getId() - 1] > 0) marks[colors[course.getId() - 1]] = mark;
+            int color = 1;
+            while (marks[color] == mark) color++;
+            colors[courseId - 1] = color;
+            if (color > batches.size()) batches.add(new ArrayList<>());
+            batches.get(color - 1).add(courseId);
+        }
+        final int[][] result = new int[batches.size()][];
+        for (int i = 0; i < result.length; i++)
+            result[i] = batches.get(i).stream().mapToInt(Integer::intValue).toArray();
+        return result;
+    }
+
+    /**
+     * This class represents a worker, which is a student sectioning with its own search state and pending
+     * enrollments. A worker is used by one thread at a time.
+     */
+    private class Worker {
+        private final StudentSectioning sectioning;
+        private final int[] pending;
+
+        /**
+         * Constructs a worker.
+         */
+        Worker() {
+            sectioning = new StudentSectioning(ParallelSectioning.this.sectioning, seed);
+            sectioning.setMaxNodes(maxNodes);
+            pending = new int[problem.getClasses().length];
+        }
+    }
+
+    /**
+     * This class represents the enrollments of the students of a course, which are found by a worker and then written
+     * to the timetable.
+     */
+    private static class CourseEnrollments {
+        private final int[] students;
+        private final int[][] classes;
+        private final int[] costs;
+        private long nodes;
+
+        /**
+         * Constructs empty enrollments of the given students.
+         *
+         * @param students       The student ids, in the order of their sectioning.
+         * @param enrollmentSize The maximum number of classes of an enrollment.
+         */
+        CourseEnrollments(int[] students, int enrollmentSize) {
+            this.students = students;
+            classes = new int[students.length][enrollmentSize];
+            costs = new int[students.length];
+        }
+    }
+}
@@ -0,0 +1,621 @@
+package com.solver;
+
+import com.dataset.Config;
+import com.dataset.Course;
+import com.dataset.Problem;
+import com.dataset.ProblemIndex;
+import com.dataset.Subpart;
+import com.dataset.Time;
+import com.utils.CompactTimetable;
+import com.utils.DeltaEvaluator;
+import com.utils.Event;
+import com.utils.RoomOccupancy;
+import com.utils.StudentSchedules;
+import com.utils.Timetable;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * This class improves a timetable of a problem instance of the ITC 2019 dataset by simulated annealing. The cost of a
+ * timetable is its total penalty (see Timetable.getTotalPenalty()) plus its hard violations multiplied by a hard
+ * weight, and each iteration evaluates one random move with the delta evaluator of the timetable (see DeltaEvaluator):
+ * <p>
+ * 1) Change time: a random class is given another of its possible times (keeping its room);
+ * <p>
+ * 2) Change room: a random class that requires a room is given another of its possible rooms;
+ * <p>
+ * 3) Swap: a random class that requires a room is moved to another of its rooms, and the first event in that room at
+ * an overlapping time is moved to the old room of the class (if it is one of its possible rooms);
+ * <p>
+ * 4) Reassign student: a random student is moved from one of their classes to another class of the same subpart with
+ * the same parent class (only for classes without child classes and with free seats).
+ * <p>
+ * The students are part of the search: a timetable without any enrollment is sectioned (see StudentSectioning) once it
+ * is complete, and after an accepted time, room, or swap move, the students of each moved class are re-sectioned in
+ * its course (see StudentSectioning.resectionClass()), so the cost always includes the student conflicts of a valid
+ * enrollment. A room move that cannot change the student conflicts of the class (see StudentSchedules.changes()) does
+ * not change the cost of any enrollment, so its students are left as they are.
+ * <p>
+ * A worsening move of cost delta d is accepted with probability exp(-d / T). The temperature T is cooled geometrically
+ * from the initial temperature (estimated from a sample of moves unless it is set) to the final temperature over the
+ * remaining wall-clock time, so the schedule adapts to the speed of the machine and the instance. If the best cost has
+ * not improved for a number of blocks of iterations and almost no moves are accepted any more, the temperature is
+ * reheated to a fraction of the initial temperature and the cooling restarts over the remaining time.
+ * <p>
+ * The best timetable is kept as a CompactTimetable, which is only captured right before the search leaves a new best
+ * timetable by a worsening move, so improving runs of moves do not copy the timetable. At the end, the best timetable
+ * is restored into the timetable. A timetable with unscheduled classes is completed by GreedyConstructor first.
+ * <p>
+ * When the search runs as an island of a parallel search (see IslandSearch), its best timetable is exchanged with the
+ * other islands every exchange period, between two blocks of iterations.
+ * <p>
+ * IMPORTANT: This class is not thread-safe; each thread needs its own timetable and solver.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.5
+ */
+public class SimulatedAnnealing {
+    /**
+     * The default cost of a hard violation.
+     */
+    public static final int DEFAULT_HARD_WEIGHT = 1000;
+
+    private static final int TIME = 0, ROOM = 1, SWAP = 2, STUDENT = 3;
+    private static final int BLOCK_SIZE = 1000;
+    private static final int SAMPLE_SIZE = 1000;
+
+    private final Timetable timetable;
+    private final Problem problem;
+    private final DeltaEvaluator evaluator;
+    private final StudentSectioning sectioning;
+    private final Random random;
+    private final int[] timeClasses;
+    private final int[] roomClasses;
+    private final int[][] siblings;
+    private final int[] moveWeights = {40, 25, 15, 20};
+    private long timeLimitNanos = 60_000_000_000L;
+    private int hardWeight = DEFAULT_HARD_WEIGHT;
+    private double initialTemperature;
+    private double finalTemperature = 0.1;
+    private int reheatBlocks = 200;
+    private double reheatRatio = 0.5;
+    private SolutionExchange exchange;
+    private long exchangePeriodNanos;
+    private double temperature;
+    private CompactTimetable best;
+    private boolean bestSaved;
+    private long current, bestCost;
+    private long iterations, accepted, reheats, nanos, searchNanos;
+
+    /**
+     * Constructs a simulated annealing solver for the given timetable.
+     *
+     * @param timetable The timetable to be improved.
+     * @param seed      The seed of the random moves.
+     */
+    public SimulatedAnnealing(Timetable timetable, long seed) {
+        this.timetable = timetable;
+        problem = timetable.getProblem();
+        evaluator = new DeltaEvaluator(timetable);
+        random = new Random(seed);
+        sectioning = problem.getStudents().length == 0 ? null : new StudentSectioning(timetable, seed);
+        ArrayList<Integer> times = new ArrayList<>(), rooms = new ArrayList<>();
+        for (com.dataset.Class aClass : problem.getClasses()) {
+            if (aClass.getPossibleTimeAssignments().length > 1) times.add(aClass.getId());
+            if (aClass.requiresRoom() && aClass.getPossibleRoomAssignments().length > 1) rooms.add(aClass.getId());
+        }
+        timeClasses = times.stream().mapToInt(Integer::intValue).toArray();
+        roomClasses = rooms.stream().mapToInt(Integer::intValue).toArray();
+        siblings = new int[problem.getClasses().length][];
+        final ProblemIndex index = problem.getIndex();
+        for (Course course : problem.getCourses())
+            for (Config config : course.getConfigurations())
+                for (Subpart subpart : config.getSubparts())
+                    for (com.dataset.Class aClass : subpart.getClasses()) {
+                        if (index.getChildren(aClass.getId()).length > 0) continue;
+                        ArrayList<Integer> others = new ArrayList<>();
+                        for (com.dataset.Class other : subpart.getClasses())
+                            if (other != aClass && index.getChildren(other.getId()).length == 0
+                                    && index.getParent(other.getId()) == index.getParent(aClass.getId()))
+                                others.add(other.getId());
+                        siblings[aClass.getId() - 1] = others.stream().mapToInt(Integer::intValue).toArray();
+                    }
+        if (timeClasses.length == 0) moveWeights[TIME] = 0;
+        if (roomClasses.length == 0) moveWeights[ROOM] = moveWeights[SWAP] = 0;
+        if (problem.getStudents().length == 0) moveWeights[STUDENT] = 0;
+    }
+
+    /**
+     * Sets the wall-clock time budget of a run.
+     *
+     * @param millis The time limit in milliseconds.
+     * @throws IllegalArgumentException If the given time limit is not positive.
+     */
+    public void setTimeLimit(long millis) throws IllegalArgumentException {
+        if (millis <= 0) throw new IllegalArgumentException("Time limit must be positive.");
+        timeLimitNanos = millis * 1_000_000;
+    }
+
+    /**
+     * Sets the cost of a hard violation.
+     *
+     * @param hardWeight The hard weight.
+     * @throws IllegalArgumentException If the given weight is negative.
+     */
+    public void setHardWeight(int hardWeight) throws IllegalArgumentException {
+        if (hardWeight < 0) throw new IllegalArgumentException("Hard weight cannot be negative.");
+        this.hardWeight = hardWeight;
+    }
+
+    /**
+     * Sets the initial temperature.
+     *
+     * @param initialTemperature The initial temperature. 0 estimates it from a sample of moves at the start of a run.
+     * @throws IllegalArgumentException If the given temperature is negative.
+     */
+    public void setInitialTemperature(double initialTemperature) throws IllegalArgumentException {
+        if (initialTemperature < 0) throw new IllegalArgumentException("Temperature cannot be negative.");
+        this.initialTemperature = initialTemperature;
+    }
+
+    /**
+     * Sets the final temperature, which is reached at the end of the time budget.
+     *
+     * @param finalTemperature The final temperature.
+     * @throws IllegalArgumentException If the given temperature is not positive.
+     */
+    public void setFinalTemperature(double finalTemperature) throws IllegalArgumentException {
+        if (finalTemperature <= 0) throw new IllegalArgumentException("Final temperature must be positive.");
+        this.finalTemperature = finalTemperature;
+    }
+
+    /**
+     * Sets the reheating: the number of blocks of iterations without improvement of the best cost before a reheat,
+     * and the fraction of the initial temperature that the temperature is reheated to.
+     *
+     * @param reheatBlocks The number of blocks (of 1000 iterations) without improvement.
+     * @param reheatRatio  The reheat temperature as a fraction of the initial temperature (0 .. 1).
+     * @throws IllegalArgumentException If the number of blocks is less than 1 or the ratio is not in 0 .. 1.
+     */
+    public void setReheat(int reheatBlocks, double reheatRatio) throws IllegalArgumentException {
+        if (reheatBlocks < 1) throw new IllegalArgumentException("Reheat blocks cannot be less than 1.");
+        if (reheatRatio < 0 || reheatRatio > 1) throw new IllegalArgumentException("Reheat ratio must be in 0 .. 1.");
+        this.reheatBlocks = reheatBlocks;
+        this.reheatRatio = reheatRatio;
+    }
+
+    /**
+     * Sets the relative weights of the moves (change time, change room, swap, and reassign student). The moves that do
+     * not apply to the problem instance (e.g., room moves when no class has more than one room) are never selected.
+     *
+     * @param time    The weight of the change time move.
+     * @param room    The weight of the change room move.
+     * @param swap    The weight of the swap move.
+     * @param student The weight of the reassign student move.
+     * @throws IllegalArgumentException If a weight is negative or all the weights are 0.
+     */
+    public void setMoveWeights(int time, int room, int swap, int student) throws IllegalArgumentException {
+        if (time < 0 || room < 0 || swap < 0 || student < 0 || time + room + swap + student == 0)
+            throw new IllegalArgumentException("Move weights must be non-negative and not all 0.");
+        moveWeights[TIME] = timeClasses.length == 0 ? 0 : time;
+        moveWeights[ROOM] = roomClasses.length == 0 ? 0 : room;
+        moveWeights[SWAP] = roomClasses.length == 0 ? 0 : swap;
+        moveWeights[STUDENT] = problem.getStudents().length == 0 ? 0 : student;
+    }
+
+    /**
+     * Sets the exchange of the best timetables with other searches, which is called every given period.
+     *
+     * @param exchange     The solution exchange, or null to disable it.
+     * @param periodMillis The exchange period in milliseconds.
+     * @throws IllegalArgumentException If the given period is not positive.
+     */
+    void setExchange(SolutionExchange exchange, long periodMillis) throws IllegalArgumentException {
+        if (periodMillis <= 0) throw new IllegalArgumentException("Exchange period must be positive.");
+        this.exchange = exchange;
+        exchangePeriodNanos = periodMillis * 1_000_000;
+    }
+
+    /**
+     * Runs simulated annealing on the timetable until the time budget is used up, and leaves the best timetable found
+     * in the timetable. An incomplete timetable is completed first, and a timetable without enrollments is sectioned.
+     *
+     * @return The best timetable found.
+     */
+    public CompactTimetable solve() {
+        final long start = System.nanoTime(), deadline = start + timeLimitNanos;
+        if (!isComplete()) new GreedyConstructor(timetable, random.nextLong()).construct();
+        if (sectioning != null && !hasEnrollments()) sectioning.section();
+        best = new CompactTimetable(timetable);
+        bestSaved = true;
+        current = bestCost = cost();
+        iterations = accepted = reheats = 0;
+        final int weightSum = moveWeights[TIME] + moveWeights[ROOM] + moveWeights[SWAP] + moveWeights[STUDENT];
+        final double t0 = initialTemperature > 0 ? initialTemperature : sampleTemperature();
+        double phaseTemperature = t0;
+        final long searchStart = System.nanoTime();
+        long phaseStart = searchStart, now = phaseStart, block = 0, lastImprovement = 0, blockAccepted;
+        long nextExchange = now + exchangePeriodNanos;
+        temperature = t0;
+        while (now < deadline && weightSum > 0) {
+            blockAccepted = accepted;
+            final long blockBest = bestCost;
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                int move = random.nextInt(weightSum);
+                if ((move -= moveWeights[TIME]) < 0) changeTime();
+                else if ((move -= moveWeights[ROOM]) < 0) changeRoom();
+                else if ((move -= moveWeights[SWAP]) < 0) swap();
+                else reassignStudent();
+            }
+            block++;
+            if (bestCost < blockBest) lastImprovement = block;
+            now = System.nanoTime();
+            if (exchange != null && now >= nextExchange) {
+                if (exchange()) lastImprovement = block;
+                nextExchange = now + exchangePeriodNanos;
+            }
+            if (block - lastImprovement >= reheatBlocks && accepted - blockAccepted < BLOCK_SIZE / 100) {
+                phaseTemperature = Math.max(temperature, t0 * reheatRatio);
+                phaseStart = now;
+                lastImprovement = block;
+                reheats++;
+            }
+            final double progress = Math.min((double) (now - phaseStart) / Math.max(deadline - phaseStart, 1), 1);
+            temperature = phaseTemperature * Math.pow(finalTemperature / phaseTemperature, progress);
+        }
+        searchNanos = now - searchStart;
+        if (!bestSaved) best.capture(timetable);
+        best.restore(timetable);
+        nanos = System.nanoTime() - start;
+        return best;
+    }
+
+    /**
+     * Returns the cost of the best timetable of the last run (total penalty + hard weight × hard violations).
+     *
+     * @return Best cost.
+     */
+    public long getBestCost() {
+        return bestCost;
+    }
+
+    /**
+     * Returns the number of iterations (evaluated moves) of the last run.
+     *
+     * @return Iterations.
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns the number of accepted moves of the last run.
+     *
+     * @return Accepted moves.
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Returns the number of reheats of the last run.
+     *
+     * @return Reheats.
+     */
+    public long getReheats() {
+        return reheats;
+    }
+
+    /**
+     * Returns the running time of the last run, including the construction of an initial timetable, if needed.
+     *
+     * @return Nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns the running time of the search loop of the last run, in which the iterations are made (without the
+     * construction of an initial timetable and the sampling of the initial temperature).
+     *
+     * @return Nanoseconds.
+     */
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+
+    /**
+     * Returns the number of iterations (evaluated moves) per second of the search loop of the last run.
+     *
+     * @return Moves per second.
+     */
+    public double getMovesPerSecond() {
+        return searchNanos == 0 ? 0 : iterations / (searchNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatedAnnealing{" + "bestCost=" + bestCost + ", iterations=" + iterations + ", accepted="
+                + accepted + ", reheats=" + reheats + ", ms=" + nanos / 1_000_000 + '}';
+    }
+
+    /**
+     * Moves a random class to another of its possible times.
+     */
+    private void changeTime() {
+        final int classId = timeClasses[random.nextInt(timeClasses.length)];
+        final Event event = timetable.getEvent(classId);
+        final int timeNo = problem.getClassById(classId).getPossibleTimeAssignments().length;
+        int timeIndex = random.nextInt(timeNo - 1);
+        if (timeIndex >= event.getTimeIndex()) timeIndex++;
+        tryMove(classId, timeIndex, event.getRoomIndex());
+    }
+
+    /**
+     * Moves a random class to another of its possible rooms.
+     */
+    private void changeRoom() {
+        final int classId = roomClasses[random.nextInt(roomClasses.length)];
+        final Event event = timetable.getEvent(classId);
+        tryMove(classId, event.getTimeIndex(), otherRoom(classId, event.getRoomIndex()));
+    }
+
+    /**
+     * Moves a random class to another of its possible rooms and the first event in that room at an overlapping time to
+     * the old room of the class. If there is no such event, this is a change room move.
+     */
+    private void swap() {
+        final int classId = roomClasses[random.nextInt(roomClasses.length)];
+        final Event event = timetable.getEvent(classId);
+        final com.dataset.Class aClass = problem.getClassById(classId);
+        final int oldRoom = event.getRoomIndex(), newRoom = otherRoom(classId, oldRoom);
+        final int roomId = aClass.getPossibleRoomAssignments()[newRoom].getRoom().getId();
+        final Time time = event.getTimeAssignment().getTime();
+        final RoomOccupancy occupancy = timetable.getRoomOccupancy();
+        int otherId = 0;
+        for (int i = 0; i < occupancy.getEventCount(roomId) && otherId == 0; i++)
+            if (time.overlaps(timetable.getEvent(occupancy.getClassId(roomId, i)).getTimeAssignment().getTime(), 0))
+                otherId = occupancy.getClassId(roomId, i);
+        final int otherRoom = otherId == 0 || oldRoom < 0 ? -1
+                : roomIndexOf(otherId, aClass.getPossibleRoomAssignments()[oldRoom].getRoom().getId());
+        if (otherRoom < 0) {
+            tryMove(classId, event.getTimeIndex(), newRoom);
+            return;
+        }
+        final Event other = timetable.getEvent(otherId);
+        final boolean students = movesStudents(classId, event.getTimeIndex(), newRoom);
+        final boolean otherStudents = movesStudents(otherId, other.getTimeIndex(), otherRoom);
+        long delta = evaluator.evaluateMove(classId, event.getTimeIndex(), newRoom)
+                + (long) hardWeight * evaluator.getHardDelta();
+        timetable.assign(classId, event.getTimeIndex(), newRoom);
+        delta += evaluator.evaluateMove(otherId, other.getTimeIndex(), otherRoom)
+                + (long) hardWeight * evaluator.getHardDelta();
+        iterations++;
+        if (!accept(delta)) {
+            timetable.assign(classId, event.getTimeIndex(), oldRoom);
+            return;
+        }
+        if ((delta > 0 || students || otherStudents) && !bestSaved) {
+            timetable.assign(classId, event.getTimeIndex(), oldRoom);
+            saveBest();
+            timetable.assign(classId, event.getTimeIndex(), newRoom);
+        }
+        timetable.assign(otherId, other.getTimeIndex(), otherRoom);
+        applied(delta + (students ? resection(classId) : 0) + (otherStudents ? resection(otherId) : 0));
+    }
+
+    /**
+     * Moves a random student from one of their classes to another class of the same subpart with the same parent
+     * class and free seats.
+     */
+    private void reassignStudent() {
+        final int studentId = 1 + random.nextInt(problem.getStudents().length);
+        final StudentSchedules schedules = timetable.getStudentSchedules();
+        final int n = schedules.getEventCount(studentId);
+        if (n == 0) return;
+        final int classId = schedules.getClassId(studentId, random.nextInt(n));
+        final int[] others = siblings[classId - 1];
+        if (others == null || others.length == 0) return;
+        final int otherId = others[random.nextInt(others.length)];
+        if (timetable.getEvent(otherId).getStudentCount() >= problem.getClassById(otherId).getLimit()
+                || schedules.isEnrolled(studentId, otherId)) return;
+        final long before = timetable.getTotalPenalty();
+        timetable.unenroll(classId, studentId);
+        timetable.enroll(otherId, studentId);
+        final long delta = timetable.getTotalPenalty() - before;
+        iterations++;
+        if (!accept(delta)) {
+            timetable.unenroll(otherId, studentId);
+            timetable.enroll(classId, studentId);
+            return;
+        }
+        if (delta > 0 && !bestSaved) {
+            timetable.unenroll(otherId, studentId);
+            timetable.enroll(classId, studentId);
+            saveBest();
+            timetable.unenroll(classId, studentId);
+            timetable.enroll(otherId, studentId);
+        }
+        applied(delta);
+    }
+
+    /**
+     * Evaluates the move of the given class to the given time and room, and applies it if it is accepted.
+     *
+     * @param classId   The class id.
+     * @param timeIndex The new time index.
+     * @param roomIndex The new room index, or -1.
+     */
+    private void tryMove(int classId, int timeIndex, int roomIndex) {
+        final long delta = evaluator.evaluateMove(classId, timeIndex, roomIndex)
+                + (long) hardWeight * evaluator.getHardDelta();
+        iterations++;
+        if (!accept(delta)) return;
+        final boolean students = movesStudents(classId, timeIndex, roomIndex);
+        if ((delta > 0 || students) && !bestSaved) saveBest();
+        timetable.assign(classId, timeIndex, roomIndex);
+        applied(delta + (students ? resection(classId) : 0));
+    }
+
+    /**
+     * Checks if the students are sectioned and moving the class with the given id to the given time and room can
+     * change its student conflicts, in which case its students are re-sectioned after the move.
+     *
+     * @param classId   The class id.
+     * @param timeIndex The new time index.
+     * @param roomIndex The new room index, or -1.
+     * @return True if the students of the class are re-sectioned after the move, and false otherwise.
+     */
+    private boolean movesStudents(int classId, int timeIndex, int roomIndex) {
+        return sectioning != null
+                && timetable.getStudentSchedules().changes(timetable.getEvent(classId), timeIndex, roomIndex);
+    }
+
+    /**
+     * Re-sections the students of the given class, which has just moved, in its course. Since the re-sectioning may
+     * change the cost after the move was accepted, a best timetable that the search is about to leave by a move that
+     * re-sections the students is captured before the move.
+     *
+     * @param classId The class id.
+     * @return The change of the cost.
+     */
+    private int resection(int classId) {
+        return sectioning == null ? 0 : sectioning.resectionClass(classId);
+    }
+
+    /**
+     * Decides if a move with the given cost delta is accepted at the current temperature.
+     *
+     * @param delta The cost delta of the move.
+     * @return True if the move is accepted, and false otherwise.
+     */
+    private boolean accept(long delta) {
+        return delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature);
+    }
+
+    /**
+     * Updates the current and best costs after an accepted move with the given cost delta.
+     *
+     * @param delta The cost delta of the move.
+     */
+    private void applied(long delta) {
+        accepted++;
+        current += delta;
+        if (current < bestCost) {
+            bestCost = current;
+            bestSaved = false;
+        }
+    }
+
+    /**
+     * Offers the best timetable to the solution exchange and continues from the received timetable, if any.
+     *
+     * @return True if a better timetable was received, and false otherwise.
+     */
+    private boolean exchange() {
+        if (!bestSaved) saveBest();
+        final CompactTimetable received = exchange.exchange(best, bestCost);
+        if (received == null) return false;
+        received.restore(timetable);
+        current = cost();
+        best.copyFrom(received);
+        bestCost = current;
+        bestSaved = true;
+        return true;
+    }
+
+    /**
+     * Captures the timetable, which is the best timetable found so far, before the search leaves it.
+     */
+    private void saveBest() {
+        best.capture(timetable);
+        bestSaved = true;
+    }
+
+    /**
+     * Estimates the initial temperature as the average cost delta of the worsening moves among a sample of change time
+     * and change room moves (which are evaluated, but not applied).
+     *
+     * @return Initial temperature.
+     */
+    private double sampleTemperature() {
+        long sum = 0, delta;
+        int count = 0, classId;
+        for (int i = 0; i < SAMPLE_SIZE && timeClasses.length > 0; i++) {
+            classId = timeClasses[random.nextInt(timeClasses.length)];
+            final Event event = timetable.getEvent(classId);
+            int timeIndex = random.nextInt(problem.getClassById(classId).getPossibleTimeAssignments().length - 1);
+            if (timeIndex >= event.getTimeIndex()) timeIndex++;
+            delta = evaluator.evaluateMove(classId, timeIndex, event.getRoomIndex())
+                    + (long) hardWeight * evaluator.getHardDelta();
+            if (delta > 0) {
+                sum += delta;
+                count++;
+            }
+        }
+        return count == 0 ? 1 : Math.max((double) sum / count, finalTemperature);
+    }
+
+    /**
+     * Returns the cost of the timetable.
+     *
+     * @return Total penalty + hard weight × hard violations.
+     */
+    private long cost() {
+        return timetable.getTotalPenalty() + (long) hardWeight * timetable.getHardViolations();
+    }
+
+    /**
+     * Checks if all the classes of the timetable are scheduled.
+     *
+     * @return True if the timetable is complete, and false otherwise.
+     */
+    private boolean isComplete() {
+        for (int classId = 1; classId <= problem.getClasses().length; classId++)
+            if (!timetable.getEvent(classId).isScheduled()) return false;
+        return true;
+    }
+
+    /**
+     * Checks if any student of the timetable is enrolled in a class.
+     *
+     * @return True if there is an enrollment, and false otherwise.
+     */
+    private boolean hasEnrollments() {
+        final StudentSchedules schedules = timetable.getStudentSchedules();
+        for (int studentId = 1; studentId <= problem.getStudents().length; studentId++)
+            if (schedules.getEventCount(studentId) > 0) return true;
+        return false;
+    }
+
+    /**
+     * Returns a random room index of the given class other than the given one.
+     *
+     * @param classId   The class id (which has more than one possible room).
+     * @param roomIndex The current room index.
+     * @return Room index.
+     */
+    private int otherRoom(int classId, int roomIndex) {
+        int other = random.nextInt(problem.getClassById(classId).getPossibleRoomAssignments().length - 1);
+        return other >= roomIndex ? other + 1 : other;
+    }
+
+    /**
+     * Returns the index of the room with the given id in the possible rooms of the given class.
+     *
+     * @param classId The class id.
+     * @param roomId  The room id.
+     * @return Room index, or -1 if the room is not a possible room of the class.
+     */
+    private int roomIndexOf(int classId, int roomId) {
+        final com.dataset.Class aClass = problem.getClassById(classId);
+        if (!aClass.requiresRoom()) return -1;
+        for (int i = 0; i < aClass.getPossibleRoomAssignments().length; i++)
+            if (aClass.getPossibleRoomAssignments()[i].getRoom().getId() == roomId) return i;
+        return -1;
+    }
+}
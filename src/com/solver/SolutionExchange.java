@@ -0,0 +1,24 @@
+package com.solver;
+
+import com.utils.CompactTimetable;
+
+/**
+ * This interface represents a point where a search thread shares its best solution with other search threads and may
+ * receive a better one (see IslandSearch). It is called by the search every exchange period, outside its hot path.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+interface SolutionExchange {
+
+    /**
+     * Offers the best solution of the calling search and returns a better solution, if there is one.
+     *
+     * @param best     The best solution of the calling search. It is not changed or kept by this method.
+     * @param bestCost The cost of the best solution.
+     * @return A solution with a lower cost than the given cost, which must not be changed, or null.
+     */
+    CompactTimetable exchange(CompactTimetable best, long bestCost);
+}
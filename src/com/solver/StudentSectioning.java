@@ -0,0 +1,573 @@
+package com.solver;
+
+import com.dataset.Config;
+import com.dataset.Course;
+import com.dataset.Problem;
+import com.dataset.ProblemIndex;
+import com.dataset.RoomAssignment;
+import com.dataset.Student;
+import com.dataset.Subpart;
+import com.dataset.TravelTime;
+import com.utils.Event;
+import com.utils.StudentSchedules;
+import com.utils.Timetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class sections the students of a problem instance of the ITC 2019 dataset, which is enrolling each student in
+ * a consistent set of classes of each course of the student. An enrollment in a course is consistent if:
+ * <p>
+ * 1) all its classes belong to a single configuration of the course, with exactly one class of each subpart of the
+ * configuration;
+ * <p>
+ * 2) the parent class of each of its classes (see Class.getParent()) is in the enrollment too.
+ * <p>
+ * The enrollment of a student in a course is chosen by a depth-first branch and bound over the subparts of each
+ * configuration, parents first, that minimizes the cost of the enrollment: the student conflicts of its classes with
+ * the other classes of the student and with each other (at their current times and rooms, see StudentSchedules), plus
+ * a large cost (LIMIT_COST) for each class that is already full (see Class.getLimit()). The candidate classes of each
+ * subpart are tried in the order of their cost, and then of their free places, so the first enrollment found is the
+ * greedy one; the number of search nodes of each enrollment is limited.
+ * <p>
+ * The sectioning can be done for all the students (section()) or incrementally: a student, a course, or the students
+ * of a class (e.g., after the time of the class changes) are re-sectioned, where an enrollment is only replaced by a
+ * cheaper one. The student conflicts are the most expensive part of the ITC 2019 objective to evaluate, so the
+ * incremental modes only touch the affected students.
+ * <p>
+ * A sectioning belongs to the timetable it was created for. It is not thread-safe (see ParallelSectioning for
+ * sectioning the courses in parallel).
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.4
+ */
+public class StudentSectioning {
+    /**
+     * The cost of enrolling a student in a class that is already full, which is higher than the cost of any set of
+     * student conflicts.
+     */
+    public static final int LIMIT_COST = 1 << 20;
+
+    /**
+     * The default limit on the number of search nodes of an enrollment.
+     */
+    public static final int DEFAULT_MAX_NODES = 1000;
+
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final Timetable timetable;
+    private final Problem problem;
+    private final ProblemIndex index;
+    private final TravelTime travelTime;
+    private final Random random;
+    private final int[][][] configs;
+    private final int[][] courseConfigs;
+    private final int[][] courseStudents;
+    private final int[] classConfigs;
+    private final int[] classPositions;
+    private final int[] chosen;
+    private final int[] bestChosen;
+    private final int[] current;
+    private final int[][] candidates;
+    private final int[][] costs;
+    private int[] pending;
+    private int maxNodes = DEFAULT_MAX_NODES;
+    private int bestCost, nodeNo;
+    private long nodes, unsectioned, nanos;
+
+    /**
+     * Constructs a student sectioning for the given timetable.
+     *
+     * @param timetable The timetable whose students are to be sectioned.
+     * @param seed      The seed of the order of the students.
+     */
+    public StudentSectioning(Timetable timetable, long seed) {
+        this.timetable = timetable;
+        problem = timetable.getProblem();
+        index = problem.getIndex();
+        travelTime = problem.getTravelTime();
+        random = new Random(seed);
+        int courseNo = 0, configNo = 0, maxSubparts = 0, maxClasses = 0;
+        for (Course course : problem.getCourses()) {
+            courseNo = Math.max(courseNo, course.getId());
+            configNo += course.getConfigurations().length;
+        }
+        configs = new int[configNo][][];
+        courseConfigs = new int[courseNo][0];
+        classConfigs = new int[problem.getClasses().length];
+        classPositions = new int[problem.getClasses().length];
+        configNo = 0;
+        for (Course course : problem.getCourses()) {
+            courseConfigs[course.getId() - 1] = new int[course.getConfigurations().length];
+            for (int i = 0; i < course.getConfigurations().length; i++) {
+                final Subpart[] subparts = course.getConfigurations()[i].getSubparts().clone();
+                // Parents first: a parent class belongs to a subpart with a shorter chain of parents.
+                Arrays.sort(subparts, (s1, s2) -> Integer.compare(depth(s1), depth(s2)));
+                configs[configNo] = new int[subparts.length][];
+                for (int j = 0; j < subparts.length; j++) {
+                    final com.dataset.Class[] classes = subparts[j].getClasses();
+                    configs[configNo][j] = new int[classes.length];
+                    for (int k = 0; k < classes.length; k++) {
+                        configs[configNo][j][k] = classes[k].getId();
+                        classConfigs[classes[k].getId() - 1] = configNo;
+                        classPositions[classes[k].getId() - 1] = j;
+                    }
+                    maxClasses = Math.max(maxClasses, classes.length);
+                }
+                maxSubparts = Math.max(maxSubparts, subparts.length);
+                courseConfigs[course.getId() - 1][i] = configNo++;
+            }
+        }
+        final int[] studentNos = new int[courseNo];
+        for (Student student : problem.getStudents())
+            for (Course course : distinctCourses(student)) studentNos[course.getId() - 1]++;
+        courseStudents = new int[courseNo][];
+        for (int i = 0; i < courseNo; i++) courseStudents[i] = new int[studentNos[i]];
+        Arrays.fill(studentNos, 0);
+        for (Student student : problem.getStudents())
+            for (Course course : distinctCourses(student))
+                courseStudents[course.getId() - 1][studentNos[course.getId() - 1]++] = student.getId();
+        chosen = new int[maxSubparts];
+        bestChosen = new int[maxSubparts];
+        current = new int[maxSubparts + 1];
+        candidates = new int[maxSubparts][maxClasses];
+        costs = new int[maxSubparts][maxClasses];
+    }
+
+    /**
+     * Constructs a student sectioning for the same timetable as the given sectioning, which shares its tables of the
+     * problem instance but has its own search state, so that the two can search at the same time.
+     *
+     * @param other The student sectioning.
+     * @param seed  The seed of the order of the students.
+     */
+    StudentSectioning(StudentSectioning other, long seed) {
+        timetable = other.timetable;
+        problem = other.problem;
+        index = other.index;
+        travelTime = other.travelTime;
+        random = new Random(seed);
+        configs = other.configs;
+        courseConfigs = other.courseConfigs;
+        courseStudents = other.courseStudents;
+        classConfigs = other.classConfigs;
+        classPositions = other.classPositions;
+        maxNodes = other.maxNodes;
+        chosen = new int[other.chosen.length];
+        bestChosen = new int[other.chosen.length];
+        current = new int[other.current.length];
+        candidates = new int[other.candidates.length][other.candidates.length == 0 ? 0 : other.candidates[0].length];
+        costs = new int[candidates.length][candidates.length == 0 ? 0 : candidates[0].length];
+    }
+
+    /**
+     * Sets the limit on the number of search nodes of an enrollment. Once the limit is reached, the best enrollment
+     * found so far is taken.
+     *
+     * @param maxNodes The maximum number of search nodes.
+     * @throws IllegalArgumentException If the given limit is less than 1.
+     */
+    public void setMaxNodes(int maxNodes) throws IllegalArgumentException {
+        if (maxNodes < 1) throw new IllegalArgumentException("The node limit cannot be less than 1.");
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Sections all the students from scratch: all the current enrollments are removed, and the students are sectioned
+     * in a random order, each in its courses with the fewest classes first.
+     *
+     * @return True if every student is enrolled in every course of theirs without exceeding a class limit, and false
+     * otherwise.
+     */
+    public boolean section() {
+        final long start = System.nanoTime();
+        final StudentSchedules schedules = timetable.getStudentSchedules();
+        nodes = unsectioned = 0;
+        for (Student student : problem.getStudents())
+            for (int n = schedules.getEventCount(student.getId()); n > 0; n--)
+                timetable.unenroll(schedules.getClassId(student.getId(), n - 1), student.getId());
+        final int[] order = new int[problem.getStudents().length];
+        for (int i = 0; i < order.length; i++) order[i] = i + 1;
+        for (int i = order.length - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1), swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        boolean withinLimits = true;
+        for (int studentId : order) {
+            final ArrayList<Course> courses = distinctCourses(problem.getStudents()[studentId - 1]);
+            courses.sort((c1, c2) -> Integer.compare(classNo(c1), classNo(c2)));
+            for (Course course : courses) {
+                final int cost = section(studentId, course.getId(), UNBOUNDED);
+                if (cost == UNBOUNDED) unsectioned++;
+                withinLimits &= cost < LIMIT_COST;
+            }
+        }
+        nanos = System.nanoTime() - start;
+        return withinLimits && unsectioned == 0;
+    }
+
+    /**
+     * Re-sections the given student in each of their courses, keeping an enrollment unless a cheaper one is found.
+     *
+     * @param studentId The student id.
+     * @return The change of the total penalty of the timetable.
+     */
+    public int resectionStudent(int studentId) {
+        final int before = timetable.getTotalPenalty();
+        for (Course course : distinctCourses(problem.getStudents()[studentId - 1]))
+            resection(studentId, course.getId());
+        return timetable.getTotalPenalty() - before;
+    }
+
+    /**
+     * Re-sections the students of the course with the given id in it, keeping an enrollment unless a cheaper one is
+     * found.
+     *
+     * @param courseId The course id.
+     * @return The change of the total penalty of the timetable.
+     */
+    public int resectionCourse(int courseId) {
+        final int before = timetable.getTotalPenalty();
+        for (int studentId : courseStudents[courseId - 1]) resection(studentId, courseId);
+        return timetable.getTotalPenalty() - before;
+    }
+
+    /**
+     * Re-sections the students of the class with the given id in the course of the class, keeping an enrollment
+     * unless a cheaper one is found. This is meant to be called after the time or room of the class changes.
+     *
+     * @param classId The class id.
+     * @return The change of the total penalty of the timetable.
+     */
+    public int resectionClass(int classId) {
+        final int before = timetable.getTotalPenalty(), courseId = index.getCourse(classId);
+        final StudentSchedules schedules = timetable.getStudentSchedules();
+        for (int studentId : courseStudents[courseId - 1])
+            if (schedules.isEnrolled(studentId, classId)) resection(studentId, courseId);
+        return timetable.getTotalPenalty() - before;
+    }
+
+    /**
+     * Returns the ids of the students of the course with the given id (each student once).
+     *
+     * @param courseId The course id.
+     * @return Student ids.
+     */
+    public int[] getStudents(int courseId) {
+        return courseStudents[courseId - 1];
+    }
+
+    /**
+     * Returns the number of search nodes of the last call of section().
+     *
+     * @return Search nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of (student, course) pairs that could not be sectioned in the last call of section(), because
+     * no consistent enrollment exists.
+     *
+     * @return Unsectioned pairs.
+     */
+    public long getUnsectioned() {
+        return unsectioned;
+    }
+
+    /**
+     * Returns the running time of the last call of section().
+     *
+     * @return Nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "StudentSectioning{" + "nodes=" + nodes + ", unsectioned=" + unsectioned + ", ms=" + nanos / 1_000_000
+                + ", studentConflicts=" + timetable.getStudentSchedules().getConflicts() + '}';
+    }
+
+    /**
+     * Re-sections the given student in the course with the given id: the current enrollment of the student in the
+     * course is removed and replaced by the cheapest enrollment found, if it is cheaper, or restored otherwise. An
+     * inconsistent enrollment is always replaced. All the classes of the course are removed while the schedule of the
+     * student is scanned, and the buffer only remembers them for the restore; if the student holds more classes of the
+     * course than the buffer can hold, the enrollment is inconsistent anyway, and nothing is restored.
+     *
+     * @param studentId The student id.
+     * @param courseId  The course id.
+     */
+    private void resection(int studentId, int courseId) {
+        final StudentSchedules schedules = timetable.getStudentSchedules();
+        int n = 0, classId;
+        boolean overflow = false;
+        for (int i = schedules.getEventCount(studentId) - 1; i >= 0; i--) {
+            classId = schedules.getClassId(studentId, i);
+            if (index.getCourse(classId) != courseId) continue;
+            if (n == current.length) overflow = true;
+            else current[n++] = classId;
+            timetable.unenroll(classId, studentId);                // the last event (already scanned) moves to i
+        }
+        boolean consistent = !overflow;
+        final int config = n == 0 ? -1 : classConfigs[current[0] - 1];
+        consistent &= n > 0 && n == configs[config].length;
+        if (consistent) Arrays.fill(chosen, 0, n, 0);
+        for (int i = 0; i < n && consistent; i++) {
+            classId = current[i];
+            if (classConfigs[classId - 1] != config || chosen[classPositions[classId - 1]] != 0) consistent = false;
+            else chosen[classPositions[classId - 1]] = classId;
+        }
+        int cost = UNBOUNDED;
+        if (consistent) {
+            cost = 0;
+            for (int i = 0; i < n; i++) {
+                final int parent = index.getParent(chosen[i]);
+                if (parent != 0 && !isChosen(parent, i)) {
+                    cost = UNBOUNDED;
+                    break;
+                }
+                cost += cost(studentId, chosen[i], i);
+            }
+        }
+        if (section(studentId, courseId, cost) == cost && !overflow)
+            for (int i = 0; i < n; i++) timetable.enroll(current[i], studentId);
+    }
+
+    /**
+     * Enrolls the given student (who is not enrolled in any class of the course with the given id) in the cheapest
+     * enrollment found in the course, if it is cheaper than the given bound.
+     *
+     * @param studentId The student id.
+     * @param courseId  The course id.
+     * @param bound     The cost to be beaten.
+     * @return The cost of the new enrollment, or the given bound if no cheaper enrollment is found.
+     */
+    private int section(int studentId, int courseId, int bound) {
+        final int bestConfig = find(studentId, courseId, bound);
+        if (bestConfig < 0) return bound;
+        for (int i = 0; i < configs[bestConfig].length; i++) timetable.enroll(bestChosen[i], studentId);
+        return bestCost;
+    }
+
+    /**
+     * Finds the cheapest enrollment of the given student (who is not enrolled in any class of the course with the given
+     * id) in the course without enrolling the student. The given pending enrollments, which are not in the timetable
+     * yet, are counted against the class limits too. The timetable is only read, so sectionings that share a timetable
+     * can find enrollments at the same time, as long as the timetable does not change.
+     *
+     * @param studentId  The student id.
+     * @param courseId   The course id.
+     * @param pending    The number of pending enrollments of each class, indexed by (id - 1).
+     * @param enrollment The class ids of the enrollment found, followed by 0 if it is shorter than the array.
+     * @return The cost of the enrollment found. Returns Integer.MAX_VALUE if there is no consistent enrollment.
+     */
+    int find(int studentId, int courseId, int[] pending, int[] enrollment) {
+        this.pending = pending;
+        try {
+            final int bestConfig = find(studentId, courseId, UNBOUNDED);
+            final int n = bestConfig < 0 ? 0 : configs[bestConfig].length;
+            System.arraycopy(bestChosen, 0, enrollment, 0, n);
+            if (n < enrollment.length) enrollment[n] = 0;
+            return bestCost;
+        } finally {
+            this.pending = null;
+        }
+    }
+
+    /**
+     * Returns the number of subparts of the largest configuration, which is the largest number of classes of an
+     * enrollment.
+     *
+     * @return Maximum enrollment size.
+     */
+    int getMaxEnrollmentSize() {
+        return chosen.length;
+    }
+
+    /**
+     * Finds the cheapest enrollment of the given student in the course with the given id that is cheaper than the
+     * given bound, and keeps it in bestChosen (and its cost in bestCost).
+     *
+     * @param studentId The student id.
+     * @param courseId  The course id.
+     * @param bound     The cost to be beaten.
+     * @return The index of the configuration of the enrollment, or -1 if no cheaper enrollment is found.
+     */
+    private int find(int studentId, int courseId, int bound) {
+        bestCost = bound;
+        nodeNo = 0;
+        int bestConfig = -1;
+        for (int config : courseConfigs[courseId - 1]) {
+            final int cost = bestCost;
+            search(studentId, configs[config], 0, 0);
+            if (bestCost < cost) bestConfig = config;
+        }
+        nodes += nodeNo;
+        return bestConfig;
+    }
+
+    /**
+     * Chooses the classes of the given subpart and the subparts after it by a depth-first branch and bound, and keeps
+     * the cheapest complete enrollment found in bestChosen.
+     *
+     * @param studentId The student id.
+     * @param subparts  The class ids of the subparts of the configuration, parents first.
+     * @param level     The position of the subpart.
+     * @param cost      The cost of the classes chosen so far.
+     */
+    private void search(int studentId, int[][] subparts, int level, int cost) {
+        if (level == subparts.length) {
+            bestCost = cost;
+            System.arraycopy(chosen, 0, bestChosen, 0, level);
+            return;
+        }
+        if (bestCost != UNBOUNDED && nodeNo >= maxNodes) return;
+        nodeNo++;
+        final int[] levelCandidates = candidates[level], levelCosts = costs[level];
+        int n = 0;
+        for (int classId : subparts[level]) {
+            final int parent = index.getParent(classId);
+            if (parent != 0 && !isChosen(parent, level)) continue;
+            final int classCost = cost(studentId, classId, level);
+            if (cost + classCost >= bestCost) continue;
+            // Insertion by cost, and then by the free places of the class.
+            int i = n++;
+            for (; i > 0 && compare(classId, classCost, levelCandidates[i - 1], levelCosts[i - 1]) < 0; i--) {
+                levelCandidates[i] = levelCandidates[i - 1];
+                levelCosts[i] = levelCosts[i - 1];
+            }
+            levelCandidates[i] = classId;
+            levelCosts[i] = classCost;
+        }
+        for (int i = 0; i < n && cost + levelCosts[i] < bestCost; i++) {
+            chosen[level] = levelCandidates[i];
+            search(studentId, subparts, level + 1, cost + levelCosts[i]);
+        }
+    }
+
+    /**
+     * Returns the cost of enrolling the given student in the class with the given id, given the classes chosen before
+     * it: the student conflicts with the other classes of the student and with the chosen classes, plus LIMIT_COST if
+     * the class is full.
+     *
+     * @param studentId The student id.
+     * @param classId   The class id.
+     * @param level     The number of chosen classes.
+     * @return The cost.
+     */
+    private int cost(int studentId, int classId, int level) {
+        final Event event = timetable.getEvent(classId);
+        int cost = getStudentCount(classId) >= getLimit(classId) ? LIMIT_COST : 0;
+        if (event.getTimeAssignment() == null) return cost;
+        cost += timetable.getStudentSchedules().countConflicts(studentId, classId);
+        final RoomAssignment room = event.getRoomAssignment();
+        for (int i = 0; i < level; i++) {
+            final Event other = timetable.getEvent(chosen[i]);
+            if (other.getTimeAssignment() == null) continue;
+            final int travel = room == null || other.getRoomAssignment() == null ? 0
+                    : travelTime.getTravelTime(room.getRoom().getId(), other.getRoomAssignment().getRoom().getId());
+            if (event.getTimeAssignment().getTime().overlaps(other.getTimeAssignment().getTime(), travel)) cost++;
+        }
+        return cost;
+    }
+
+    /**
+     * Compares two candidate classes: the cheaper one first, and then the one with more free places.
+     *
+     * @param classId1 The id of the first class.
+     * @param cost1    The cost of the first class.
+     * @param classId2 The id of the second class.
+     * @param cost2    The cost of the second class.
+     * @return A negative integer, zero, or a positive integer as the first class comes before, with, or after the
+     * second class.
+     */
+    private int compare(int classId1, int cost1, int classId2, int cost2) {
+        if (cost1 != cost2) return Integer.compare(cost1, cost2);
+        return Integer.compare(getStudentCount(classId1) - getLimit(classId1),
+                getStudentCount(classId2) - getLimit(classId2));
+    }
+
+    /**
+     * Returns the number of students of the class with the given id, including the pending enrollments.
+     *
+     * @param classId The class id.
+     * @return The number of students.
+     */
+    private int getStudentCount(int classId) {
+        final int count = timetable.getEvent(classId).getStudentCount();
+        return pending == null ? count : count + pending[classId - 1];
+    }
+
+    /**
+     * Returns the limit on the number of students of the class with the given id.
+     *
+     * @param classId The class id.
+     * @return Class limit.
+     */
+    private int getLimit(int classId) {
+        return problem.getClassById(classId).getLimit();
+    }
+
+    /**
+     * Checks if the class with the given id is among the first given number of chosen classes.
+     *
+     * @param classId The class id.
+     * @param level   The number of chosen classes.
+     * @return True if the class is chosen, and false otherwise.
+     */
+    private boolean isChosen(int classId, int level) {
+        for (int i = 0; i < level; i++)
+            if (chosen[i] == classId) return true;
+        return false;
+    }
+
+    /**
+     * Returns the number of classes of the given course.
+     *
+     * @param course The course.
+     * @return The number of classes.
+     */
+    private static int classNo(Course course) {
+        int count = 0;
+        for (Config config : course.getConfigurations())
+            for (Subpart subpart : config.getSubparts()) count += subpart.getClasses().length;
+        return count;
+    }
+
+    /**
+     * Returns the number of parents above the classes of the given subpart (all the classes of a subpart have their
+     * parents in the same subpart).
+     *
+     * @param subpart The subpart.
+     * @return The depth of the subpart.
+     */
+    private static int depth(Subpart subpart) {
+        int depth = 0;
+        if (subpart.getClasses().length == 0) return depth;
+        com.dataset.Class parent = subpart.getClasses()[0].getParent();
+        for (; parent != null; parent = parent.getParent()) depth++;
+        return depth;
+    }
+
+    /**
+     * Returns the courses of the given student, each course once.
+     *
+     * @param student The student.
+     * @return Courses.
+     */
+    private static ArrayList<Course> distinctCourses(Student student) {
+        final ArrayList<Course> courses = new ArrayList<>(student.getCourses().length);
+        for (Course course : student.getCourses())
+            if (!courses.contains(course)) courses.add(course);
+        return courses;
+    }
+}
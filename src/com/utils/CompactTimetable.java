@@ -0,0 +1,249 @@
+package com.utils;
+
+import com.dataset.Problem;
+import com.dataset.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class represents a possible solution (timetable) of a problem instance of the ITC 2019 dataset as a structure of
+ * primitive arrays instead of an array of Event objects:
+ * <p>
+ * 1) timeIndexes[id - 1] and roomIndexes[id - 1] are the indexes of the time and room of the class with the given id in
+ * its possible time and room assignments (-1 if not assigned, or if the class does not require a room);
+ * <p>
+ * 2) The students of the classes are kept in compressed sparse row (CSR) form: the ids of the students of the class
+ * with the given id are studentIds[studentStarts[id - 1]] .. studentIds[studentStarts[id] - 1].
+ * <p>
+ * A compact timetable is cheap to store and to copy (a couple of System.arraycopy calls), so it is meant for keeping
+ * the best solutions and the populations of search methods, while moves are evaluated on a Timetable (see
+ * DeltaEvaluator). A compact timetable can be captured from a Timetable and restored into one.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class CompactTimetable {
+    private final Problem problem;
+    private final int[] timeIndexes;
+    private final int[] roomIndexes;
+    private final int[] studentStarts;
+    private int[] studentIds;
+
+    /**
+     * Constructs an empty compact timetable (no times, rooms, or students assigned) for the given problem instance.
+     *
+     * @param problem The problem instance.
+     */
+    public CompactTimetable(Problem problem) {
+        this.problem = problem;
+        final int classNo = problem.getClasses().length;
+        timeIndexes = new int[classNo];
+        roomIndexes = new int[classNo];
+        Arrays.fill(timeIndexes, -1);
+        Arrays.fill(roomIndexes, -1);
+        studentStarts = new int[classNo + 1];
+        studentIds = new int[0];
+    }
+
+    /**
+     * Constructs a compact timetable that holds the current times, rooms, and students of the given timetable.
+     *
+     * @param timetable The timetable.
+     */
+    public CompactTimetable(Timetable timetable) {
+        this(timetable.getProblem());
+        capture(timetable);
+    }
+
+    /**
+     * Constructs a copy of the given compact timetable.
+     *
+     * @param other The compact timetable to be copied.
+     */
+    public CompactTimetable(CompactTimetable other) {
+        problem = other.problem;
+        timeIndexes = other.timeIndexes.clone();
+        roomIndexes = other.roomIndexes.clone();
+        studentStarts = other.studentStarts.clone();
+        studentIds = other.studentIds.clone();
+    }
+
+    /**
+     * Returns the problem instance of this compact timetable.
+     *
+     * @return Problem instance.
+     */
+    public Problem getProblem() {
+        return problem;
+    }
+
+    /**
+     * Returns the index of the time of the class with the given id in its possible time assignments.
+     *
+     * @param classId The class id.
+     * @return Time index. Returns -1 if no time is assigned to the class.
+     */
+    public int getTimeIndex(int classId) {
+        return timeIndexes[classId - 1];
+    }
+
+    /**
+     * Returns the index of the room of the class with the given id in its possible room assignments.
+     *
+     * @param classId The class id.
+     * @return Room index. Returns -1 if no room is assigned to the class or the class does not require a room.
+     */
+    public int getRoomIndex(int classId) {
+        return roomIndexes[classId - 1];
+    }
+
+    /**
+     * Returns the number of students of the class with the given id.
+     *
+     * @param classId The class id.
+     * @return The number of students.
+     */
+    public int getStudentCount(int classId) {
+        return studentStarts[classId] - studentStarts[classId - 1];
+    }
+
+    /**
+     * Returns the id of the ith student of the class with the given id.
+     *
+     * @param classId The class id.
+     * @param i       The position of the student in the students of the class (0 .. getStudentCount(classId) - 1).
+     * @return Student id.
+     * @throws IndexOutOfBoundsException If i is out of range.
+     */
+    public int getStudentId(int classId, int i) throws IndexOutOfBoundsException {
+        if (i < 0 || i >= getStudentCount(classId))
+            throw new IndexOutOfBoundsException("Class " + classId + " has no student at position " + i + ".");
+        return studentIds[studentStarts[classId - 1] + i];
+    }
+
+    /**
+     * Sets the time and room of the class with the given id.
+     *
+     * @param classId   The class id.
+     * @param timeIndex The index of the time of the class, or -1.
+     * @param roomIndex The index of the room of the class, or -1.
+     * @throws IllegalArgumentException If a given index is not an index of the possible assignments of the class.
+     */
+    public void assign(int classId, int timeIndex, int roomIndex) throws IllegalArgumentException {
+        final com.dataset.Class aClass = problem.getClasses()[classId - 1];
+        if (timeIndex < -1 || timeIndex >= aClass.getPossibleTimeAssignments().length)
+            throw new IllegalArgumentException("Class " + classId + " has no possible time assignment with index "
+                    + timeIndex + ".");
+        if (roomIndex != -1 && (!aClass.requiresRoom() || roomIndex < 0
+                || roomIndex >= aClass.getPossibleRoomAssignments().length))
+            throw new IllegalArgumentException("Class " + classId + " has no possible room assignment with index "
+                    + roomIndex + ".");
+        timeIndexes[classId - 1] = timeIndex;
+        roomIndexes[classId - 1] = roomIndex;
+    }
+
+    /**
+     * Copies the given compact timetable (of the same problem instance) into this one. Only the student ids array is
+     * reallocated, and only if the given timetable has more enrollments than this one can hold.
+     * <p>
+     * Running time = O(n + e), where n is the number of classes and e is the number of enrollments.
+     *
+     * @param other The compact timetable to be copied.
+     * @throws IllegalArgumentException If the given compact timetable belongs to a different problem instance.
+     */
+    public void copyFrom(CompactTimetable other) throws IllegalArgumentException {
+        if (other.problem != problem)
+            throw new IllegalArgumentException("The given compact timetable belongs to a different problem instance.");
+        System.arraycopy(other.timeIndexes, 0, timeIndexes, 0, timeIndexes.length);
+        System.arraycopy(other.roomIndexes, 0, roomIndexes, 0, roomIndexes.length);
+        System.arraycopy(other.studentStarts, 0, studentStarts, 0, studentStarts.length);
+        final int enrollmentNo = other.studentStarts[other.studentStarts.length - 1];
+        if (studentIds.length < enrollmentNo) studentIds = new int[other.studentIds.length];
+        System.arraycopy(other.studentIds, 0, studentIds, 0, enrollmentNo);
+    }
+
+    /**
+     * Replaces the content of this compact timetable with the current times, rooms, and students of the given
+     * timetable (of the same problem instance).
+     *
+     * @param timetable The timetable.
+     * @throws IllegalArgumentException If the given timetable belongs to a different problem instance.
+     */
+    public void capture(Timetable timetable) throws IllegalArgumentException {
+        if (timetable.getProblem() != problem)
+            throw new IllegalArgumentException("The given timetable belongs to a different problem instance.");
+        final Event[] events = timetable.getEvents();
+        int enrollmentNo = 0;
+        for (int i = 0; i < events.length; i++) {
+            timeIndexes[i] = events[i].getTimeIndex();
+            roomIndexes[i] = events[i].getRoomIndex();
+            studentStarts[i] = enrollmentNo;
+            enrollmentNo += events[i].getStudents().size();
+        }
+        studentStarts[events.length] = enrollmentNo;
+        if (studentIds.length < enrollmentNo) studentIds = new int[enrollmentNo];
+        for (int i = 0; i < events.length; i++) {
+            final ArrayList<Student> students = events[i].getStudents();
+            for (int j = 0; j < students.size(); j++) studentIds[studentStarts[i] + j] = students.get(j).getId();
+        }
+    }
+
+    /**
+     * Restores this compact timetable into the given timetable (of the same problem instance). Only the events whose
+     * time, room, or students differ are changed, so the room occupancy and the student schedules of the timetable are
+     * updated incrementally.
+     *
+     * @param timetable The timetable.
+     * @throws IllegalArgumentException If the given timetable belongs to a different problem instance.
+     */
+    public void restore(Timetable timetable) throws IllegalArgumentException {
+        if (timetable.getProblem() != problem)
+            throw new IllegalArgumentException("The given timetable belongs to a different problem instance.");
+        final Event[] events = timetable.getEvents();
+        for (int i = 0; i < events.length; i++) {
+            final Event event = events[i];
+            if (event.getTimeIndex() != timeIndexes[i] || event.getRoomIndex() != roomIndexes[i])
+                timetable.assign(i + 1, timeIndexes[i], roomIndexes[i]);
+            if (!hasStudents(i, event.getStudents())) {
+                while (!event.getStudents().isEmpty())
+                    timetable.unenroll(i + 1, event.getStudents().get(event.getStudents().size() - 1).getId());
+                for (int j = studentStarts[i]; j < studentStarts[i + 1]; j++) timetable.enroll(i + 1, studentIds[j]);
+            }
+        }
+    }
+
+    /**
+     * Creates a new timetable that holds the times, rooms, and students of this compact timetable.
+     *
+     * @return Timetable.
+     */
+    public Timetable toTimetable() {
+        Timetable timetable = new Timetable(problem);
+        restore(timetable);
+        return timetable;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactTimetable{" + "problem=" + problem.getName() + ", classes=" + timeIndexes.length
+                + ", enrollments=" + studentStarts[studentStarts.length - 1] + '}';
+    }
+
+    /**
+     * Checks if the given students are the students of the class with the given index in this compact timetable (in
+     * the same order).
+     *
+     * @param classIndex The class index (class id - 1).
+     * @param students   The students.
+     * @return True if the students are the same, and false otherwise.
+     */
+    private boolean hasStudents(int classIndex, ArrayList<Student> students) {
+        if (students.size() != studentStarts[classIndex + 1] - studentStarts[classIndex]) return false;
+        for (int j = 0; j < students.size(); j++)
+            if (students.get(j).getId() != studentIds[studentStarts[classIndex] + j]) return false;
+        return true;
+    }
+}
@@ -0,0 +1,228 @@
+package com.utils;
+
+import com.dataset.Problem;
+import com.dataset.ProblemIndex;
+import com.dataset.RoomAssignment;
+import com.dataset.Time;
+import com.dataset.TimeAssignment;
+import com.dataset.constraints.AggregateState;
+import com.dataset.constraints.HardConstraint;
+import com.dataset.constraints.SoftConstraint;
+
+/**
+ * This class evaluates the change in the quality of a timetable caused by a move, which is a change of the time and/or
+ * room assignment of a single event (scheduled class). Instead of checking every distribution constraint, room, and
+ * student of the timetable, only the parts of the objective that touch the moved event are re-checked before and after
+ * the move:
+ * <p>
+ * 1) The time and room penalties of the moved event;
+ * <p>
+ * 2) The hard and soft distribution constraints that include the class of the moved event (for pair constraints, only
+ * the pairs that include the moved class, and for aggregate constraints, only the cells of the old and new times of the
+ * moved class, using the aggregate states of the timetable);
+ * <p>
+ * 3) The room conflicts of the moved event (other events in the same room at overlapping times and the unavailable
+ * times of the room), which are looked up in the room occupancy of the timetable;
+ * <p>
+ * 4) The student conflicts of the moved event (other events of its students that overlap with it or do not leave
+ * enough time to travel between the two rooms), which are looked up in the student schedules of the timetable. Only
+ * the conflicts after the move are counted (the schedules keep the current conflicts of each event), and moves that
+ * keep the time and change the room between rooms with the same travel times skip the students altogether.
+ * <p>
+ * A move results in two deltas: the change of the ITC 2019 objective (the penalty), which is weighted by the
+ * optimization weights of the problem instance (time, room, distribution, and student weights), and the change of the
+ * number of hard violations (violations of hard distribution constraints, room conflicts, and room unavailability).
+ * Unscheduled events are ignored, so moves can be evaluated on partial timetables as well (e.g., while constructing a
+ * timetable).
+ * <p>
+ * IMPORTANT: This class is not thread-safe; each thread needs its own timetable and evaluator.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.7
+ */
+public class DeltaEvaluator {
+    private final Timetable timetable;
+    private final Problem problem;
+    private final ProblemIndex index;
+    private final HardConstraint[] hardConstraints;
+    private final SoftConstraint[] softConstraints;
+    private final RoomOccupancy roomOccupancy;
+    private final StudentSchedules studentSchedules;
+    private int hard, penalty, hardDelta;
+
+    /**
+     * Constructs a delta evaluator for the given timetable. The constraints of each class are taken from the reverse
+     * indexes of the problem instance (see ProblemIndex), and the room and student conflicts are taken from the room
+     * occupancy and the student schedules of the timetable.
+     *
+     * @param timetable The timetable whose moves will be evaluated.
+     */
+    public DeltaEvaluator(Timetable timetable) {
+        this.timetable = timetable;
+        problem = timetable.getProblem();
+        index = problem.getIndex();
+        hardConstraints = problem.getHardConstraints();
+        softConstraints = problem.getSoftConstraints();
+        roomOccupancy = timetable.getRoomOccupancy();
+        studentSchedules = timetable.getStudentSchedules();
+    }
+
+    /**
+     * Returns the timetable of this evaluator.
+     *
+     * @return Timetable.
+     */
+    public Timetable getTimetable() {
+        return timetable;
+    }
+
+    /**
+     * Evaluates the move that assigns the times and rooms with the given indexes (in the possible time and room
+     * assignments of the class) to the class with the given id, without changing the timetable. An index of -1
+     * evaluates unassigning the time (room) of the class. The change of the number of hard violations is available
+     * through getHardDelta() afterwards.
+     * <p>
+     * Running time = O(k + m + s), where k is the total number of classes in the constraints of the class, m is the
+     * number of events assigned to the current and given rooms (only if the class overlaps with any of them), and s
+     * is the total number of events of the students of the class (only for the students whose schedules overlap).
+     * The given indexes are validated in O(1).
+     *
+     * @param classId   The id of the class to be moved.
+     * @param timeIndex The index of the new time of the class, or -1.
+     * @param roomIndex The index of the new room of the class, or -1.
+     * @return The change of the weighted penalty (new penalty - current penalty).
+     * @throws IllegalArgumentException If a given index is not an index of the possible assignments of the class.
+     */
+    public int evaluateMove(int classId, int timeIndex, int roomIndex) throws IllegalArgumentException {
+        final Event event = timetable.getEvent(classId);
+        event.checkTimeIndex(timeIndex);
+        event.checkRoomIndex(roomIndex);
+        final int oldTime = event.getTimeIndex(), oldRoom = event.getRoomIndex();
+        final TimeAssignment oldTimeAssignment = event.getTimeAssignment();
+        final boolean students = studentSchedules.changes(event, timeIndex, roomIndex);
+        hard = 0;
+        penalty = 0;
+        addLocalCost(event, -1, students);
+        event.assign(timeIndex, roomIndex);
+        addLocalCost(event, 1, students);
+        addAggregateCost(event, oldTimeAssignment == null ? null : oldTimeAssignment.getTime());
+        event.assign(oldTime, oldRoom);
+        hardDelta = hard;
+        return penalty;
+    }
+
+    /**
+     * Evaluates the move that assigns the given time and room to the class with the given id (see
+     * evaluateMove(int, int, int)), without changing the timetable.
+     *
+     * @param classId        The id of the class to be moved.
+     * @param timeAssignment The new time of the class, or null.
+     * @param roomAssignment The new room of the class, or null.
+     * @return The change of the weighted penalty (new penalty - current penalty).
+     * @throws IllegalArgumentException If a given assignment is not one of the possible assignments of the class.
+     */
+    public int evaluateMove(int classId, TimeAssignment timeAssignment, RoomAssignment roomAssignment)
+            throws IllegalArgumentException {
+        final Event event = timetable.getEvent(classId);
+        return evaluateMove(classId, event.indexOf(timeAssignment), event.indexOf(roomAssignment));
+    }
+
+    /**
+     * Evaluates the move that assigns the times and rooms with the given indexes to the class with the given id (see
+     * evaluateMove(int, int, int)) and applies it to the timetable.
+     *
+     * @param classId   The id of the class to be moved.
+     * @param timeIndex The index of the new time of the class, or -1.
+     * @param roomIndex The index of the new room of the class, or -1.
+     * @return The change of the weighted penalty (new penalty - previous penalty).
+     * @throws IllegalArgumentException If a given index is not an index of the possible assignments of the class.
+     */
+    public int applyMove(int classId, int timeIndex, int roomIndex) throws IllegalArgumentException {
+        final int delta = evaluateMove(classId, timeIndex, roomIndex);
+        timetable.assign(classId, timeIndex, roomIndex);
+        return delta;
+    }
+
+    /**
+     * Evaluates the move that assigns the given time and room to the class with the given id (see
+     * evaluateMove(int, int, int)) and applies it to the timetable.
+     *
+     * @param classId        The id of the class to be moved.
+     * @param timeAssignment The new time of the class, or null.
+     * @param roomAssignment The new room of the class, or null.
+     * @return The change of the weighted penalty (new penalty - previous penalty).
+     * @throws IllegalArgumentException If a given assignment is not one of the possible assignments of the class.
+     */
+    public int applyMove(int classId, TimeAssignment timeAssignment, RoomAssignment roomAssignment)
+            throws IllegalArgumentException {
+        final Event event = timetable.getEvent(classId);
+        return applyMove(classId, event.indexOf(timeAssignment), event.indexOf(roomAssignment));
+    }
+
+    /**
+     * Returns the change of the number of hard violations caused by the last evaluated (or applied) move.
+     *
+     * @return Hard violations delta.
+     */
+    public int getHardDelta() {
+        return hardDelta;
+    }
+
+    @Override
+    public String toString() {
+        return "DeltaEvaluator{" + "problem=" + problem.getName() + ", hardDelta=" + hardDelta + '}';
+    }
+
+    /**
+     * Adds (sign = 1) or subtracts (sign = -1) the hard violations and the weighted penalty that involve the given
+     * event in its current assignment to (from) the hard and penalty accumulators. The student conflicts before the
+     * move are taken from the student schedules, and the ones after the move are counted.
+     *
+     * @param event    The event.
+     * @param sign     1 or -1.
+     * @param students True if the move can change the student conflicts of the event (see
+     *                 StudentSchedules.changes(Event, int, int)), and false if they are left out of both sides.
+     */
+    private void addLocalCost(Event event, int sign, boolean students) {
+        final com.dataset.Class aClass = event.getTheClass();
+        final TimeAssignment timeAssignment = event.getTimeAssignment();
+        final RoomAssignment roomAssignment = event.getRoomAssignment();
+        if (timeAssignment != null) penalty += sign * problem.getTimeWeight() * timeAssignment.getPenalty();
+        if (roomAssignment != null) penalty += sign * problem.getRoomWeight() * roomAssignment.getPenalty();
+        for (int i : index.getHardConstraints(aClass.getId()))
+            if (timetable.getHardState(i) == null)
+                hard += sign * hardConstraints[i].getConstraint().violationCount(timetable, aClass);
+        for (int i : index.getSoftConstraints(aClass.getId()))
+            if (timetable.getSoftState(i) == null)
+                penalty += sign * problem.getDistributionWeight() * softConstraints[i].calcPenalty(
+                        softConstraints[i].getConstraint().violationCount(timetable, aClass), problem.getNrWeeks());
+        if (timeAssignment == null) return;
+        if (roomAssignment != null) hard += sign * roomOccupancy.countConflicts(roomAssignment.getRoom().getId(),
+                timeAssignment.getTime(), event);
+        if (students) penalty += sign * problem.getStudentWeight() * (sign < 0 ? studentSchedules.getConflicts(
+                aClass.getId()) : studentSchedules.countConflicts(event, timeAssignment.getTime(), roomAssignment));
+    }
+
+    /**
+     * Adds the change of the hard violations and the weighted penalty of the aggregate constraints of the given event
+     * (which is temporarily assigned its new time) to the hard and penalty accumulators, using the aggregate states of
+     * the timetable.
+     *
+     * @param event   The moved event.
+     * @param oldTime The time of the event before the move, or null.
+     */
+    private void addAggregateCost(Event event, Time oldTime) {
+        final com.dataset.Class aClass = event.getTheClass();
+        AggregateState state;
+        for (int i : index.getHardConstraints(aClass.getId()))
+            if ((state = timetable.getHardState(i)) != null)
+                hard += state.evaluate(timetable, aClass, oldTime) - state.getViolationCount();
+        for (int i : index.getSoftConstraints(aClass.getId()))
+            if ((state = timetable.getSoftState(i)) != null)
+                penalty += problem.getDistributionWeight() * (softConstraints[i].calcPenalty(
+                        state.evaluate(timetable, aClass, oldTime), problem.getNrWeeks())
+                        - softConstraints[i].calcPenalty(state.getViolationCount(), problem.getNrWeeks()));
+    }
+}
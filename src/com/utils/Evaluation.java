@@ -0,0 +1,168 @@
+package com.utils;
+
+import com.dataset.Problem;
+
+import java.util.Arrays;
+
+/**
+ * This class represents the full evaluation of a timetable according to the ITC 2019 objective, split into its
+ * components:
+ * <p>
+ * 1) Hard violations: the number of unscheduled events, the violations of the hard distribution constraints, the room
+ * conflicts (pairs of events in the same room at overlapping times), and the room unavailability violations (events
+ * overlapping with an unavailable time of their room);
+ * <p>
+ * 2) Soft penalties: the time and room penalties of the assignments, the penalty of the soft distribution constraints
+ * (already multiplied by their penalties and, where needed, divided by the number of weeks), and the student conflicts.
+ * <p>
+ * The total penalty is the sum of the soft penalties weighted by the optimization weights of the problem instance.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class Evaluation {
+    static final int UNSCHEDULED = 0, DISTRIBUTION_HARD = 1, ROOM_CONFLICTS = 2, ROOM_UNAVAILABLE = 3,
+            TIME_PENALTY = 4, ROOM_PENALTY = 5, DISTRIBUTION_PENALTY = 6, STUDENT_CONFLICTS = 7, COMPONENTS = 8;
+
+    private final Problem problem;
+    private final int[] components;
+
+    /**
+     * Constructs an evaluation object.
+     *
+     * @param problem    The problem instance of the evaluated timetable.
+     * @param components The components of the evaluation, indexed by the component constants of this class.
+     */
+    Evaluation(Problem problem, int[] components) {
+        this.problem = problem;
+        this.components = components;
+    }
+
+    /**
+     * Returns the number of events that are not scheduled.
+     *
+     * @return Unscheduled events.
+     */
+    public int getUnscheduled() {
+        return components[UNSCHEDULED];
+    }
+
+    /**
+     * Returns the number of violations of the hard distribution constraints.
+     *
+     * @return Hard distribution violations.
+     */
+    public int getDistributionViolations() {
+        return components[DISTRIBUTION_HARD];
+    }
+
+    /**
+     * Returns the number of pairs of events in the same room at overlapping times.
+     *
+     * @return Room conflicts.
+     */
+    public int getRoomConflicts() {
+        return components[ROOM_CONFLICTS];
+    }
+
+    /**
+     * Returns the number of (event, unavailable time) pairs where an event overlaps with an unavailable time of its
+     * room.
+     *
+     * @return Room unavailability violations.
+     */
+    public int getRoomUnavailable() {
+        return components[ROOM_UNAVAILABLE];
+    }
+
+    /**
+     * Returns the number of hard violations (distribution violations, room conflicts, and room unavailability
+     * violations), which is what DeltaEvaluator.getHardDelta() tracks. The unscheduled events are not included.
+     *
+     * @return Hard violations.
+     */
+    public int getHardViolations() {
+        return components[DISTRIBUTION_HARD] + components[ROOM_CONFLICTS] + components[ROOM_UNAVAILABLE];
+    }
+
+    /**
+     * Checks if the evaluated timetable is a feasible solution (all events scheduled and no hard violations).
+     *
+     * @return True if feasible, and false otherwise.
+     */
+    public boolean isFeasible() {
+        return components[UNSCHEDULED] == 0 && getHardViolations() == 0;
+    }
+
+    /**
+     * Returns the sum of the time penalties of the assigned times.
+     *
+     * @return Time penalty (unweighted).
+     */
+    public int getTimePenalty() {
+        return components[TIME_PENALTY];
+    }
+
+    /**
+     * Returns the sum of the room penalties of the assigned rooms.
+     *
+     * @return Room penalty (unweighted).
+     */
+    public int getRoomPenalty() {
+        return components[ROOM_PENALTY];
+    }
+
+    /**
+     * Returns the penalty of the soft distribution constraints.
+     *
+     * @return Distribution penalty (unweighted).
+     */
+    public int getDistributionPenalty() {
+        return components[DISTRIBUTION_PENALTY];
+    }
+
+    /**
+     * Returns the number of student conflicts.
+     *
+     * @return Student conflicts (unweighted).
+     */
+    public int getStudentConflicts() {
+        return components[STUDENT_CONFLICTS];
+    }
+
+    /**
+     * Returns the total penalty (the ITC 2019 objective), which is the sum of the time, room, distribution, and
+     * student penalties weighted by the optimization weights of the problem instance.
+     *
+     * @return Total penalty.
+     */
+    public int getTotalPenalty() {
+        return problem.getTimeWeight() * components[TIME_PENALTY] + problem.getRoomWeight() * components[ROOM_PENALTY]
+                + problem.getDistributionWeight() * components[DISTRIBUTION_PENALTY]
+                + problem.getStudentWeight() * components[STUDENT_CONFLICTS];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Evaluation that = (Evaluation) o;
+        return problem == that.problem && Arrays.equals(components, that.components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return "Evaluation{" + "total=" + getTotalPenalty() + ", unscheduled=" + getUnscheduled()
+                + ", distributionViolations=" + getDistributionViolations() + ", roomConflicts=" + getRoomConflicts()
+                + ", roomUnavailable=" + getRoomUnavailable() + ", time=" + getTimePenalty() + ", room="
+                + getRoomPenalty() + ", distribution=" + getDistributionPenalty() + ", student="
+                + getStudentConflicts() + '}';
+    }
+}
@@ -5,25 +5,32 @@ import com.dataset.Student;
 import com.dataset.TimeAssignment;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 
 /**
  * This class represents an event, which is a class with an assigned time, room, and a list of students. In other
  * words, an event is a scheduled class and the building block of the timetable. An assignment of a room to a class is
  * not necessary for those classes that do not require a room (as defined in the problem instance).
  * <p>
+ * The time and room of an event are stored as the indexes of the assignments in the possible time and room assignments
+ * of its class (-1 if not assigned), so assignments are validated in O(1) and can be copied as primitive values. The
+ * assignments themselves are also kept, so the getters do not need to look them up. The assignments of an event are
+ * only changed through its timetable (see Timetable.assign()), which keeps its room occupancy, student schedules, and
+ * evaluation up to date.
+ * <p>
+ * The students of an event are enrolled through the timetable (see Timetable.enroll()), which does not check the
+ * enrollment rules (class limit, parent class, course, and configuration). The students are enrolled according to
+ * these rules by StudentSectioning of the solver.
+ * <p>
  * Created by Sina on 19-Feb-22
  *
  * @author Sina
- * @version 0.5
+ * @version 0.10
  */
 public class Event {
-
-    //TODO: Add addStudent method with its checks (class has capacity, parent class taken, student wanted this course,
-    // one class from each subpart of a single configuration taken) here or in the Timetable class.
-
     private final com.dataset.Class theClass;
     private final ArrayList<Student> students = new ArrayList<>();
+    private int timeIndex = -1;
+    private int roomIndex = -1;
     private TimeAssignment timeAssignment;
     private RoomAssignment roomAssignment;
 
@@ -67,7 +74,27 @@ public class Event {
     }
 
     /**
-     * Returns the list of students assigned to this event.
+     * Returns the index of the current time of this event's class in its possible time assignments.
+     *
+     * @return Current time index. Returns -1 if no time has been assigned to this event's class yet.
+     */
+    public int getTimeIndex() {
+        return timeIndex;
+    }
+
+    /**
+     * Returns the index of the current room of this event's class in its possible room assignments.
+     *
+     * @return Current room index. Returns -1 if this event's class does not require a room or if no room has been
+     * assigned to this event's class yet.
+     */
+    public int getRoomIndex() {
+        return roomIndex;
+    }
+
+    /**
+     * Returns the list of students assigned to this event. The students must be changed through Timetable.enroll()
+     * and Timetable.unenroll(), which also keep the student schedules up to date.
      *
      * @return Students.
      */
@@ -76,64 +103,99 @@ public class Event {
     }
 
     /**
-     * Assigns a time to this event's class and returns the penalty associated with this time assignment.
+     * Returns the number of students assigned to this event.
+     *
+     * @return The number of students.
+     */
+    public int getStudentCount() {
+        return students.size();
+    }
+
+    /**
+     * Assigns the times and rooms with the given indexes to this event's class without any checks. An index of -1
+     * unassigns the time (room) of this event's class. This is used by the Timetable (which also updates its room
+     * occupancy and student schedules) and by the DeltaEvaluator to try a move and restore the previous assignments,
+     * so the given indexes must be validated (see checkTimeIndex() and checkRoomIndex()) beforehand.
+     * <p>
+     * Running time = O(1).
+     *
+     * @param timeIndex The index of the time to be assigned to this event's class, or -1.
+     * @param roomIndex The index of the room to be assigned to this event's class, or -1.
+     */
+    void assign(int timeIndex, int roomIndex) {
+        this.timeIndex = timeIndex;
+        this.roomIndex = roomIndex;
+        timeAssignment = timeIndex == -1 ? null : theClass.getPossibleTimeAssignments()[timeIndex];
+        roomAssignment = roomIndex == -1 ? null : theClass.getPossibleRoomAssignments()[roomIndex];
+    }
+
+    /**
+     * Checks if the given index is -1 (no time) or an index of the possible time assignments of this event's class.
+     * <p>
+     * Running time = O(1).
+     *
+     * @param timeIndex The time index.
+     * @throws IllegalArgumentException If the given index is not valid.
+     */
+    void checkTimeIndex(int timeIndex) throws IllegalArgumentException {
+        if (timeIndex < -1 || timeIndex >= theClass.getPossibleTimeAssignments().length)
+            throw new IllegalArgumentException("Class " + theClass.getId() + " has no possible time assignment "
+                    + "with index " + timeIndex + ".");
+    }
+
+    /**
+     * Checks if the given index is -1 (no room) or an index of the possible room assignments of this event's class.
+     * <p>
+     * Running time = O(1).
+     *
+     * @param roomIndex The room index.
+     * @throws IllegalArgumentException If the given index is not valid.
+     */
+    void checkRoomIndex(int roomIndex) throws IllegalArgumentException {
+        if (roomIndex != -1 && (!theClass.requiresRoom() || roomIndex < 0
+                || roomIndex >= theClass.getPossibleRoomAssignments().length))
+            throw new IllegalArgumentException("Class " + theClass.getId() + " has no possible room assignment "
+                    + "with index " + roomIndex + ".");
+    }
+
+    /**
+     * Returns the index of the given time assignment in the possible time assignments of this event's class.
      * <p>
-     * Running time = O(n), where n is the number of possible time assignments for this event's class. To reduce the
-     * running time to O(1), comment the first if in the method. However, doing so will allow invalid (not included in
-     * the possible time assignments of this event's class) time assignments.
+     * Running time = O(1).
      *
-     * @param timeAssignment The time to be assigned to this event's class.
-     * @return The penalty for this time assignment. If no previous time assignment -> penalty = the penalty of this
-     * assignment, otherwise -> penalty = the penalty of this assignment - the penalty of the previous assignment.
-     * @throws IllegalArgumentException If the given time assignment is in the possible time assignments of this
-     *                                  event's class (only when the first if in this method is performed -> increasing
-     *                                  the running time from O(1) to O(n)).
+     * @param timeAssignment The time assignment, or null.
+     * @return Time index. Returns -1 if the given time assignment is null.
+     * @throws IllegalArgumentException If the given time assignment is not one of the possible time assignments of
+     *                                  this event's class.
      */
-    int setTimeAssignment(TimeAssignment timeAssignment) throws IllegalArgumentException {
-        //TODO OPTIMIZATION: For faster running time, comment the following if. However, doing so will allow invalid
-        // (not included in the possible time assignments of this event's class) time assignments.
-        if (!Arrays.asList(theClass.getPossibleTimeAssignments()).contains(timeAssignment))
+    int indexOf(TimeAssignment timeAssignment) throws IllegalArgumentException {
+        if (timeAssignment == null) return -1;
+        final int index = timeAssignment.getIndex();
+        if (index < 0 || index >= theClass.getPossibleTimeAssignments().length
+                || theClass.getPossibleTimeAssignments()[index] != timeAssignment)
             throw new IllegalArgumentException("The given time assignment does not exist in the possible time "
                     + "assignments of this event's class.");
-        // COMMENT UNTIL HERE
-
-        //If no previous time assignment -> penalty = the penalty of this assignment,
-        // otherwise -> penalty = the penalty of this assignment - the penalty of the previous assignment.
-        int penalty = this.timeAssignment == null ? timeAssignment.getPenalty() : timeAssignment.getPenalty()
-                - this.timeAssignment.getPenalty();
-        this.timeAssignment = timeAssignment;
-        return penalty;
+        return index;
     }
 
     /**
-     * Assigns a room to this event's class and returns the penalty associated with this room assignment.
-     * IMPORTANT: Some classes might not require a room to be assigned.
+     * Returns the index of the given room assignment in the possible room assignments of this event's class.
      * <p>
-     * Running time = O(n), where n is the number of possible room assignments for this event's class. To reduce the
-     * running time to O(1), comment the first if in the method. However, doing so will allow invalid (not included in
-     * the possible room assignments of this event's class) room assignments.
+     * Running time = O(1).
      *
-     * @param roomAssignment The room to be assigned to this event's class.
-     * @return The penalty for this room assignment. If no previous room assignment -> penalty = the penalty of this
-     * assignment, otherwise -> penalty = the penalty of this assignment - the penalty of the previous assignment.
-     * @throws IllegalArgumentException If the given room assignment is in the possible room assignments of this
-     *                                  event's class (only when the first if in this method is performed -> increasing
-     *                                  the running time from O(1) to O(n)).
+     * @param roomAssignment The room assignment, or null.
+     * @return Room index. Returns -1 if the given room assignment is null.
+     * @throws IllegalArgumentException If the given room assignment is not one of the possible room assignments of
+     *                                  this event's class.
      */
-    int setRoomAssignment(RoomAssignment roomAssignment) throws IllegalArgumentException {
-        //TODO OPTIMIZATION: For faster running time, comment the following if. However, doing so will allow invalid
-        // (not included in the possible room assignments of this event's class) room assignments.
-        if (!Arrays.asList(theClass.getPossibleRoomAssignments()).contains(roomAssignment))
+    int indexOf(RoomAssignment roomAssignment) throws IllegalArgumentException {
+        if (roomAssignment == null) return -1;
+        final int index = roomAssignment.getIndex();
+        if (!theClass.requiresRoom() || index < 0 || index >= theClass.getPossibleRoomAssignments().length
+                || theClass.getPossibleRoomAssignments()[index] != roomAssignment)
             throw new IllegalArgumentException("The given room assignment does not exist in the possible room "
                     + "assignments of this event's class.");
-        // COMMENT UNTIL HERE
-
-        //If no previous room assignment -> penalty = the penalty of this assignment,
-        // otherwise -> penalty = the penalty of this assignment - the penalty of the previous assignment.
-        int penalty = this.roomAssignment == null ? roomAssignment.getPenalty() : roomAssignment.getPenalty()
-                - this.roomAssignment.getPenalty();
-        this.roomAssignment = roomAssignment;
-        return penalty;
+        return index;
     }
 
     @Override
@@ -147,7 +209,7 @@ public class Event {
      *
      * @return True if this event is scheduled and false otherwise.
      */
-    boolean isScheduled() {
-        return (timeAssignment != null) && (!theClass.requiresRoom() || roomAssignment != null);
+    public boolean isScheduled() {
+        return (timeIndex != -1) && (!theClass.requiresRoom() || roomIndex != -1);
     }
 }
\ No newline at end of file
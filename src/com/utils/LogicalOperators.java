@@ -3,12 +3,14 @@ package com.utils;
 import java.util.NoSuchElementException;
 
 /**
- * This class implements some basic logical operators.
+ * This class implements some basic logical operators. Each operator is provided over boolean arrays and over bit masks
+ * (a long, or an array of longs with 64 bits per item), where the bit mask versions perform the operation word by word
+ * with bitwise operations.
  * <p>
  * Created by Sina on 17-Mar-22
  *
  * @author Sina
- * @version 0.5
+ * @version 0.6
  */
 public class LogicalOperators {
 
@@ -75,4 +77,93 @@ public class LogicalOperators {
             if (booleans[i]) return i;
         throw new NoSuchElementException("The given boolean array does not contain a true value.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks if bit masks a and b are in a mutual subset relationship. a and b are subsets if and only if
+     * ((a or b) == a) or ((a or b) == b).
+     *
+     * @param a The first bit mask.
+     * @param b The second bit mask.
+     * @return (a or b) == a or (a or b) == b
+     */
+    public static boolean areSubsets(long a, long b) {
+        final long or = a | b;
+        return or == a || or == b;
+    }
+
+    /**
+     * Checks if bit masks a and b (64 bits per item) are in a mutual subset relationship. a and b are subsets if and
+     * only if ((a or b) == a) or ((a or b) == b).
+     *
+     * @param a The first bit mask.
+     * @param b The second bit mask.
+     * @return (a or b) == a or (a or b) == b
+     * @throws IllegalArgumentException If a.length != b.length.
+     */
+    public static boolean areSubsets(long[] a, long[] b) throws IllegalArgumentException {
+        if (a.length == 1 && b.length == 1) return areSubsets(a[0], b[0]);
+        if (a.length != b.length)
+            throw new IllegalArgumentException("The two provided bit masks are of different lengths.");
+        boolean aContainsB = true, bContainsA = true;
+        for (int i = 0; i < a.length; i++) {
+            final long or = a[i] | b[i];
+            aContainsB &= or == a[i];
+            bContainsA &= or == b[i];
+        }
+        return aContainsB || bContainsA;
+    }
+
+    /**
+     * Checks if the result of performing logical and operation on the two given bit masks DOES NOT include a set bit.
+     *
+     * @param a The first bit mask.
+     * @param b The second bit mask.
+     * @return False if (a and b) != 0, and true otherwise.
+     */
+    public static boolean andIsFalse(long a, long b) {
+        return (a & b) == 0;
+    }
+
+    /**
+     * Checks if the result of performing logical and operation on the two given bit masks (64 bits per item) DOES NOT
+     * include a set bit.
+     *
+     * @param a The first bit mask.
+     * @param b The second bit mask.
+     * @return False if (a and b) != 0, and true otherwise.
+     * @throws IllegalArgumentException If a.length != b.length.
+     */
+    public static boolean andIsFalse(long[] a, long[] b) throws IllegalArgumentException {
+        if (a.length == 1 && b.length == 1) return (a[0] & b[0]) == 0;
+        if (a.length != b.length)
+            throw new IllegalArgumentException("The two provided bit masks are of different lengths.");
+        for (int i = 0; i < a.length; i++)
+            if ((a[i] & b[i]) != 0) return false;
+        return true;
+    }
+
+    /**
+     * Returns the index of the first (lowest) set bit in the given bit mask.
+     *
+     * @param bits The input bit mask.
+     * @return The index of the first set bit in the given bit mask.
+     * @throws NoSuchElementException If the given bit mask does not contain a set bit.
+     */
+    public static int firstTrueIndex(long bits) throws NoSuchElementException {
+        if (bits == 0) throw new NoSuchElementException("The given bit mask does not contain a set bit.");
+        return Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns the index of the first (lowest) set bit in the given bit mask (64 bits per item).
+     *
+     * @param bits The input bit mask.
+     * @return The index of the first set bit in the given bit mask.
+     * @throws NoSuchElementException If the given bit mask does not contain a set bit.
+     */
+    public static int firstTrueIndex(long[] bits) throws NoSuchElementException {
+        for (int i = 0; i < bits.length; i++)
+            if (bits[i] != 0) return (i << 6) + Long.numberOfTrailingZeros(bits[i]);
+        throw new NoSuchElementException("The given bit mask does not contain a set bit.");
+    }
+}
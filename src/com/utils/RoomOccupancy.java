@@ -0,0 +1,301 @@
+package com.utils;
+
+import com.dataset.Problem;
+import com.dataset.ProblemIndex;
+import com.dataset.Room;
+import com.dataset.RoomAssignment;
+import com.dataset.Time;
+import com.dataset.TimeAssignment;
+
+import java.util.Arrays;
+
+/**
+ * This class represents the occupancy of the rooms of a timetable. For each room and day of the week, the occupied
+ * timeslots of the day, combined over all the weeks, are kept as a bitmap (5 longs for the 288 timeslots of a day),
+ * where bit i is set if and only if an event assigned to the room takes timeslot i of that day in some week.
+ * Therefore, checking if a room is occupied at a time only needs a bitwise and of the bitmaps of the days of the time.
+ * A bitmap per week would make each check nrWeeks times longer, while the events of a room that share a day and a
+ * timeslot rarely differ in their weeks. The unavailable timeslots of the rooms only depend on
+ * the problem instance, so they are not kept here, but shared by all the timetables of the problem instance (see
+ * ProblemIndex.mayBeUnavailable()).
+ * <p>
+ * The bitmaps cannot tell how many events occupy a timeslot; they are used as a filter. When a time hits occupied (or
+ * unavailable) timeslots, the exact number of conflicts is counted over the events assigned to the room (or the
+ * unavailable times of the room), which are also kept for each room.
+ * <p>
+ * The occupancy is maintained by the timetable when events are assigned and unassigned (see Timetable.assign). It
+ * also keeps the total numbers of room conflicts (pairs of events in the same room at overlapping times) and room
+ * unavailability violations of the timetable up to date.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.5
+ */
+public class RoomOccupancy {
+    private static final int SET = 0, CLEAR = 1, TEST = 2;
+
+    private final Timetable timetable;
+    private final ProblemIndex index;
+    private final Room[] rooms;
+    private final int nrDays;
+    private final int words;
+    private final long[] occupied;
+    private final int[][] roomEvents;
+    private final int[] roomEventNo;
+    private int conflicts;
+    private int unavailableConflicts;
+
+    /**
+     * Constructs an empty occupancy (no events assigned) for the rooms of the problem instance of the given timetable.
+     *
+     * @param timetable The timetable.
+     */
+    RoomOccupancy(Timetable timetable) {
+        this.timetable = timetable;
+        final Problem problem = timetable.getProblem();
+        index = problem.getIndex();
+        rooms = problem.getRooms();
+        nrDays = problem.getNrDays();
+        words = (problem.getSlotsPerDay() + 63) >>> 6;
+        occupied = new long[rooms.length * nrDays * words];
+        roomEvents = new int[rooms.length][];
+        roomEventNo = new int[rooms.length];
+        for (Room room : rooms) roomEvents[room.getId() - 1] = new int[4];
+    }
+
+    /**
+     * Checks if the given room is free for the given time, which means that the room is available (not in any of its
+     * unavailable times) and no event assigned to the room takes any of the timeslots of the given time.
+     * <p>
+     * Running time = O(d + u), where d is the number of days of the given time and u is the number of unavailable times
+     * of the room (which are only checked if the time hits an unavailable timeslot).
+     *
+     * @param roomId The room id.
+     * @param time   The time.
+     * @return True if the room is free for the given time, and false otherwise.
+     */
+    public boolean isFree(int roomId, Time time) {
+        return !hits(roomId, time) && countUnavailable(roomId, time) == 0;
+    }
+
+    /**
+     * Checks if the given room is available for the given time, which means that the given time does not overlap with
+     * any of the unavailable times of the room (regardless of the events assigned to the room).
+     *
+     * @param roomId The room id.
+     * @param time   The time.
+     * @return True if the room is available for the given time, and false otherwise.
+     */
+    public boolean isAvailable(int roomId, Time time) {
+        return countUnavailable(roomId, time) == 0;
+    }
+
+    /**
+     * Counts the room conflicts that an event placed in the given room at the given time would have, which are the
+     * unavailable times of the room and the other events assigned to the room that overlap with the given time. The
+     * given event itself (e.g., the event being moved) is not counted. If the bitmaps show no overlap, the count is 0
+     * without looking at any event.
+     *
+     * @param roomId The room id.
+     * @param time   The time.
+     * @param event  The event to be ignored, or null.
+     * @return The number of room conflicts.
+     */
+    public int countConflicts(int roomId, Time time, Event event) {
+        return countUnavailable(roomId, time) + countEventConflicts(roomId, time, event);
+    }
+
+    /**
+     * Returns the total number of room conflicts (pairs of events in the same room at overlapping times) of the
+     * timetable.
+     * <p>
+     * Running time = O(1).
+     *
+     * @return Room conflicts.
+     */
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Returns the total number of room unavailability violations ((event, unavailable time of its room) pairs that
+     * overlap) of the timetable.
+     * <p>
+     * Running time = O(1).
+     *
+     * @return Room unavailability violations.
+     */
+    public int getUnavailableConflicts() {
+        return unavailableConflicts;
+    }
+
+    /**
+     * Returns the number of events assigned to the given room.
+     *
+     * @param roomId The room id.
+     * @return The number of events in the room.
+     */
+    public int getEventCount(int roomId) {
+        return roomEventNo[roomId - 1];
+    }
+
+    /**
+     * Returns the class id of the i-th event assigned to the given room.
+     *
+     * @param roomId The room id.
+     * @param i      The index of the event (0 ≤ i < getEventCount(roomId)).
+     * @return Class id.
+     * @throws IndexOutOfBoundsException If i is out of bounds.
+     */
+    public int getClassId(int roomId, int i) throws IndexOutOfBoundsException {
+        if (i < 0 || i >= roomEventNo[roomId - 1]) throw new IndexOutOfBoundsException("Invalid index: " + i);
+        return roomEvents[roomId - 1][i];
+    }
+
+    @Override
+    public String toString() {
+        return "RoomOccupancy{" + "rooms=" + rooms.length + ", events=" + Arrays.stream(roomEventNo).sum()
+                + ", conflicts=" + conflicts + ", unavailableConflicts=" + unavailableConflicts + '}';
+    }
+
+    /**
+     * Adds the given event (with its current time and room) to the occupancy. Events without a time or a room are
+     * ignored.
+     *
+     * @param event The event.
+     */
+    void add(Event event) {
+        final TimeAssignment timeAssignment = event.getTimeAssignment();
+        final RoomAssignment roomAssignment = event.getRoomAssignment();
+        if (timeAssignment == null || roomAssignment == null) return;
+        final int roomId = roomAssignment.getRoom().getId(), n = roomEventNo[roomId - 1];
+        unavailableConflicts += countUnavailable(roomId, timeAssignment.getTime());
+        conflicts += countEventConflicts(roomId, timeAssignment.getTime(), event);
+        if (n == roomEvents[roomId - 1].length) roomEvents[roomId - 1] = Arrays.copyOf(roomEvents[roomId - 1], n * 2);
+        roomEvents[roomId - 1][n] = event.getTheClass().getId();
+        roomEventNo[roomId - 1]++;
+        mark(roomId, timeAssignment.getTime());
+    }
+
+    /**
+     * Removes the given event (with its current time and room) from the occupancy. The bitmaps of the days of the time
+     * of the event are rebuilt from the remaining events of the room, since other events may share some of the
+     * timeslots. Events without a time or a room are ignored.
+     *
+     * @param event The event.
+     */
+    void remove(Event event) {
+        final TimeAssignment timeAssignment = event.getTimeAssignment();
+        final RoomAssignment roomAssignment = event.getRoomAssignment();
+        if (timeAssignment == null || roomAssignment == null) return;
+        final int roomId = roomAssignment.getRoom().getId(), classId = event.getTheClass().getId();
+        unavailableConflicts -= countUnavailable(roomId, timeAssignment.getTime());
+        conflicts -= countEventConflicts(roomId, timeAssignment.getTime(), event);
+        final int[] classIds = roomEvents[roomId - 1];
+        final int n = roomEventNo[roomId - 1];
+        for (int i = 0; i < n; i++)
+            if (classIds[i] == classId) {
+                classIds[i] = classIds[n - 1];
+                roomEventNo[roomId - 1]--;
+                break;
+            }
+        final long days = timeAssignment.getTime().getDaysMask();
+        apply(roomId, timeAssignment.getTime(), days, CLEAR);
+        Time other;
+        for (int i = roomEventNo[roomId - 1] - 1; i >= 0; i--) {
+            other = timetable.getEvent(classIds[i]).getTimeAssignment().getTime();
+            if ((other.getDaysMask() & days) != 0) apply(roomId, other, other.getDaysMask() & days, SET);
+        }
+    }
+
+    /**
+     * Counts the unavailable times of the given room that overlap with the given time.
+     *
+     * @param roomId The room id.
+     * @param time   The time.
+     * @return The number of room unavailability violations.
+     */
+    private int countUnavailable(int roomId, Time time) {
+        int count = 0;
+        if (index.mayBeUnavailable(roomId, time))
+            for (Time unavailableTime : rooms[roomId - 1].getUnavailable())
+                if (time.overlaps(unavailableTime, 0)) count++;
+        return count;
+    }
+
+    /**
+     * Counts the events assigned to the given room (other than the given event) that overlap with the given time.
+     *
+     * @param roomId The room id.
+     * @param time   The time.
+     * @param event  The event to be ignored, or null.
+     * @return The number of room conflicts.
+     */
+    private int countEventConflicts(int roomId, Time time, Event event) {
+        int count = 0;
+        if (hits(roomId, time)) {
+            final int[] classIds = roomEvents[roomId - 1];
+            Event other;
+            for (int i = roomEventNo[roomId - 1] - 1; i >= 0; i--) {
+                other = timetable.getEvent(classIds[i]);
+                if (other != event && time.overlaps(other.getTimeAssignment().getTime(), 0)) count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sets the timeslots of the given time in the bitmaps of the given room.
+     *
+     * @param roomId The room id.
+     * @param time   The time.
+     */
+    private void mark(int roomId, Time time) {
+        apply(roomId, time, time.getDaysMask(), SET);
+    }
+
+    /**
+     * Checks if any of the timeslots of the given time is set in the bitmaps of the given room.
+     *
+     * @param roomId The room id.
+     * @param time   The time.
+     * @return True if any timeslot of the given time is set, and false otherwise.
+     */
+    private boolean hits(int roomId, Time time) {
+        return apply(roomId, time, time.getDaysMask(), TEST);
+    }
+
+    /**
+     * Applies the given operation to the timeslots of the given time in the bitmaps of the given room, for each of the
+     * given days:
+     * <p>
+     * SET: sets the timeslots of the time;
+     * <p>
+     * CLEAR: clears the whole day bitmaps;
+     * <p>
+     * TEST: checks if any of the timeslots of the time is set (and stops at the first one).
+     *
+     * @param roomId    The room id.
+     * @param time      The time.
+     * @param days      The days mask (the days of the time, or some of them).
+     * @param operation SET, CLEAR, or TEST.
+     * @return True if the operation is TEST and a timeslot of the time is set, and false otherwise.
+     */
+    private boolean apply(int roomId, Time time, long days, int operation) {
+        if (time.getLength() == 0) return false;
+        final int first = time.getStart() >>> 6, last = Math.min((time.getEnd() - 1) >>> 6, words - 1);
+        int day, offset;
+        for (long d = days; d != 0; d &= d - 1) {
+            day = Long.numberOfTrailingZeros(d);
+            if (day >= nrDays) break;
+            offset = ((roomId - 1) * nrDays + day) * words;
+            if (operation == CLEAR) Arrays.fill(occupied, offset, offset + words, 0);
+            else
+                for (int word = first; word <= last; word++)
+                    if (operation == SET) occupied[offset + word] |= time.getSlotMask(word);
+                    else if ((occupied[offset + word] & time.getSlotMask(word)) != 0) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,311 @@
+package com.utils;
+
+import com.dataset.Problem;
+import com.dataset.RoomAssignment;
+import com.dataset.Time;
+import com.dataset.TimeAssignment;
+import com.dataset.TravelTime;
+import com.dataset.constraints.DistributionConstraint;
+import com.dataset.constraints.HardConstraint;
+import com.dataset.constraints.SoftConstraint;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class evaluates a whole timetable from scratch against every hard and soft distribution constraint, room, and
+ * student of its problem instance (see Evaluation), either sequentially or in parallel on a ForkJoinPool.
+ * <p>
+ * The work is a list of items in a fixed order: the hard constraints, the soft constraints, the rooms, the students,
+ * and the events. Each item has a cost estimate (the square of the number of classes of a constraint, of the events
+ * of a room, or of the events of a student, and 1 for an event). The parallel evaluation splits the list into
+ * contiguous ranges of about the same cost, evaluates the ranges as fork/join tasks, and adds up the partial components
+ * of the ranges in list order. All the components are integer sums, so the parallel result is always identical to the
+ * sequential one.
+ * <p>
+ * The timetable is only read, so it must not be changed while it is being evaluated. Unscheduled events are counted
+ * and otherwise ignored (the constraints are evaluated over the scheduled events only).
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class SolutionEvaluator {
+    private static final int TASKS_PER_THREAD = 8;
+
+    private SolutionEvaluator() {
+    }
+
+    /**
+     * Evaluates the given timetable on the calling thread.
+     *
+     * @param timetable The timetable.
+     * @return Evaluation.
+     */
+    public static Evaluation evaluate(Timetable timetable) {
+        Items items = new Items(timetable);
+        return new Evaluation(timetable.getProblem(), items.evaluate(0, items.size()));
+    }
+
+    /**
+     * Evaluates the given timetable in parallel on the common ForkJoinPool.
+     *
+     * @param timetable The timetable.
+     * @return Evaluation, identical to evaluate(timetable).
+     */
+    public static Evaluation evaluateParallel(Timetable timetable) {
+        return evaluateParallel(timetable, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evaluates the given timetable in parallel on the given ForkJoinPool.
+     *
+     * @param timetable The timetable.
+     * @param pool      The pool that runs the evaluation tasks.
+     * @return Evaluation, identical to evaluate(timetable).
+     */
+    public static Evaluation evaluateParallel(Timetable timetable, ForkJoinPool pool) {
+        Items items = new Items(timetable);
+        final long grain = Math.max(items.cost(0, items.size()) / ((long) pool.getParallelism() * TASKS_PER_THREAD), 1);
+        return new Evaluation(timetable.getProblem(), pool.invoke(new Task(items, 0, items.size(), grain)));
+    }
+
+    /**
+     * This class represents a range of work items that is evaluated as a fork/join task: it is split in two halves of
+     * about the same cost until its cost is below the grain.
+     */
+    private static class Task extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Items items;
+        private final int from, to;
+        private final long grain;
+
+        /**
+         * Constructs a task over the items from..to - 1.
+         *
+         * @param items The work items.
+         * @param from  The first item (inclusive).
+         * @param to    The last item (exclusive).
+         * @param grain The cost below which the range is evaluated sequentially.
+         */
+        Task(Items items, int from, int to, long grain) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from < 2 || items.cost(from, to) <= grain) return items.evaluate(from, to);
+            final int middle = items.split(from, to);
+            Task left = new Task(items, from, middle, grain);
+            left.fork();
+            int[] components = new Task(items, middle, to, grain).compute();
+            final int[] leftComponents = left.join();
+            for (int i = 0; i < components.length; i++) components[i] = leftComponents[i] + components[i];
+            return components;
+        }
+    }
+
+    /**
+     * This class represents the work items of the evaluation of a timetable and their cost estimates.
+     */
+    private static class Items {
+        private final Timetable timetable;
+        private final Problem problem;
+        private final HardConstraint[] hardConstraints;
+        private final SoftConstraint[] softConstraints;
+        private final int rooms, students, events;
+        private final long[] costs;
+
+        /**
+         * Lists the work items of the given timetable and computes the prefix sums of their costs.
+         *
+         * @param timetable The timetable.
+         */
+        Items(Timetable timetable) {
+            this.timetable = timetable;
+            problem = timetable.getProblem();
+            hardConstraints = problem.getHardConstraints();
+            softConstraints = problem.getSoftConstraints();
+            rooms = problem.getRooms().length;
+            students = problem.getStudents().length;
+            events = problem.getClasses().length;
+            costs = new long[size() + 1];
+            int item = 0;
+            for (HardConstraint constraint : hardConstraints) add(item++, square(constraint.getConstraint()));
+            for (SoftConstraint constraint : softConstraints) add(item++, square(constraint.getConstraint()));
+            for (int i = 1; i <= rooms; i++) add(item++, square(timetable.getRoomOccupancy().getEventCount(i)));
+            for (int i = 1; i <= students; i++) add(item++, square(timetable.getStudentSchedules().getEventCount(i)));
+            for (int i = 0; i < events; i++) add(item++, 1);
+        }
+
+        /**
+         * Returns the number of work items.
+         *
+         * @return Size.
+         */
+        int size() {
+            return hardConstraints.length + softConstraints.length + rooms + students + events;
+        }
+
+        /**
+         * Returns the total cost of the items from..to - 1.
+         *
+         * @param from The first item (inclusive).
+         * @param to   The last item (exclusive).
+         * @return Cost.
+         */
+        long cost(int from, int to) {
+            return costs[to] - costs[from];
+        }
+
+        /**
+         * Returns the item that splits the items from..to - 1 into two ranges of about the same cost.
+         *
+         * @param from The first item (inclusive).
+         * @param to   The last item (exclusive, to - from ≥ 2).
+         * @return The first item of the second range (from < result < to).
+         */
+        int split(int from, int to) {
+            final long half = costs[from] + cost(from, to) / 2;
+            int low = from + 1, high = to - 1, middle;
+            while (low < high) {
+                middle = (low + high) >>> 1;
+                if (costs[middle] < half) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+
+        /**
+         * Evaluates the items from..to - 1.
+         *
+         * @param from The first item (inclusive).
+         * @param to   The last item (exclusive).
+         * @return The components of the evaluation of the items (see Evaluation).
+         */
+        int[] evaluate(int from, int to) {
+            int[] components = new int[Evaluation.COMPONENTS];
+            int item = from, end;
+            end = Math.min(to, hardConstraints.length);
+            for (; item < end; item++)
+                components[Evaluation.DISTRIBUTION_HARD] += hardConstraints[item].getConstraint()
+                        .scheduledViolationCount(timetable);
+            int offset = hardConstraints.length;
+            end = Math.min(to, offset + softConstraints.length);
+            for (SoftConstraint constraint; item < end; item++) {
+                constraint = softConstraints[item - offset];
+                components[Evaluation.DISTRIBUTION_PENALTY] += constraint.calcPenalty(
+                        constraint.getConstraint().scheduledViolationCount(timetable), problem.getNrWeeks());
+            }
+            offset += softConstraints.length;
+            end = Math.min(to, offset + rooms);
+            for (; item < end; item++) evaluateRoom(item - offset + 1, components);
+            offset += rooms;
+            end = Math.min(to, offset + students);
+            for (; item < end; item++)
+                components[Evaluation.STUDENT_CONFLICTS] += countStudentConflicts(item - offset + 1);
+            offset += students;
+            for (; item < to; item++) evaluateEvent(item - offset + 1, components);
+            return components;
+        }
+
+        /**
+         * Adds the room conflicts and the room unavailability violations of the given room to the given components.
+         *
+         * @param roomId     The room id.
+         * @param components The components.
+         */
+        private void evaluateRoom(int roomId, int[] components) {
+            final RoomOccupancy occupancy = timetable.getRoomOccupancy();
+            final Time[] unavailable = problem.getRooms()[roomId - 1].getUnavailable();
+            final int n = occupancy.getEventCount(roomId);
+            Time time;
+            for (int i = 0; i < n; i++) {
+                time = timetable.getEvent(occupancy.getClassId(roomId, i)).getTimeAssignment().getTime();
+                for (Time unavailableTime : unavailable)
+                    if (time.overlaps(unavailableTime, 0)) components[Evaluation.ROOM_UNAVAILABLE]++;
+                for (int j = i + 1; j < n; j++)
+                    if (time.overlaps(timetable.getEvent(occupancy.getClassId(roomId, j)).getTimeAssignment()
+                            .getTime(), 0)) components[Evaluation.ROOM_CONFLICTS]++;
+            }
+        }
+
+        /**
+         * Counts the conflicts of the given student, which are the pairs of the scheduled events of the student that
+         * overlap or do not leave enough time to travel between their rooms.
+         *
+         * @param studentId The student id.
+         * @return Student conflicts.
+         */
+        private int countStudentConflicts(int studentId) {
+            final StudentSchedules schedules = timetable.getStudentSchedules();
+            final TravelTime travelTime = problem.getTravelTime();
+            final int n = schedules.getEventCount(studentId);
+            int count = 0, travel;
+            Event e1, e2;
+            for (int i = 0; i < n - 1; i++) {
+                e1 = timetable.getEvent(schedules.getClassId(studentId, i));
+                if (e1.getTimeAssignment() == null) continue;
+                for (int j = i + 1; j < n; j++) {
+                    e2 = timetable.getEvent(schedules.getClassId(studentId, j));
+                    if (e2.getTimeAssignment() == null) continue;
+                    travel = e1.getRoomAssignment() == null || e2.getRoomAssignment() == null ? 0
+                            : travelTime.getTravelTime(e1.getRoomAssignment().getRoom().getId(),
+                            e2.getRoomAssignment().getRoom().getId());
+                    if (e1.getTimeAssignment().getTime().overlaps(e2.getTimeAssignment().getTime(), travel)) count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Adds the time and room penalties of the given event (or 1 unscheduled event) to the given components.
+         *
+         * @param classId    The class id of the event.
+         * @param components The components.
+         */
+        private void evaluateEvent(int classId, int[] components) {
+            final Event event = timetable.getEvent(classId);
+            final TimeAssignment timeAssignment = event.getTimeAssignment();
+            final RoomAssignment roomAssignment = event.getRoomAssignment();
+            if (!event.isScheduled()) components[Evaluation.UNSCHEDULED]++;
+            if (timeAssignment != null) components[Evaluation.TIME_PENALTY] += timeAssignment.getPenalty();
+            if (roomAssignment != null) components[Evaluation.ROOM_PENALTY] += roomAssignment.getPenalty();
+        }
+
+        /**
+         * Sets the cost of the given item.
+         *
+         * @param item The item.
+         * @param cost The cost estimate of the item.
+         */
+        private void add(int item, long cost) {
+            costs[item + 1] = costs[item] + cost;
+        }
+
+        /**
+         * Returns the cost estimate of the given constraint (the square of its number of classes).
+         *
+         * @param constraint The distribution constraint.
+         * @return Cost.
+         */
+        private static long square(DistributionConstraint constraint) {
+            return square(constraint.getClasses().length);
+        }
+
+        /**
+         * Returns the square of the given number (at least 1, so every item has a cost).
+         *
+         * @param n The number.
+         * @return max(n², 1).
+         */
+        private static long square(int n) {
+            return Math.max((long) n * n, 1);
+        }
+    }
+}
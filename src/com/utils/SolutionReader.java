@@ -0,0 +1,248 @@
+package com.utils;
+
+import com.dataset.Problem;
+import com.dataset.RoomAssignment;
+import com.dataset.Time;
+import com.dataset.TimeAssignment;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * This class reads a solution of a problem instance of the ITC 2019 dataset from its XML file into a timetable. The
+ * file is read in a single pass with a streaming (StAX) parser, as ProblemLoader does for the problem instance.
+ * <p>
+ * A class of the solution is given by its days, start, and weeks (and its room, if it requires one), and is matched
+ * against the possible times and rooms of the class in the problem instance. The students of a class are enrolled in
+ * it. Unlike the problem instance, a solution is not rejected for invalid content: every class, time, room, or student
+ * that cannot be matched is skipped and reported as an error (see getErrors()), so the rest of the solution can still
+ * be evaluated, as the ITC 2019 validator does.
+ * <p>
+ * The solutions written by SolutionWriter are read back into the same times, rooms, and students, so a saved solution
+ * can be used to warm-start a search (it can be copied into an existing timetable through CompactTimetable).
+ * <p>
+ * IMPORTANT: A solution does not give the length (or the penalty) of the time of a class. If two possible times of a
+ * class have the same days, start, and weeks and differ only in length or penalty, they cannot be told apart, and the
+ * first one of them (in the order of the problem instance) is taken. Therefore, a solution that uses another one of
+ * them is read back with a different time, and its evaluation may differ.
+ * <p>
+ * A reader belongs to the problem instance it was created for and can read any number of solutions of it. It is not
+ * thread-safe.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.3
+ */
+public class SolutionReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Problem problem;
+    private final XMLInputFactory factory;
+    private final LinkedHashMap<String, String> attributes = new LinkedHashMap<>();
+    private final ArrayList<String> errors = new ArrayList<>();
+
+    /**
+     * Constructs a solution reader for the given problem instance.
+     *
+     * @param problem The problem instance.
+     */
+    public SolutionReader(Problem problem) {
+        this.problem = problem;
+        factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    }
+
+    /**
+     * Reads the solution from the given XML file.
+     *
+     * @param file The path to the solution XML file.
+     * @return The timetable of the solution.
+     * @throws IOException              If the file cannot be read.
+     * @throws XMLStreamException       If the file is not a well-formed XML file.
+     * @throws IllegalArgumentException If the file does not contain a solution element.
+     */
+    public Timetable read(Path file) throws IOException, XMLStreamException, IllegalArgumentException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads the solution from the given XML input stream. The stream is not closed by this method.
+     *
+     * @param in The input stream of the solution XML.
+     * @return The timetable of the solution.
+     * @throws XMLStreamException       If the stream is not a well-formed XML.
+     * @throws IllegalArgumentException If the stream does not contain a solution element.
+     */
+    public Timetable read(InputStream in) throws XMLStreamException, IllegalArgumentException {
+        attributes.clear();
+        errors.clear();
+        Timetable timetable = new Timetable(problem);
+        boolean[] read = new boolean[problem.getClasses().length];
+        XMLStreamReader reader = factory.createXMLStreamReader(in);
+        try {
+            boolean solution = false;
+            int classId = 0;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+                switch (reader.getLocalName()) {
+                    case "solution":
+                        solution = true;
+                        for (int i = 0; i < reader.getAttributeCount(); i++)
+                            attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                        break;
+                    case "class":
+                        classId = readClass(reader, timetable, read);
+                        break;
+                    case "student":
+                        if (classId > 0) readStudent(reader, timetable, classId);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (!solution) throw new IllegalArgumentException("The given XML does not contain a solution element.");
+            for (int i = 0; i < read.length; i++)
+                if (!read[i]) errors.add("Class " + (i + 1) + " is missing in the solution.");
+            return timetable;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns the attributes of the solution element of the last read solution (name, runtime, cores, technique,
+     * author, institution, country), in their order in the file.
+     *
+     * @return Solution attributes.
+     */
+    public LinkedHashMap<String, String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns the errors of the last read solution (missing, duplicate, or unknown classes, and times, rooms, or
+     * students that cannot be matched).
+     *
+     * @return Errors.
+     */
+    public ArrayList<String> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return "SolutionReader{" + "problem=" + problem.getName() + ", attributes=" + attributes + ", errors="
+                + errors.size() + '}';
+    }
+
+    /**
+     * Reads a class element and assigns its time and room in the given timetable.
+     *
+     * @param reader    The XML reader positioned on a class element.
+     * @param timetable The timetable.
+     * @param read      The classes read so far, indexed by (id - 1).
+     * @return The class id, or 0 if the class is skipped (its students are skipped too).
+     */
+    private int readClass(XMLStreamReader reader, Timetable timetable, boolean[] read) {
+        final int classId = intAttribute(reader, "id");
+        if (classId < 1 || classId > read.length) {
+            errors.add("Unknown class id: " + classId + '.');
+            return 0;
+        }
+        if (read[classId - 1]) {
+            errors.add("Class " + classId + " is listed more than once.");
+            return 0;
+        }
+        read[classId - 1] = true;
+        final com.dataset.Class aClass = problem.getClassById(classId);
+        final String days = reader.getAttributeValue(null, "days"), weeks = reader.getAttributeValue(null, "weeks");
+        final int start = intAttribute(reader, "start");
+        int timeIndex = -1;
+        final TimeAssignment[] times = aClass.getPossibleTimeAssignments();
+        for (int i = 0; i < times.length && timeIndex < 0; i++)
+            if (matches(times[i].getTime(), days, start, weeks)) timeIndex = i;
+        if (timeIndex < 0)
+            errors.add("Class " + classId + " has no possible time with days " + days + ", start " + start
+                    + ", and weeks " + weeks + '.');
+        int roomIndex = -1;
+        final int roomId = intAttribute(reader, "room");
+        if (aClass.requiresRoom()) {
+            final RoomAssignment[] rooms = aClass.getPossibleRoomAssignments();
+            for (int i = 0; i < rooms.length && roomIndex < 0; i++)
+                if (rooms[i].getRoom().getId() == roomId) roomIndex = i;
+            if (roomIndex < 0)
+                errors.add("Class " + classId + " has no possible room with id " + roomId + '.');
+        } else if (roomId != 0) errors.add("Class " + classId + " does not require a room, but room " + roomId
+                + " is assigned.");
+        timetable.assign(classId, timeIndex, roomIndex);
+        return classId;
+    }
+
+    /**
+     * Reads a student element and enrolls the student in the given class.
+     *
+     * @param reader    The XML reader positioned on a student element.
+     * @param timetable The timetable.
+     * @param classId   The id of the class that the student element belongs to.
+     */
+    private void readStudent(XMLStreamReader reader, Timetable timetable, int classId) {
+        final int studentId = intAttribute(reader, "id");
+        if (studentId < 1 || studentId > problem.getStudents().length)
+            errors.add("Class " + classId + " has an unknown student id: " + studentId + '.');
+        else if (timetable.getStudentSchedules().isEnrolled(studentId, classId))
+            errors.add("Student " + studentId + " is listed more than once in class " + classId + '.');
+        else timetable.enroll(classId, studentId);
+    }
+
+    /**
+     * Checks if the given time has the given days bit string, start, and weeks bit string.
+     *
+     * @param time  The time.
+     * @param days  The days bit string, or null.
+     * @param start The starting timeslot.
+     * @param weeks The weeks bit string, or null.
+     * @return True if the time matches, and false otherwise.
+     */
+    private static boolean matches(Time time, String days, int start, String weeks) {
+        if (days == null || weeks == null || time.getStart() != start || days.length() != time.getDaysLength()
+                || weeks.length() != time.getWeeksLength()) return false;
+        for (int i = 0; i < days.length(); i++)
+            if ((days.charAt(i) == '1') != time.hasDay(i)) return false;
+        for (int i = 0; i < weeks.length(); i++)
+            if ((weeks.charAt(i) == '1') != time.hasWeek(i)) return false;
+        return true;
+    }
+
+    /**
+     * Returns the value of the given int attribute of the current element.
+     *
+     * @param reader The XML reader positioned on a start element.
+     * @param name   The attribute name.
+     * @return The attribute value, or 0 if it is missing.
+     * @throws IllegalArgumentException If the attribute is not an int.
+     */
+    private static int intAttribute(XMLStreamReader reader, String name) throws IllegalArgumentException {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null) return 0;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid attribute " + name + " in element " + reader.getLocalName()
+                    + ": " + value, e);
+        }
+    }
+}
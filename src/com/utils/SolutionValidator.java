@@ -0,0 +1,292 @@
+package com.utils;
+
+import com.dataset.Config;
+import com.dataset.Course;
+import com.dataset.Problem;
+import com.dataset.ProblemIndex;
+import com.dataset.ProblemLoader;
+import com.dataset.Student;
+import com.dataset.Subpart;
+import com.dataset.constraints.DistributionConstraint;
+import com.dataset.constraints.HardConstraint;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * This class validates solutions of a problem instance of the ITC 2019 dataset offline, as the ITC 2019 online
+ * validator does. A solution XML is read into a timetable (see SolutionReader), and the timetable is evaluated from
+ * scratch (see SolutionEvaluator), so the report does not depend on the incremental evaluation that the timetable keeps
+ * while it is read (see Timetable.getEvaluation()). Any mismatch between the two evaluations is reported as an error.
+ * The violations of each hard distribution constraint are reported one by one (see
+ * DistributionConstraint.visitViolations()), and then the hard constraints that are not part of the evaluation are
+ * checked:
+ * <p>
+ * 1) Class limits: no class may have more students than its limit;
+ * <p>
+ * 2) Course structure: each student must attend exactly one config of each of their courses, exactly one class of each
+ * subpart of that config, and the parent class of each of their classes, and no class of other courses.
+ * <p>
+ * A validator belongs to the problem instance it was created for, which is loaded once and used for any number of
+ * solutions, so batches of candidates are validated without reloading the problem instance. It is not thread-safe;
+ * use one validator per thread.
+ * <p>
+ * Usage: java com.utils.SolutionValidator problem.xml solution1.xml [solution2.xml ...] writes one JSON report (see
+ * ValidationReport.toJson()) per solution and line to the standard output.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.2
+ */
+public class SolutionValidator {
+    private final Problem problem;
+    private final SolutionReader reader;
+    private final Config[] classConfigs;
+    private final Subpart[] classSubparts;
+
+    /**
+     * Constructs a validator for the given problem instance.
+     *
+     * @param problem The problem instance.
+     */
+    public SolutionValidator(Problem problem) {
+        this.problem = problem;
+        reader = new SolutionReader(problem);
+        final int classNo = problem.getClasses().length;
+        classConfigs = new Config[classNo];
+        classSubparts = new Subpart[classNo];
+        for (Course course : problem.getCourses())
+            for (Config config : course.getConfigurations())
+                for (Subpart subpart : config.getSubparts())
+                    for (com.dataset.Class aClass : subpart.getClasses()) {
+                        classConfigs[aClass.getId() - 1] = config;
+                        classSubparts[aClass.getId() - 1] = subpart;
+                    }
+    }
+
+    /**
+     * Reads and validates the solution in the given XML file.
+     *
+     * @param file The path to the solution XML file.
+     * @return Validation report.
+     * @throws IOException              If the file cannot be read.
+     * @throws XMLStreamException       If the file is not a well-formed XML file.
+     * @throws IllegalArgumentException If the file does not contain a solution element.
+     */
+    public ValidationReport validate(Path file) throws IOException, XMLStreamException, IllegalArgumentException {
+        final long start = System.nanoTime();
+        return validate(reader.read(file), start);
+    }
+
+    /**
+     * Reads and validates the solution in the given XML input stream. The stream is not closed by this method.
+     *
+     * @param in The input stream of the solution XML.
+     * @return Validation report.
+     * @throws XMLStreamException       If the stream is not a well-formed XML.
+     * @throws IllegalArgumentException If the stream does not contain a solution element.
+     */
+    public ValidationReport validate(InputStream in) throws XMLStreamException, IllegalArgumentException {
+        final long start = System.nanoTime();
+        return validate(reader.read(in), start);
+    }
+
+    /**
+     * Validates the given timetable (e.g., a solution found by a solver before it is written).
+     *
+     * @param timetable The timetable.
+     * @return Validation report.
+     * @throws IllegalArgumentException If the given timetable belongs to a different problem instance.
+     */
+    public ValidationReport validate(Timetable timetable) throws IllegalArgumentException {
+        if (timetable.getProblem() != problem)
+            throw new IllegalArgumentException("The given timetable belongs to a different problem instance.");
+        return validate(timetable, new LinkedHashMap<>(), new ArrayList<>(), System.nanoTime());
+    }
+
+    @Override
+    public String toString() {
+        return "SolutionValidator{" + "problem=" + problem.getName() + '}';
+    }
+
+    /**
+     * Validates the timetable that was just read by the reader of this validator.
+     *
+     * @param timetable The timetable.
+     * @param start     The start time of the validation (System.nanoTime()).
+     * @return Validation report.
+     */
+    private ValidationReport validate(Timetable timetable, long start) {
+        ArrayList<String> errors = new ArrayList<>(reader.getErrors());
+        final String name = reader.getAttributes().get("name");
+        if (!problem.getName().equals(name))
+            errors.add("The solution name " + name + " does not match the problem instance name " + problem.getName()
+                    + '.');
+        return validate(timetable, new LinkedHashMap<>(reader.getAttributes()), errors, start);
+    }
+
+    /**
+     * Validates the given timetable and builds its report.
+     *
+     * @param timetable  The timetable.
+     * @param attributes The attributes of the solution element.
+     * @param errors     The errors found so far, to which the errors of the validation are added.
+     * @param start      The start time of the validation (System.nanoTime()).
+     * @return Validation report.
+     */
+    private ValidationReport validate(Timetable timetable, LinkedHashMap<String, String> attributes,
+                                      ArrayList<String> errors, long start) {
+        final Evaluation evaluation = SolutionEvaluator.evaluate(timetable);
+        if (!evaluation.equals(timetable.getEvaluation()))
+            errors.add("The incremental evaluation " + timetable.getEvaluation()
+                    + " does not match the evaluation from scratch " + evaluation + '.');
+        final HardConstraint[] hardConstraints = problem.getHardConstraints();
+        for (int i = 0; i < hardConstraints.length; i++)
+            checkHardConstraint(timetable, i, evaluation.getUnscheduled() == 0, errors);
+        if (evaluation.getRoomConflicts() > 0)
+            errors.add("There are " + evaluation.getRoomConflicts() + " room conflict(s).");
+        if (evaluation.getRoomUnavailable() > 0)
+            errors.add("There are " + evaluation.getRoomUnavailable() + " room unavailability violation(s).");
+        int classLimitViolations = 0;
+        for (Event event : timetable.getEvents())
+            if (event.getStudents().size() > event.getTheClass().getLimit()) {
+                classLimitViolations++;
+                errors.add("Class " + event.getTheClass().getId() + " has " + event.getStudents().size()
+                        + " students, but its limit is " + event.getTheClass().getLimit() + '.');
+            }
+        int enrollmentViolations = 0;
+        for (Student student : problem.getStudents())
+            enrollmentViolations += checkEnrollments(timetable, student, errors);
+        return new ValidationReport(problem.getName(), attributes, evaluation, classLimitViolations,
+                enrollmentViolations, errors, System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the violations of the given hard constraint from scratch and adds an error for the constraint and, if the
+     * timetable is fully scheduled, for each of its violations. A mismatch with the violation count that the timetable
+     * keeps incrementally (see Timetable.getHardViolationCount()) is reported as an error, too.
+     *
+     * @param timetable The timetable.
+     * @param i         The index of the hard constraint.
+     * @param scheduled True if all the events of the timetable are scheduled.
+     * @param errors    The errors.
+     */
+    private void checkHardConstraint(Timetable timetable, int i, boolean scheduled, ArrayList<String> errors) {
+        final DistributionConstraint constraint = problem.getHardConstraints()[i].getConstraint();
+        final int count = constraint.scheduledViolationCount(timetable);
+        if (count != timetable.getHardViolationCount(i))
+            errors.add("The incremental evaluation counts " + timetable.getHardViolationCount(i)
+                    + " violation(s) of hard constraint " + (i + 1) + ", but it has " + count + '.');
+        if (count == 0) return;
+        final String name = "Hard constraint " + (i + 1) + " (" + constraint.getType() + ')';
+        errors.add(name + " has " + count + " violation(s).");
+        if (scheduled)
+            constraint.visitViolations(timetable, (violated, classId1, classId2) -> {
+                if (classId1 != 0)
+                    errors.add(name + " is violated by classes " + classId1 + " and " + classId2 + '.');
+                return true;
+            });
+    }
+
+    /**
+     * Checks the enrollments of the given student against the course structure and adds an error for each violation.
+     *
+     * @param timetable The timetable.
+     * @param student   The student.
+     * @param errors    The errors.
+     * @return The number of enrollment violations of the student.
+     */
+    private int checkEnrollments(Timetable timetable, Student student, ArrayList<String> errors) {
+        final StudentSchedules schedules = timetable.getStudentSchedules();
+        final ProblemIndex index = problem.getIndex();
+        final int studentId = student.getId(), n = schedules.getEventCount(studentId);
+        int violations = 0, classId;
+        for (int i = 0; i < n; i++) {
+            classId = schedules.getClassId(studentId, i);
+            if (!hasCourse(student, index.getCourse(classId))) {
+                violations++;
+                errors.add("Student " + studentId + " is enrolled in class " + classId + " of course "
+                        + index.getCourse(classId) + ", which they do not need.");
+            } else if (index.getParent(classId) != 0 && !schedules.isEnrolled(studentId, index.getParent(classId))) {
+                violations++;
+                errors.add("Student " + studentId + " is enrolled in class " + classId
+                        + ", but not in its parent class " + index.getParent(classId) + '.');
+            }
+        }
+        for (Course course : student.getCourses()) {
+            Config config = null;
+            boolean mixed = false;
+            for (int i = 0; i < n; i++) {
+                classId = schedules.getClassId(studentId, i);
+                if (index.getCourse(classId) != course.getId()) continue;
+                if (config == null) config = classConfigs[classId - 1];
+                else if (config != classConfigs[classId - 1]) mixed = true;
+            }
+            if (config == null) {
+                violations++;
+                errors.add("Student " + studentId + " is not enrolled in course " + course.getId() + '.');
+            } else if (mixed) {
+                violations++;
+                errors.add("Student " + studentId + " is enrolled in more than one config of course " + course.getId()
+                        + '.');
+            } else
+                for (Subpart subpart : config.getSubparts()) {
+                    int count = 0;
+                    for (int i = 0; i < n; i++)
+                        if (classSubparts[schedules.getClassId(studentId, i) - 1] == subpart) count++;
+                    if (count != 1) {
+                        violations++;
+                        errors.add("Student " + studentId + " is enrolled in " + count + " classes of subpart "
+                                + subpart.getId() + " of course " + course.getId() + '.');
+                    }
+                }
+        }
+        return violations;
+    }
+
+    /**
+     * Checks if the given student needs the course with the given id.
+     *
+     * @param student  The student.
+     * @param courseId The course id.
+     * @return True if the course is one of the courses of the student, and false otherwise.
+     */
+    private static boolean hasCourse(Student student, int courseId) {
+        for (Course course : student.getCourses())
+            if (course.getId() == courseId) return true;
+        return false;
+    }
+
+    /**
+     * Validates the given solutions of the given problem instance and writes one JSON report per solution and line to
+     * the standard output. A solution that cannot be read is reported with its error message.
+     *
+     * @param args The path to the problem instance XML file, followed by the paths to the solution XML files.
+     * @throws IOException        If the problem instance file cannot be read.
+     * @throws XMLStreamException If the problem instance file is not a well-formed XML file.
+     */
+    public static void main(String[] args) throws IOException, XMLStreamException {
+        if (args.length < 2) {
+            System.err.println("Usage: java com.utils.SolutionValidator problem.xml solution1.xml [solution2.xml ...]");
+            System.exit(2);
+        }
+        SolutionValidator validator = new SolutionValidator(new ProblemLoader().load(Paths.get(args[0])));
+        for (int i = 1; i < args.length; i++) {
+            try {
+                System.out.println(validator.validate(Paths.get(args[i])).toJson());
+            } catch (IOException | XMLStreamException | IllegalArgumentException e) {
+                StringBuilder json = new StringBuilder("{\"file\":");
+                ValidationReport.appendString(json, args[i]);
+                json.append(",\"valid\":false,\"error\":");
+                ValidationReport.appendString(json, e.getMessage());
+                System.out.println(json.append('}'));
+            }
+        }
+    }
+}
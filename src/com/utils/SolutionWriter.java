@@ -0,0 +1,222 @@
+package com.utils;
+
+import com.dataset.Problem;
+import com.dataset.RoomAssignment;
+import com.dataset.Student;
+import com.dataset.Time;
+import com.dataset.TimeAssignment;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class writes a timetable as a solution XML of the ITC 2019 dataset. The solution is written in a single pass
+ * with a streaming (StAX) writer, so no XML tree is built: each event is written as a class element (id, days, start,
+ * weeks, and room, if the class requires one) with a student element per enrolled student. The events without a time
+ * are not written (the ITC 2019 validator reports them as missing). The written solution can be read back by
+ * SolutionReader.
+ * <p>
+ * The days and weeks bit strings of each time are built once per writer and reused, since the same times are written
+ * again and again when the best solutions of a long run are saved. A solution written to a file is first written to a
+ * temporary file next to it, which then replaces the file, so the file always holds a complete solution.
+ * <p>
+ * A writer belongs to the problem instance it was created for. It is not thread-safe.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class SolutionWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Problem problem;
+    private final XMLOutputFactory factory;
+    private final LinkedHashMap<String, String> attributes = new LinkedHashMap<>();
+    private final String[] days;
+    private final String[] weeks;
+
+    /**
+     * Constructs a solution writer for the given problem instance. The name attribute of the solution is set to the
+     * name of the problem instance.
+     *
+     * @param problem The problem instance.
+     */
+    public SolutionWriter(Problem problem) {
+        this.problem = problem;
+        factory = XMLOutputFactory.newFactory();
+        attributes.put("name", problem.getName());
+        days = new String[problem.getTimes().length];
+        weeks = new String[problem.getTimes().length];
+    }
+
+    /**
+     * Returns the attributes of the solution element (name, runtime, cores, technique, author, institution, country),
+     * in their order in the written file. The returned map can be changed to set the attributes.
+     *
+     * @return Solution attributes.
+     */
+    public LinkedHashMap<String, String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Sets an attribute of the solution element.
+     *
+     * @param name  The attribute name (e.g., runtime, cores, technique, author, institution, or country).
+     * @param value The attribute value. A null value removes the attribute.
+     */
+    public void setAttribute(String name, String value) {
+        if (value == null) attributes.remove(name);
+        else attributes.put(name, value);
+    }
+
+    /**
+     * Writes the given timetable to the given file. The solution is written to a temporary file in the same directory,
+     * which then replaces the given file.
+     *
+     * @param timetable The timetable.
+     * @param file      The path to the solution XML file.
+     * @throws IOException              If the file cannot be written.
+     * @throws IllegalArgumentException If the given timetable belongs to a different problem instance.
+     */
+    public void write(Timetable timetable, Path file) throws IOException, IllegalArgumentException {
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE)) {
+            write(timetable, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes the given timetable to the given output stream. The stream is flushed, but not closed, by this method.
+     *
+     * @param timetable The timetable.
+     * @param out       The output stream.
+     * @throws IOException              If the stream cannot be written.
+     * @throws IllegalArgumentException If the given timetable belongs to a different problem instance.
+     */
+    public void write(Timetable timetable, OutputStream out) throws IOException, IllegalArgumentException {
+        if (timetable.getProblem() != problem)
+            throw new IllegalArgumentException("The given timetable belongs to a different problem instance.");
+        try {
+            XMLStreamWriter writer = factory.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.writeCharacters("\n");
+            writer.writeStartElement("solution");
+            for (Map.Entry<String, String> attribute : attributes.entrySet())
+                writer.writeAttribute(attribute.getKey(), attribute.getValue());
+            for (Event event : timetable.getEvents()) writeEvent(writer, event);
+            writer.writeCharacters("\n");
+            writer.writeEndElement();
+            writer.writeCharacters("\n");
+            writer.writeEndDocument();
+            writer.close();
+            out.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("The solution cannot be written: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SolutionWriter{" + "problem=" + problem.getName() + ", attributes=" + attributes + '}';
+    }
+
+    /**
+     * Writes the given event as a class element, unless it has no time.
+     *
+     * @param writer The XML writer.
+     * @param event  The event.
+     * @throws XMLStreamException If the element cannot be written.
+     */
+    private void writeEvent(XMLStreamWriter writer, Event event) throws XMLStreamException {
+        final TimeAssignment timeAssignment = event.getTimeAssignment();
+        if (timeAssignment == null) return;
+        final Time time = timeAssignment.getTime();
+        final RoomAssignment roomAssignment = event.getRoomAssignment();
+        final ArrayList<Student> students = event.getStudents();
+        writer.writeCharacters("\n  ");
+        if (students.isEmpty()) writer.writeEmptyElement("class");
+        else writer.writeStartElement("class");
+        writer.writeAttribute("id", Integer.toString(event.getTheClass().getId()));
+        writer.writeAttribute("days", getDays(time));
+        writer.writeAttribute("start", Integer.toString(time.getStart()));
+        writer.writeAttribute("weeks", getWeeks(time));
+        if (roomAssignment != null) writer.writeAttribute("room", Integer.toString(roomAssignment.getRoom().getId()));
+        if (students.isEmpty()) return;
+        for (Student student : students) {
+            writer.writeCharacters("\n    ");
+            writer.writeEmptyElement("student");
+            writer.writeAttribute("id", Integer.toString(student.getId()));
+        }
+        writer.writeCharacters("\n  ");
+        writer.writeEndElement();
+    }
+
+    /**
+     * Returns the days bit string of the given time, built on the first call for the time.
+     *
+     * @param time The time.
+     * @return Days bit string.
+     */
+    private String getDays(Time time) {
+        if (time.getId() >= days.length) return daysOf(time);
+        if (days[time.getId()] == null) days[time.getId()] = daysOf(time);
+        return days[time.getId()];
+    }
+
+    /**
+     * Returns the weeks bit string of the given time, built on the first call for the time.
+     *
+     * @param time The time.
+     * @return Weeks bit string.
+     */
+    private String getWeeks(Time time) {
+        if (time.getId() >= weeks.length) return weeksOf(time);
+        if (weeks[time.getId()] == null) weeks[time.getId()] = weeksOf(time);
+        return weeks[time.getId()];
+    }
+
+    /**
+     * Builds the days bit string of the given time.
+     *
+     * @param time The time.
+     * @return Days bit string.
+     */
+    private static String daysOf(Time time) {
+        char[] bits = new char[time.getDaysLength()];
+        for (int i = 0; i < bits.length; i++) bits[i] = time.hasDay(i) ? '1' : '0';
+        return new String(bits);
+    }
+
+    /**
+     * Builds the weeks bit string of the given time.
+     *
+     * @param time The time.
+     * @return Weeks bit string.
+     */
+    private static String weeksOf(Time time) {
+        char[] bits = new char[time.getWeeksLength()];
+        for (int i = 0; i < bits.length; i++) bits[i] = time.hasWeek(i) ? '1' : '0';
+        return new String(bits);
+    }
+}
@@ -0,0 +1,407 @@
+package com.utils;
+
+import com.dataset.Problem;
+import com.dataset.RoomAssignment;
+import com.dataset.Student;
+import com.dataset.Time;
+import com.dataset.TimeAssignment;
+import com.dataset.TravelTime;
+
+import java.util.Arrays;
+
+/**
+ * This class represents the personal schedules of the students of a timetable and keeps the total number of student
+ * conflicts up to date. A student conflict is a pair of events (scheduled classes) of a student that overlap in time,
+ * or that are placed on the same day and week one after another without enough time to travel between their rooms,
+ * which is: (Ci.end + Ci.room.travel[Cj.room] > Cj.start) ∧ (Cj.end + Cj.room.travel[Ci.room] > Ci.start) ∧
+ * ((Ci.days and Cj.days) ≠ 0) ∧ ((Ci.weeks and Cj.weeks) ≠ 0).
+ * <p>
+ * For each student, the class ids of its events and a bitmap of the occupied timeslots of each day of the week (5
+ * longs for the 288 timeslots of a day, combined over all the weeks) are kept. A bitmap per week would take nrWeeks
+ * times more memory (over 100 MB for 30,000 students), while the weeks rarely separate the classes of a student.
+ * Therefore, the bitmaps are used as a filter: if the timeslots of a time (widened by the maximum travel time on both
+ * sides) do not hit the bitmaps of a student on any of its days, the time cannot conflict with any event of the
+ * student; otherwise, the events of the student are checked exactly.
+ * <p>
+ * When the time or room of an event changes, or when a student is enrolled in (or removed from) an event, only the
+ * students of that event are updated. Therefore, the total number of student conflicts is maintained in
+ * O(affected students × events per student). The number of student conflicts of each event is kept up to date as
+ * well (each conflict is counted for both of its events), so the conflicts of an event at its current time and room
+ * are known in O(1) when a move of the event is evaluated (see getConflicts(int)). A move that keeps the time of an
+ * event and changes its room between rooms with the same travel times cannot change its student conflicts, so such
+ * moves leave the schedules as they are (see changes(Event, int, int)).
+ * <p>
+ * The schedules are maintained by the timetable (see Timetable.assign and Timetable.enroll).
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.4
+ */
+public class StudentSchedules {
+    private final Timetable timetable;
+    private final Student[] students;
+    private final TravelTime travelTime;
+    private final int maxTravel;
+    private final int nrDays;
+    private final int words;
+    private final long[] occupied;
+    private final int[][] studentEvents;
+    private final int[] studentEventNo;
+    private final int[] classConflicts;
+    private int conflicts;
+
+    /**
+     * Constructs empty schedules (no enrollments) for the students of the problem instance of the given timetable.
+     *
+     * @param timetable The timetable.
+     */
+    StudentSchedules(Timetable timetable) {
+        this.timetable = timetable;
+        final Problem problem = timetable.getProblem();
+        students = problem.getStudents();
+        travelTime = problem.getTravelTime();
+        maxTravel = travelTime.getMaxTravelTime();
+        nrDays = problem.getNrDays();
+        words = (problem.getSlotsPerDay() + 63) >>> 6;
+        occupied = new long[students.length * nrDays * words];
+        studentEvents = new int[students.length][];
+        studentEventNo = new int[students.length];
+        classConflicts = new int[problem.getClasses().length];
+        Arrays.fill(studentEvents, new int[0]);
+    }
+
+    /**
+     * Returns the total number of student conflicts of the timetable.
+     * <p>
+     * Running time = O(1).
+     *
+     * @return Student conflicts.
+     */
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Returns the number of student conflicts of the class with the given id at its current time and room, which are
+     * the pairs of (student of the class, other event of the student) that conflict.
+     * <p>
+     * Running time = O(1).
+     *
+     * @param classId The class id.
+     * @return Student conflicts of the class.
+     */
+    public int getConflicts(int classId) {
+        return classConflicts[classId - 1];
+    }
+
+    /**
+     * Checks if moving the given event to the time and room with the given indexes (in the possible time and room
+     * assignments of its class) can change its student conflicts. A move that keeps the time of the event changes only
+     * the travel times to the other events, so it cannot change the conflicts if both rooms are in the same travel
+     * class (see TravelTime.getTravelClass(int)), e.g., if neither room has a travel time to any other room.
+     * <p>
+     * Running time = O(1).
+     *
+     * @param event     The event.
+     * @param timeIndex The index of the new time of the event, or -1.
+     * @param roomIndex The index of the new room of the event, or -1.
+     * @return True if the move can change the student conflicts of the event, and false if it cannot.
+     */
+    public boolean changes(Event event, int timeIndex, int roomIndex) {
+        if (timeIndex != event.getTimeIndex()) return true;
+        if (timeIndex == -1 || roomIndex == event.getRoomIndex() || event.getStudents().isEmpty()) return false;
+        final RoomAssignment[] roomAssignments = event.getTheClass().getPossibleRoomAssignments();
+        return travelClass(event.getRoomIndex() == -1 ? null : roomAssignments[event.getRoomIndex()])
+                != travelClass(roomIndex == -1 ? null : roomAssignments[roomIndex]);
+    }
+
+    /**
+     * Returns the number of events that the given student is enrolled in.
+     *
+     * @param studentId The student id.
+     * @return The number of events of the student.
+     */
+    public int getEventCount(int studentId) {
+        return studentEventNo[studentId - 1];
+    }
+
+    /**
+     * Returns the class id of the i-th event that the given student is enrolled in.
+     *
+     * @param studentId The student id.
+     * @param i         The index of the event (0 ≤ i < getEventCount(studentId)).
+     * @return Class id.
+     * @throws IndexOutOfBoundsException If i is out of bounds.
+     */
+    public int getClassId(int studentId, int i) throws IndexOutOfBoundsException {
+        if (i < 0 || i >= studentEventNo[studentId - 1]) throw new IndexOutOfBoundsException("Invalid index: " + i);
+        return studentEvents[studentId - 1][i];
+    }
+
+    /**
+     * Checks if the given student is enrolled in the class with the given id.
+     *
+     * @param studentId The student id.
+     * @param classId   The class id.
+     * @return True if the student is enrolled in the class, and false otherwise.
+     */
+    public boolean isEnrolled(int studentId, int classId) {
+        return indexOf(studentId, classId) >= 0;
+    }
+
+    /**
+     * Counts the student conflicts that the given event would have if it were placed at the given time in the given
+     * room, which are the pairs of (student of the event, other event of the student) that conflict. The event itself
+     * is ignored, so this can be used to evaluate moving the event.
+     *
+     * @param event          The event.
+     * @param time           The time of the event.
+     * @param roomAssignment The room of the event, or null.
+     * @return The number of student conflicts.
+     */
+    public int countConflicts(Event event, Time time, RoomAssignment roomAssignment) {
+        int count = 0;
+        for (Student student : event.getStudents())
+            count += countConflicts(student.getId(), event, time, roomAssignment, 0);
+        return count;
+    }
+
+    /**
+     * Counts the student conflicts that the given student would have with the class with the given id (at its current
+     * time and room), which are the other events of the student that conflict with the class. The class itself is
+     * ignored, so this can be used to choose the classes of the student (see StudentSectioning).
+     *
+     * @param studentId The student id.
+     * @param classId   The class id.
+     * @return The number of student conflicts. Returns 0 if the class has no time.
+     */
+    public int countConflicts(int studentId, int classId) {
+        final Event event = timetable.getEvent(classId);
+        final TimeAssignment timeAssignment = event.getTimeAssignment();
+        return timeAssignment == null ? 0
+                : countConflicts(studentId, event, timeAssignment.getTime(), event.getRoomAssignment(), 0);
+    }
+
+    @Override
+    public String toString() {
+        return "StudentSchedules{" + "students=" + students.length + ", conflicts=" + conflicts + '}';
+    }
+
+    /**
+     * Enrolls the given student in the given event and adds the conflicts between the event and the other events of
+     * the student to the total number of conflicts.
+     *
+     * @param event   The event.
+     * @param student The student.
+     * @throws IllegalArgumentException If the student is already enrolled in the event.
+     */
+    void enroll(Event event, Student student) throws IllegalArgumentException {
+        final int index = student.getId() - 1, classId = event.getTheClass().getId();
+        if (indexOf(student.getId(), classId) >= 0)
+            throw new IllegalArgumentException("The student is already enrolled in this class.");
+        final int n = studentEventNo[index];
+        if (n == studentEvents[index].length) studentEvents[index] = Arrays.copyOf(studentEvents[index], n * 2 + 2);
+        studentEvents[index][n] = classId;
+        studentEventNo[index]++;
+        event.getStudents().add(student);
+        final TimeAssignment timeAssignment = event.getTimeAssignment();
+        if (timeAssignment == null) return;
+        final int count = countConflicts(student.getId(), event, timeAssignment.getTime(),
+                event.getRoomAssignment(), 1);
+        conflicts += count;
+        classConflicts[classId - 1] += count;
+        mark(index, timeAssignment.getTime());
+    }
+
+    /**
+     * Removes the given student from the given event and subtracts the conflicts between the event and the other
+     * events of the student from the total number of conflicts.
+     *
+     * @param event   The event.
+     * @param student The student.
+     * @throws IllegalArgumentException If the student is not enrolled in the event.
+     */
+    void unenroll(Event event, Student student) throws IllegalArgumentException {
+        final int index = student.getId() - 1, i = indexOf(student.getId(), event.getTheClass().getId());
+        if (i < 0) throw new IllegalArgumentException("The student is not enrolled in this class.");
+        final TimeAssignment timeAssignment = event.getTimeAssignment();
+        if (timeAssignment != null) {
+            final int count = countConflicts(student.getId(), event, timeAssignment.getTime(),
+                    event.getRoomAssignment(), -1);
+            conflicts -= count;
+            classConflicts[event.getTheClass().getId() - 1] -= count;
+        }
+        studentEvents[index][i] = studentEvents[index][--studentEventNo[index]];
+        event.getStudents().remove(student);
+        if (timeAssignment != null) rebuild(index, 0);
+    }
+
+    /**
+     * Adds the given event (with its current time and room) to the schedules of its students, and adds its conflicts
+     * to the total number of conflicts. This is called after the time or room of the event changes.
+     *
+     * @param event The event.
+     */
+    void add(Event event) {
+        final TimeAssignment timeAssignment = event.getTimeAssignment();
+        if (timeAssignment == null) return;
+        int count = 0;
+        for (Student student : event.getStudents()) {
+            count += countConflicts(student.getId(), event, timeAssignment.getTime(), event.getRoomAssignment(), 1);
+            mark(student.getId() - 1, timeAssignment.getTime());
+        }
+        conflicts += count;
+        classConflicts[event.getTheClass().getId() - 1] = count;
+    }
+
+    /**
+     * Removes the given event (with its current time and room) from the schedules of its students, and subtracts its
+     * conflicts from the total number of conflicts. This is called before the time or room of the event changes.
+     *
+     * @param event The event.
+     */
+    void remove(Event event) {
+        final TimeAssignment timeAssignment = event.getTimeAssignment();
+        if (timeAssignment == null) return;
+        for (Student student : event.getStudents())
+            countConflicts(student.getId(), event, timeAssignment.getTime(), event.getRoomAssignment(), -1);
+        conflicts -= classConflicts[event.getTheClass().getId() - 1];
+        classConflicts[event.getTheClass().getId() - 1] = 0;
+        for (Student student : event.getStudents()) rebuild(student.getId() - 1, event.getTheClass().getId());
+    }
+
+    /**
+     * Counts the conflicts between the given event, placed at the given time in the given room, and the other events
+     * of the given student, and adds the given change to the conflicts of each of the other events that conflict.
+     *
+     * @param studentId      The student id.
+     * @param event          The event.
+     * @param time           The time of the event.
+     * @param roomAssignment The room of the event, or null.
+     * @param change         The change of the conflicts of the other events (1 when the event is added, -1 when it
+     *                       is removed, and 0 when the conflicts are only counted).
+     * @return The number of conflicts.
+     */
+    private int countConflicts(int studentId, Event event, Time time, RoomAssignment roomAssignment, int change) {
+        final int index = studentId - 1;
+        if (!hits(index, time)) return 0;
+        final int[] classIds = studentEvents[index];
+        final int classId = event.getTheClass().getId();
+        final int roomId = roomAssignment == null ? 0 : roomAssignment.getRoom().getId();
+        final int roomMaxTravel = roomId == 0 ? 0 : travelTime.getMaxTravelTime(roomId);
+        int count = 0, travel;
+        Event other;
+        Time otherTime;
+        for (int i = studentEventNo[index] - 1; i >= 0; i--) {
+            if (classIds[i] == classId) continue;
+            other = timetable.getEvent(classIds[i]);
+            if (other.getTimeAssignment() == null) continue;
+            otherTime = other.getTimeAssignment().getTime();
+            if (!time.overlaps(otherTime, roomMaxTravel)) continue;
+            travel = roomMaxTravel == 0 || other.getRoomAssignment() == null ? 0
+                    : travelTime.getTravelTime(roomId, other.getRoomAssignment().getRoom().getId());
+            if (travel == roomMaxTravel || time.overlaps(otherTime, travel)) {
+                count++;
+                classConflicts[classIds[i] - 1] += change;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the travel class of the given room (see TravelTime.getTravelClass(int)).
+     *
+     * @param roomAssignment The room, or null.
+     * @return Travel class of the room. Returns 0 (no travel times) if the room is null.
+     */
+    private int travelClass(RoomAssignment roomAssignment) {
+        return roomAssignment == null ? 0 : travelTime.getTravelClass(roomAssignment.getRoom().getId());
+    }
+
+    /**
+     * Checks if the timeslots of the given time, widened by the maximum travel time on both sides, hit the bitmaps of
+     * the given student on any of the days of the time.
+     *
+     * @param index The student index (id - 1).
+     * @param time  The time.
+     * @return True if the time might conflict with an event of the student, and false if it cannot.
+     */
+    private boolean hits(int index, Time time) {
+        final int first = Math.max(time.getStart() - maxTravel, 0);
+        final int last = Math.min(time.getStart() + Math.max(time.getLength(), 1) - 1 + maxTravel, (words << 6) - 1);
+        int offset;
+        for (long d = time.getDaysMask(); d != 0; d &= d - 1) {
+            final int day = Long.numberOfTrailingZeros(d);
+            if (day >= nrDays) break;
+            offset = (index * nrDays + day) * words;
+            for (int word = first >>> 6; word <= last >>> 6; word++)
+                if ((occupied[offset + word] & slotMask(word, first, last)) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sets the timeslots of the given time in the bitmaps of the given student.
+     *
+     * @param index The student index (id - 1).
+     * @param time  The time.
+     */
+    private void mark(int index, Time time) {
+        final int first = time.getStart();
+        final int last = Math.min(first + Math.max(time.getLength(), 1) - 1, (words << 6) - 1);
+        if (last < first) return;
+        int offset;
+        for (long d = time.getDaysMask(); d != 0; d &= d - 1) {
+            final int day = Long.numberOfTrailingZeros(d);
+            if (day >= nrDays) break;
+            offset = (index * nrDays + day) * words;
+            for (int word = first >>> 6; word <= last >>> 6; word++)
+                occupied[offset + word] |= slotMask(word, first, last);
+        }
+    }
+
+    /**
+     * Rebuilds the bitmaps of the given student from the current times of its events, except the given class.
+     *
+     * @param index       The student index (id - 1).
+     * @param skipClassId The id of the class to be skipped, or 0.
+     */
+    private void rebuild(int index, int skipClassId) {
+        Arrays.fill(occupied, index * nrDays * words, (index + 1) * nrDays * words, 0);
+        final int[] classIds = studentEvents[index];
+        TimeAssignment timeAssignment;
+        for (int i = studentEventNo[index] - 1; i >= 0; i--) {
+            if (classIds[i] == skipClassId) continue;
+            timeAssignment = timetable.getEvent(classIds[i]).getTimeAssignment();
+            if (timeAssignment != null) mark(index, timeAssignment.getTime());
+        }
+    }
+
+    /**
+     * Returns the position of the given class in the events of the given student.
+     *
+     * @param studentId The student id.
+     * @param classId   The class id.
+     * @return The position of the class, or -1 if the student is not enrolled in the class.
+     */
+    private int indexOf(int studentId, int classId) {
+        final int[] classIds = studentEvents[studentId - 1];
+        for (int i = studentEventNo[studentId - 1] - 1; i >= 0; i--)
+            if (classIds[i] == classId) return i;
+        return -1;
+    }
+
+    /**
+     * Returns the bits of the timeslots first..last (inclusive) that fall in the given word of a day bitmap.
+     *
+     * @param word  The word index.
+     * @param first The first timeslot.
+     * @param last  The last timeslot.
+     * @return Slot mask.
+     */
+    private static long slotMask(int word, int first, int last) {
+        final int from = Math.max(first - (word << 6), 0), to = Math.min(last - (word << 6), 63);
+        return (-1L >>> (63 - to)) & (-1L << from);
+    }
+}
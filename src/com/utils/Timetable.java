@@ -1,5 +1,15 @@
 package com.utils;
 
+import com.dataset.Problem;
+import com.dataset.ProblemIndex;
+import com.dataset.RoomAssignment;
+import com.dataset.Student;
+import com.dataset.Time;
+import com.dataset.TimeAssignment;
+import com.dataset.constraints.AggregateState;
+import com.dataset.constraints.HardConstraint;
+import com.dataset.constraints.SoftConstraint;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -13,28 +23,73 @@ import java.util.Arrays;
  * id = 1, class with id = 2, class with id = 3, ..., class with id = n. Therefore, it is assumed that all classes have
  * unique and consequent ids.
  * <p>
+ * A timetable belongs to the problem instance it was created for, and everything it needs (classes, rooms, travel
+ * times, and constraints) is taken from that problem instance rather than from any global state. Therefore, timetables
+ * of different problem instances can be created and used at the same time.
+ * <p>
+ * The timetable keeps the occupancy of its rooms (see RoomOccupancy) and the schedules of its students (see
+ * StudentSchedules) up to date. Therefore, the times and rooms of the events must be changed through assign() and
+ * unassign(), and the students of the events must be changed through enroll() and unenroll() of the timetable. It also
+ * keeps the state of each aggregate distribution constraint (MaxDays, MaxDayLoad, MaxBreaks, and MaxBlock) up to date
+ * (see AggregateState).
+ * <p>
+ * The quality of the timetable (see Evaluation) is cached as its components: the number of unscheduled events, the
+ * time and room penalties, the violations count of each distribution constraint (over the scheduled events), and the
+ * room and student conflicts (kept by the room occupancy and the student schedules). Each assignment only updates the
+ * components that depend on the moved event, so the current evaluation and total penalty are read in O(1).
+ * <p>
  * Created by Sina on 28-Feb-22
  *
  * @author Sina
- * @version 0.3
+ * @version 0.13
  */
 public class Timetable {
-
-    //TODO: Add timetable performance assessment fields (feasibility, time penalty, room penalty, student conflicts,
-    // distribution constraints).
-
+    private final Problem problem;
     private final Event[] events;
+    private final RoomOccupancy roomOccupancy;
+    private final StudentSchedules studentSchedules;
+    private final AggregateState[] hardStates;
+    private final AggregateState[] softStates;
+    private final int[] hardCounts;
+    private final int[] softCounts;
+    private int unscheduled;
+    private int distributionViolations;
+    private int timePenalty;
+    private int roomPenalty;
+    private int distributionPenalty;
 
     /**
-     * Constructs a timetable (a possible solution) object and initiates an empty timetable (an array of events
-     * (scheduled events) of size n, where n is the number of classes in the problem instance and corresponds to the
-     * unique id of the class (events [0] includes the class with id = 1, events [1] includes the class with id = 2,
-     * ..., and events [n - 1] includes the class with id = n)).
+     * Constructs a timetable (a possible solution) object for the given problem instance and initiates an empty
+     * timetable (an array of unscheduled events of size n, where n is the number of classes in the problem instance and
+     * corresponds to the unique id of the class (events [0] includes the class with id = 1, events [1] includes the
+     * class with id = 2, ..., and events [n - 1] includes the class with id = n)).
      *
-     * @param classNo The number of classes in the problem instance.
+     * @param problem The problem instance.
      */
-    Timetable(int classNo) {
-        events = new Event[classNo];
+    public Timetable(Problem problem) {
+        this.problem = problem;
+        events = new Event[problem.getClasses().length];
+        for (com.dataset.Class aClass : problem.getClasses()) setEvent(new Event(aClass));
+        roomOccupancy = new RoomOccupancy(this);
+        studentSchedules = new StudentSchedules(this);
+        hardStates = new AggregateState[problem.getHardConstraints().length];
+        for (int i = 0; i < hardStates.length; i++)
+            hardStates[i] = AggregateState.create(problem.getHardConstraints()[i].getConstraint(), problem);
+        softStates = new AggregateState[problem.getSoftConstraints().length];
+        for (int i = 0; i < softStates.length; i++)
+            softStates[i] = AggregateState.create(problem.getSoftConstraints()[i].getConstraint(), problem);
+        hardCounts = new int[hardStates.length];
+        softCounts = new int[softStates.length];
+        unscheduled = events.length;
+    }
+
+    /**
+     * Returns the problem instance of this timetable.
+     *
+     * @return Problem instance.
+     */
+    public Problem getProblem() {
+        return problem;
     }
 
     /**
@@ -56,6 +111,220 @@ public class Timetable {
         return events[classId - 1];
     }
 
+    /**
+     * Returns the room occupancy of this timetable.
+     *
+     * @return Room occupancy.
+     */
+    public RoomOccupancy getRoomOccupancy() {
+        return roomOccupancy;
+    }
+
+    /**
+     * Returns the student schedules of this timetable.
+     *
+     * @return Student schedules.
+     */
+    public StudentSchedules getStudentSchedules() {
+        return studentSchedules;
+    }
+
+    /**
+     * Returns the state of the hard constraint with the given index (in Problem.getHardConstraints()).
+     *
+     * @param index The hard constraint index.
+     * @return Aggregate state. Returns null if the constraint is not an aggregate constraint.
+     */
+    public AggregateState getHardState(int index) {
+        return hardStates[index];
+    }
+
+    /**
+     * Returns the state of the soft constraint with the given index (in Problem.getSoftConstraints()).
+     *
+     * @param index The soft constraint index.
+     * @return Aggregate state. Returns null if the constraint is not an aggregate constraint.
+     */
+    public AggregateState getSoftState(int index) {
+        return softStates[index];
+    }
+
+    /**
+     * Returns the violations count of the hard constraint with the given index (in Problem.getHardConstraints()) over
+     * the scheduled events of this timetable (see DistributionConstraint.scheduledViolationCount()).
+     * <p>
+     * Running time = O(1).
+     *
+     * @param index The hard constraint index.
+     * @return Violations count.
+     */
+    public int getHardViolationCount(int index) {
+        return hardCounts[index];
+    }
+
+    /**
+     * Returns the violations count of the soft constraint with the given index (in Problem.getSoftConstraints()) over
+     * the scheduled events of this timetable (see DistributionConstraint.scheduledViolationCount()).
+     * <p>
+     * Running time = O(1).
+     *
+     * @param index The soft constraint index.
+     * @return Violations count.
+     */
+    public int getSoftViolationCount(int index) {
+        return softCounts[index];
+    }
+
+    /**
+     * Returns the evaluation of this timetable, built from its cached components. It is identical to
+     * SolutionEvaluator.evaluate(this).
+     * <p>
+     * Running time = O(1).
+     *
+     * @return Evaluation.
+     */
+    public Evaluation getEvaluation() {
+        int[] components = new int[Evaluation.COMPONENTS];
+        components[Evaluation.UNSCHEDULED] = unscheduled;
+        components[Evaluation.DISTRIBUTION_HARD] = distributionViolations;
+        components[Evaluation.ROOM_CONFLICTS] = roomOccupancy.getConflicts();
+        components[Evaluation.ROOM_UNAVAILABLE] = roomOccupancy.getUnavailableConflicts();
+        components[Evaluation.TIME_PENALTY] = timePenalty;
+        components[Evaluation.ROOM_PENALTY] = roomPenalty;
+        components[Evaluation.DISTRIBUTION_PENALTY] = distributionPenalty;
+        components[Evaluation.STUDENT_CONFLICTS] = studentSchedules.getConflicts();
+        return new Evaluation(problem, components);
+    }
+
+    /**
+     * Returns the total penalty (the ITC 2019 objective) of this timetable, which is the sum of its time, room,
+     * distribution, and student penalties weighted by the optimization weights of the problem instance.
+     * <p>
+     * Running time = O(1).
+     *
+     * @return Total penalty.
+     */
+    public int getTotalPenalty() {
+        return problem.getTimeWeight() * timePenalty + problem.getRoomWeight() * roomPenalty
+                + problem.getDistributionWeight() * distributionPenalty
+                + problem.getStudentWeight() * studentSchedules.getConflicts();
+    }
+
+    /**
+     * Returns the number of hard violations (hard distribution constraint violations, room conflicts, and room
+     * unavailability violations) of this timetable. The unscheduled events are not included.
+     * <p>
+     * Running time = O(1).
+     *
+     * @return Hard violations.
+     */
+    public int getHardViolations() {
+        return distributionViolations + roomOccupancy.getConflicts() + roomOccupancy.getUnavailableConflicts();
+    }
+
+    /**
+     * Checks if this timetable is a feasible solution (all events scheduled and no hard violations).
+     * <p>
+     * Running time = O(1).
+     *
+     * @return True if feasible, and false otherwise.
+     */
+    public boolean isFeasible() {
+        return unscheduled == 0 && getHardViolations() == 0;
+    }
+
+    /**
+     * Assigns the times and rooms with the given indexes (in the possible time and room assignments of the class) to
+     * the class with the given id and updates the room occupancy, the student schedules, and the cached evaluation
+     * components. An index of -1 unassigns the time (room) of the class.
+     * <p>
+     * Running time = O(1) for the validation, plus the updates of the room occupancy, the student schedules, the
+     * aggregate states, and the violations counts of the distribution constraints of the class.
+     *
+     * @param classId   The class id.
+     * @param timeIndex The index of the time to be assigned to the class, or -1.
+     * @param roomIndex The index of the room to be assigned to the class, or -1.
+     * @throws IllegalArgumentException If a given index is not an index of the possible assignments of the class.
+     */
+    public void assign(int classId, int timeIndex, int roomIndex) throws IllegalArgumentException {
+        final Event event = getEvent(classId);
+        event.checkTimeIndex(timeIndex);
+        event.checkRoomIndex(roomIndex);
+        final Time oldTime = event.getTimeAssignment() == null ? null : event.getTimeAssignment().getTime();
+        final boolean students = studentSchedules.changes(event, timeIndex, roomIndex);
+        roomOccupancy.remove(event);
+        if (students) studentSchedules.remove(event);
+        updateCounts(event, -1);
+        event.assign(timeIndex, roomIndex);
+        updateCounts(event, 1);
+        roomOccupancy.add(event);
+        if (students) studentSchedules.add(event);
+        final ProblemIndex index = problem.getIndex();
+        final SoftConstraint[] softConstraints = problem.getSoftConstraints();
+        for (int i : index.getHardConstraints(classId))
+            if (hardStates[i] != null) {
+                hardStates[i].update(this, event.getTheClass(), oldTime);
+                distributionViolations += hardStates[i].getViolationCount() - hardCounts[i];
+                hardCounts[i] = hardStates[i].getViolationCount();
+            }
+        for (int i : index.getSoftConstraints(classId))
+            if (softStates[i] != null) {
+                softStates[i].update(this, event.getTheClass(), oldTime);
+                distributionPenalty -= softConstraints[i].calcPenalty(softCounts[i], problem.getNrWeeks());
+                softCounts[i] = softStates[i].getViolationCount();
+                distributionPenalty += softConstraints[i].calcPenalty(softCounts[i], problem.getNrWeeks());
+            }
+    }
+
+    /**
+     * Assigns the given time and room to the class with the given id (see assign(int, int, int)). A null time (room)
+     * unassigns the time (room) of the class.
+     *
+     * @param classId        The class id.
+     * @param timeAssignment The time to be assigned to the class, or null.
+     * @param roomAssignment The room to be assigned to the class, or null.
+     * @throws IllegalArgumentException If a given assignment is not one of the possible assignments of the class.
+     */
+    public void assign(int classId, TimeAssignment timeAssignment, RoomAssignment roomAssignment)
+            throws IllegalArgumentException {
+        final Event event = getEvent(classId);
+        assign(classId, event.indexOf(timeAssignment), event.indexOf(roomAssignment));
+    }
+
+    /**
+     * Unassigns the time and room of the class with the given id (see assign(int, int, int)).
+     *
+     * @param classId The class id.
+     */
+    public void unassign(int classId) {
+        assign(classId, -1, -1);
+    }
+
+    /**
+     * Enrolls the student with the given id in the class with the given id and updates the student schedules.
+     * <p>
+     * IMPORTANT: The enrollment rules (class limit, parent class, course, and configuration) are not checked here (the
+     * students are sectioned according to them by StudentSectioning of the solver).
+     *
+     * @param classId   The class id.
+     * @param studentId The student id.
+     * @throws IllegalArgumentException If the student is already enrolled in the class.
+     */
+    public void enroll(int classId, int studentId) throws IllegalArgumentException {
+        studentSchedules.enroll(getEvent(classId), problem.getStudents()[studentId - 1]);
+    }
+
+    /**
+     * Removes the student with the given id from the class with the given id and updates the student schedules.
+     *
+     * @param classId   The class id.
+     * @param studentId The student id.
+     * @throws IllegalArgumentException If the student is not enrolled in the class.
+     */
+    public void unenroll(int classId, int studentId) throws IllegalArgumentException {
+        studentSchedules.unenroll(getEvent(classId), problem.getStudents()[studentId - 1]);
+    }
+
     /**
      * Adds the input event to the timetable.
      *
@@ -73,6 +342,39 @@ public class Timetable {
         return "Timetable{" + "events=" + Arrays.toString(events) + '}';
     }
 
+    /**
+     * Removes (sign = -1) or adds (sign = 1) the contribution of the given event to the cached evaluation components:
+     * its unscheduled state, its time and room penalties, and the violations of its non-aggregate distribution
+     * constraints that involve it (the aggregate constraints are updated through their states in assign()).
+     *
+     * @param event The event.
+     * @param sign  -1 to remove the contribution of the event, and 1 to add it.
+     */
+    private void updateCounts(Event event, int sign) {
+        final com.dataset.Class aClass = event.getTheClass();
+        final TimeAssignment timeAssignment = event.getTimeAssignment();
+        final RoomAssignment roomAssignment = event.getRoomAssignment();
+        if (!event.isScheduled()) unscheduled += sign;
+        if (timeAssignment != null) timePenalty += sign * timeAssignment.getPenalty();
+        if (roomAssignment != null) roomPenalty += sign * roomAssignment.getPenalty();
+        final ProblemIndex index = problem.getIndex();
+        final HardConstraint[] hardConstraints = problem.getHardConstraints();
+        final SoftConstraint[] softConstraints = problem.getSoftConstraints();
+        int count;
+        for (int i : index.getHardConstraints(aClass.getId()))
+            if (hardStates[i] == null) {
+                count = sign * hardConstraints[i].getConstraint().violationCount(this, aClass);
+                hardCounts[i] += count;
+                distributionViolations += count;
+            }
+        for (int i : index.getSoftConstraints(aClass.getId()))
+            if (softStates[i] == null) {
+                distributionPenalty -= softConstraints[i].calcPenalty(softCounts[i], problem.getNrWeeks());
+                softCounts[i] += sign * softConstraints[i].getConstraint().violationCount(this, aClass);
+                distributionPenalty += softConstraints[i].calcPenalty(softCounts[i], problem.getNrWeeks());
+            }
+    }
+
     /**
      * Returns the class ids of the events that are not added to this timetable yet.
      *
@@ -80,8 +382,8 @@ public class Timetable {
      */
     ArrayList<Integer> getMissingEvents() {
         ArrayList<Integer> missingIds = new ArrayList<>();
-        for (Event event : events)
-            if (event == null) missingIds.add(event.getTheClass().getId());
+        for (int i = 0; i < events.length; i++)
+            if (events[i] == null) missingIds.add(i + 1);
         return missingIds;
     }
 
@@ -101,44 +403,26 @@ public class Timetable {
     }
 
     /**
-     * Returns the length of the days boolean arrays of the timetable events.
+     * Returns the length of the days boolean arrays of the timetable events, which is the number of days of each week
+     * of the problem instance (all the times are checked against it when the problem instance is constructed).
+     * <p>
+     * Running time = O(1).
      *
-     * @return Events.getTimeAssignment().getTime().getDays().length.
-     * @throws IllegalArgumentException If the days boolean arrays of events are of different lengths.
+     * @return Problem.getNrDays().
      */
-    public int getDaysLength() throws IllegalArgumentException {
-        final int daysLength = getEvent(0).getTimeAssignment().getTime().getDays().length;
-
-        //TODO OPTIMIZATION: For faster running time, comment the following if. However, doing so will result in
-        // incorrect operation of this method. Make sure that the given boolean arrays ALWAYS have same lengths before
-        // removing this check.
-        for (Event e : getEvents())
-            if (e.getTimeAssignment().getTime().getDays().length != daysLength)
-                throw new IllegalArgumentException("Events in the timetable have days boolean arrays of different "
-                        + "lengths");
-        // COMMENT UNTIL HERE
-
-        return daysLength;
+    public int getDaysLength() {
+        return problem.getNrDays();
     }
 
     /**
-     * Returns the length of the weeks boolean arrays of the timetable events.
+     * Returns the length of the weeks boolean arrays of the timetable events, which is the number of weeks of the
+     * problem instance (all the times are checked against it when the problem instance is constructed).
+     * <p>
+     * Running time = O(1).
      *
-     * @return Events.getTimeAssignment().getTime().getWeeks().length.
-     * @throws IllegalArgumentException If the weeks boolean arrays of events are of different lengths.
+     * @return Problem.getNrWeeks().
      */
-    public int getWeeksLength() throws IllegalArgumentException {
-        final int weeksLength = getEvent(0).getTimeAssignment().getTime().getWeeks().length;
-
-        //TODO OPTIMIZATION: For faster running time, comment the following if. However, doing so will result in
-        // incorrect operation of this method. Make sure that the given boolean arrays ALWAYS have same lengths before
-        // removing this check.
-        for (Event e : getEvents())
-            if (e.getTimeAssignment().getTime().getWeeks().length != weeksLength)
-                throw new IllegalArgumentException("Events in the timetable have weeks boolean arrays of different "
-                        + "lengths");
-        // COMMENT UNTIL HERE
-
-        return weeksLength;
+    public int getWeeksLength() {
+        return problem.getNrWeeks();
     }
 }
\ No newline at end of file
@@ -0,0 +1,214 @@
+package com.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class represents the result of the validation of a solution of a problem instance of the ITC 2019 dataset (see
+ * SolutionValidator): the evaluation of the solution (see Evaluation), the class limit and student enrollment
+ * violations, and the list of errors that explain why the solution is not valid. It can be written as a single-line
+ * JSON object (see toJson()), so the reports of a batch of solutions can be processed as JSON lines.
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class ValidationReport {
+    /**
+     * The maximum number of errors listed in the JSON report (all the errors are counted).
+     */
+    public static final int MAX_JSON_ERRORS = 100;
+
+    private final String instance;
+    private final LinkedHashMap<String, String> attributes;
+    private final Evaluation evaluation;
+    private final int classLimitViolations;
+    private final int enrollmentViolations;
+    private final ArrayList<String> errors;
+    private final long nanos;
+
+    /**
+     * Constructs a validation report.
+     *
+     * @param instance             The name of the problem instance.
+     * @param attributes           The attributes of the solution element (name, runtime, cores, technique, etc.).
+     * @param evaluation           The evaluation of the solution.
+     * @param classLimitViolations The number of classes that have more students than their limit.
+     * @param enrollmentViolations The number of violations of the course structure by the enrollments of the students.
+     * @param errors               The errors of the solution.
+     * @param nanos                The validation time in nanoseconds.
+     */
+    ValidationReport(String instance, LinkedHashMap<String, String> attributes, Evaluation evaluation,
+                     int classLimitViolations, int enrollmentViolations, ArrayList<String> errors, long nanos) {
+        this.instance = instance;
+        this.attributes = attributes;
+        this.evaluation = evaluation;
+        this.classLimitViolations = classLimitViolations;
+        this.enrollmentViolations = enrollmentViolations;
+        this.errors = errors;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Returns the name of the problem instance.
+     *
+     * @return Instance name.
+     */
+    public String getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the attributes of the solution element (name, runtime, cores, technique, author, institution, country).
+     *
+     * @return Solution attributes.
+     */
+    public LinkedHashMap<String, String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns the evaluation of the solution.
+     *
+     * @return Evaluation.
+     */
+    public Evaluation getEvaluation() {
+        return evaluation;
+    }
+
+    /**
+     * Returns the number of classes that have more students than their limit.
+     *
+     * @return Class limit violations.
+     */
+    public int getClassLimitViolations() {
+        return classLimitViolations;
+    }
+
+    /**
+     * Returns the number of violations of the course structure by the enrollments of the students (courses that a
+     * student is not enrolled in or is enrolled in more than one config of, subparts without exactly one class, classes
+     * without their parent class, and classes of courses that the student does not need).
+     *
+     * @return Enrollment violations.
+     */
+    public int getEnrollmentViolations() {
+        return enrollmentViolations;
+    }
+
+    /**
+     * Returns the errors of the solution.
+     *
+     * @return Errors.
+     */
+    public ArrayList<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the validation time.
+     *
+     * @return Nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Checks if the solution is valid: it is feasible (see Evaluation.isFeasible()) and has no errors.
+     *
+     * @return True if valid, and false otherwise.
+     */
+    public boolean isValid() {
+        return evaluation.isFeasible() && errors.isEmpty();
+    }
+
+    /**
+     * Returns this report as a single-line JSON object. At most MAX_JSON_ERRORS errors are listed.
+     *
+     * @return JSON.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"instance\":");
+        appendString(json, instance);
+        json.append(",\"solution\":{");
+        boolean first = true;
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+            appendString(json, attribute.getKey());
+            json.append(':');
+            appendString(json, attribute.getValue());
+        }
+        json.append("},\"valid\":").append(isValid())
+                .append(",\"totalCost\":").append(evaluation.getTotalPenalty())
+                .append(",\"timePenalty\":").append(evaluation.getTimePenalty())
+                .append(",\"roomPenalty\":").append(evaluation.getRoomPenalty())
+                .append(",\"distributionPenalty\":").append(evaluation.getDistributionPenalty())
+                .append(",\"studentConflicts\":").append(evaluation.getStudentConflicts())
+                .append(",\"unscheduled\":").append(evaluation.getUnscheduled())
+                .append(",\"distributionViolations\":").append(evaluation.getDistributionViolations())
+                .append(",\"roomConflicts\":").append(evaluation.getRoomConflicts())
+                .append(",\"roomUnavailable\":").append(evaluation.getRoomUnavailable())
+                .append(",\"classLimitViolations\":").append(classLimitViolations)
+                .append(",\"enrollmentViolations\":").append(enrollmentViolations)
+                .append(",\"millis\":").append(nanos / 1_000_000)
+                .append(",\"errorCount\":").append(errors.size())
+                .append(",\"errors\":[");
+        for (int i = 0; i < Math.min(errors.size(), MAX_JSON_ERRORS); i++) {
+            if (i > 0) json.append(',');
+            appendString(json, errors.get(i));
+        }
+        return json.append("]}").toString();
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationReport{" + "instance=" + instance + ", valid=" + isValid() + ", evaluation=" + evaluation
+                + ", classLimitViolations=" + classLimitViolations + ", enrollmentViolations=" + enrollmentViolations
+                + ", errors=" + errors.size() + '}';
+    }
+
+    /**
+     * Appends the given string to the given JSON as a quoted and escaped JSON string.
+     *
+     * @param json  The JSON.
+     * @param value The string, or null.
+     */
+    static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        char c;
+        for (int i = 0; i < value.length(); i++) {
+            c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+                    break;
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,189 @@
+package com.dataset;
+
+import com.utils.Evaluation;
+import com.utils.Timetable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * This class checks the snapshots of a problem instance (see ProblemSnapshot):
+ * <p>
+ * 1) Round trip: the problem instance is written to a snapshot and read back, and the snapshot of the read instance
+ * must have the same bytes, and the same random timetable (times, rooms, and enrollments) must have the same evaluation
+ * on both instances;
+ * <p>
+ * 2) Truncation: every prefix of the first bytes of the snapshot, and prefixes spread over the rest of it, must be
+ * rejected with an IOException;
+ * <p>
+ * 3) Corruption: the snapshot with a random bit flipped must be rejected with an IOException, and with the checksum
+ * fixed after the flip (so the decoding itself is reached), it must either be rejected with an IOException or read
+ * successfully, never fail with any other exception.
+ * <p>
+ * Usage: java com.dataset.ProblemSnapshotCheck problem.xml [flips] [seed]
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class ProblemSnapshotCheck {
+    private static final int DENSE_PREFIX = 256;
+    private static final int SPREAD_PREFIXES = 500;
+    private static final int MAX_REPORTED = 5;
+    private static int failures;
+
+    /**
+     * Runs the check.
+     *
+     * @param args The path of the problem instance XML file, and optionally the number of bit flips (default 200) and
+     *             the random seed (default 1).
+     * @throws Exception If the problem instance cannot be loaded or a temporary file cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java com.dataset.ProblemSnapshotCheck problem.xml [flips] [seed]");
+            System.exit(2);
+        }
+        final int flips = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        final Random random = new Random(args.length > 2 ? Long.parseLong(args[2]) : 1);
+        final Problem problem = new ProblemLoader().load(Paths.get(args[0]));
+        final Path file = Files.createTempFile("snapshot", ".bin"), copy = Files.createTempFile("snapshot", ".bin");
+        try {
+            ProblemSnapshot.write(problem, file);
+            final byte[] bytes = Files.readAllBytes(file);
+            final Problem read = ProblemSnapshot.read(file);
+            ProblemSnapshot.write(read, copy);
+            if (!Arrays.equals(bytes, Files.readAllBytes(copy)))
+                fail("The snapshot of the read problem instance differs from the original snapshot.");
+            checkEvaluation(problem, read, random);
+
+            int truncated = 0;
+            for (int length = 0; length < bytes.length; length++)
+                if (length < DENSE_PREFIX || random.nextInt(bytes.length) < SPREAD_PREFIXES) {
+                    Files.write(copy, Arrays.copyOf(bytes, length));
+                    expectIOException(copy, "truncated to " + length + " bytes");
+                    truncated++;
+                }
+
+            int rejected = 0;
+            for (int i = 0; i < flips; i++) {
+                final byte[] corrupt = bytes.clone();
+                final int position = random.nextInt(bytes.length), bit = random.nextInt(8);
+                corrupt[position] ^= (byte) (1 << bit);
+                Files.write(copy, corrupt);
+                expectIOException(copy, "bit " + bit + " of byte " + position + " flipped");
+                if (position >= bytes.length - 4) continue;
+                fixChecksum(corrupt);
+                Files.write(copy, corrupt);
+                try {
+                    ProblemSnapshot.read(copy);
+                } catch (IOException e) {
+                    rejected++;
+                } catch (RuntimeException e) {
+                    fail("Bit " + bit + " of byte " + position + " flipped (checksum fixed): " + e);
+                }
+            }
+            System.out.println(bytes.length + " bytes, " + truncated + " truncations, " + flips + " bit flips ("
+                    + rejected + " rejected by the decoding with the checksum fixed), " + failures + " failures.");
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(copy);
+        }
+        if (failures > 0) System.exit(1);
+    }
+
+    /**
+     * Checks that the same random timetable has the same evaluation on the given problem instances.
+     *
+     * @param problem The original problem instance.
+     * @param read    The problem instance read from its snapshot.
+     * @param random  The random number generator.
+     */
+    private static void checkEvaluation(Problem problem, Problem read, Random random) {
+        if (problem.getClasses().length != read.getClasses().length
+                || problem.getStudents().length != read.getStudents().length) {
+            fail("The read problem instance has " + read.getClasses().length + " classes and "
+                    + read.getStudents().length + " students instead of " + problem.getClasses().length + " and "
+                    + problem.getStudents().length + '.');
+            return;
+        }
+        final Timetable original = new Timetable(problem), copy = new Timetable(read);
+        for (Class aClass : problem.getClasses()) {
+            final int timeIndex = random.nextInt(aClass.getPossibleTimeAssignments().length);
+            final int roomIndex = !aClass.requiresRoom() ? -1
+                    : random.nextInt(aClass.getPossibleRoomAssignments().length);
+            original.assign(aClass.getId(), timeIndex, roomIndex);
+            copy.assign(aClass.getId(), timeIndex, roomIndex);
+        }
+        for (Student student : problem.getStudents())
+            for (int i = 0; i < 4; i++) {
+                final int classId = 1 + random.nextInt(problem.getClasses().length);
+                if (original.getStudentSchedules().isEnrolled(student.getId(), classId)) continue;
+                original.enroll(classId, student.getId());
+                copy.enroll(classId, student.getId());
+            }
+        if (!sameComponents(original.getEvaluation(), copy.getEvaluation()))
+            fail("The same timetable is evaluated as " + original.getEvaluation() + " on the original and as "
+                    + copy.getEvaluation() + " on the read problem instance.");
+    }
+
+    /**
+     * Checks if the given evaluations (of timetables of different problem instances) have the same components.
+     *
+     * @param a The first evaluation.
+     * @param b The second evaluation.
+     * @return True if all the components of the evaluations are the same, and false otherwise.
+     */
+    private static boolean sameComponents(Evaluation a, Evaluation b) {
+        return a.getUnscheduled() == b.getUnscheduled()
+                && a.getDistributionViolations() == b.getDistributionViolations()
+                && a.getRoomConflicts() == b.getRoomConflicts() && a.getRoomUnavailable() == b.getRoomUnavailable()
+                && a.getTimePenalty() == b.getTimePenalty() && a.getRoomPenalty() == b.getRoomPenalty()
+                && a.getDistributionPenalty() == b.getDistributionPenalty()
+                && a.getStudentConflicts() == b.getStudentConflicts() && a.getTotalPenalty() == b.getTotalPenalty();
+    }
+
+    /**
+     * Checks that reading the given snapshot is rejected with an IOException.
+     *
+     * @param file        The snapshot file.
+     * @param description The description of the damage (for the report).
+     */
+    private static void expectIOException(Path file, String description) {
+        try {
+            ProblemSnapshot.read(file);
+            fail("The snapshot with " + description + " was read.");
+        } catch (IOException e) {
+            // expected
+        } catch (RuntimeException e) {
+            fail("The snapshot with " + description + " failed with " + e);
+        }
+    }
+
+    /**
+     * Replaces the checksum at the end of the given snapshot bytes with the checksum of the preceding bytes.
+     *
+     * @param bytes The snapshot bytes.
+     */
+    private static void fixChecksum(byte[] bytes) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        ByteBuffer.wrap(bytes).putInt(bytes.length - 4, (int) crc.getValue());
+    }
+
+    /**
+     * Reports the given failure, printing only the first few of them.
+     *
+     * @param message The failure message.
+     */
+    private static void fail(String message) {
+        if (++failures <= MAX_REPORTED) System.err.println(message);
+    }
+}
@@ -0,0 +1,208 @@
+package com.dataset.constraints;
+
+import com.dataset.Class;
+import com.dataset.Problem;
+import com.dataset.ProblemLoader;
+import com.dataset.Room;
+import com.dataset.Time;
+import com.dataset.TimeAssignment;
+import com.utils.LogicalOperators;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class measures the pair checks of the distribution constraints (see PairDistributionConstraint.check(Time,
+ * Room, Time, Room)) on the times of a problem instance. Random pairs of the distinct (interned) times of the classes
+ * of the problem instance, with random rooms, are checked by SameAttendees (with the travel times of the problem
+ * instance), MinGap, WorkDays, and Precedence. The checks are called through the abstract method of
+ * PairDistributionConstraint, as the constraints call them, and the best time per pair of the measured rounds of each
+ * constraint is printed.
+ * <p>
+ * As a baseline, the same pairs are run through the mix of logical operators that the pair constraints use over
+ * boolean arrays (see LogicalOperators) and over the bit masks of the times: whether the weeks and days of the two
+ * times intersect (andIsFalse), whether they are subsets of each other (areSubsets), and the first week and day of
+ * each time (firstTrueIndex). The results of both versions are checked to be the same, and the speedup of the bit
+ * masks is printed.
+ * <p>
+ * Usage: java com.dataset.constraints.PairConstraintBenchmark problem.xml [pairs] [rounds] [seed]
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.2
+ */
+public class PairConstraintBenchmark {
+    private static final int MIN_GAP = 12;
+    private static final int WORK_DAYS_MAX = 96;
+    private static final int WARM_UP_ROUNDS = 5;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The path of the problem instance XML file, and optionally the number of pairs per round (default
+     *             10,000,000), the number of measured rounds (default 5), and the random seed (default 1).
+     * @throws Exception If the problem instance cannot be loaded.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java com.dataset.constraints.PairConstraintBenchmark problem.xml [pairs] "
+                    + "[rounds] [seed]");
+            System.exit(2);
+        }
+        final int pairNo = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        final int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final Random random = new Random(args.length > 3 ? Long.parseLong(args[3]) : 1);
+        final Problem problem = new ProblemLoader().load(Paths.get(args[0]));
+        final Time[] times = classTimes(problem);
+        final Room[] rooms = problem.getRooms();
+        final boolean[][] weeks = new boolean[times.length][], days = new boolean[times.length][];
+        for (int i = 0; i < times.length; i++) {
+            weeks[i] = toBooleans(times[i].getWeeksMask(), times[i].getWeeksLength());
+            days[i] = toBooleans(new long[]{times[i].getDaysMask()}, times[i].getDaysLength());
+        }
+        final int[] pairs = new int[2 * Math.min(pairNo, 1 << 20)];
+        final Room[] pairRooms = new Room[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = random.nextInt(times.length);
+            pairRooms[i] = rooms.length == 0 ? null : rooms[random.nextInt(rooms.length)];
+        }
+        final Class[] noClasses = new Class[0];
+        final PairDistributionConstraint[] constraints = {new SameAttendees(noClasses, problem.getTravelTime()),
+                new MinGap(noClasses, MIN_GAP), new WorkDays(noClasses, WORK_DAYS_MAX), new Precedence(noClasses)};
+        final long[] checkNanos = new long[constraints.length];
+        final int[] checkResults = new int[constraints.length];
+        Arrays.fill(checkNanos, Long.MAX_VALUE);
+        long booleansNanos = Long.MAX_VALUE, masksNanos = Long.MAX_VALUE, start;
+        int booleansResult, masksResult = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + rounds; round++) {
+            for (int c = 0; c < constraints.length; c++) {
+                start = System.nanoTime();
+                checkResults[c] = runChecks(constraints[c], times, pairs, pairRooms, pairNo);
+                if (round >= WARM_UP_ROUNDS) checkNanos[c] = Math.min(checkNanos[c], System.nanoTime() - start);
+            }
+            start = System.nanoTime();
+            booleansResult = runBooleans(weeks, days, pairs, pairNo);
+            if (round >= WARM_UP_ROUNDS) booleansNanos = Math.min(booleansNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            masksResult = runMasks(times, pairs, pairNo);
+            if (round >= WARM_UP_ROUNDS) masksNanos = Math.min(masksNanos, System.nanoTime() - start);
+            if (booleansResult != masksResult)
+                throw new IllegalStateException("The boolean arrays (" + booleansResult + ") and the bit masks ("
+                        + masksResult + ") disagree.");
+        }
+        System.out.printf("%s: %,d class times, %,d rooms, %,d pairs, %d weeks, best of %d rounds%n", problem.getName(),
+                times.length, rooms.length, pairNo, problem.getNrWeeks(), rounds);
+        for (int c = 0; c < constraints.length; c++)
+            System.out.printf("%-20s %6.1f ns/pair  (%,d satisfied)%n", constraints[c].getType(),
+                    (double) checkNanos[c] / pairNo, checkResults[c]);
+        System.out.printf("operators boolean[]   %6.1f ns/pair%n", (double) booleansNanos / pairNo);
+        System.out.printf("operators bit masks   %6.1f ns/pair  (checksum %d)%n", (double) masksNanos / pairNo,
+                masksResult);
+        System.out.printf("operators speedup     %6.1fx%n", (double) booleansNanos / masksNanos);
+    }
+
+    /**
+     * Returns the distinct times of the possible time assignments of the classes of the given problem instance (the
+     * interned times that the pair constraints check, without the unavailable times of the rooms).
+     *
+     * @param problem The problem instance.
+     * @return Class times.
+     */
+    private static Time[] classTimes(Problem problem) {
+        final boolean[] seen = new boolean[problem.getTimes().length];
+        int n = 0;
+        for (Class aClass : problem.getClasses())
+            for (TimeAssignment timeAssignment : aClass.getPossibleTimeAssignments())
+                if (!seen[timeAssignment.getTime().getId()]) {
+                    seen[timeAssignment.getTime().getId()] = true;
+                    n++;
+                }
+        final Time[] times = new Time[n];
+        for (Time time : problem.getTimes())
+            if (seen[time.getId()]) times[--n] = time;
+        return times;
+    }
+
+    /**
+     * Checks the given pairs of times (and rooms) with the given constraint.
+     *
+     * @param constraint The pair constraint.
+     * @param times      The times of the classes.
+     * @param pairs      The indexes of the times of the pairs (two per pair), used cyclically.
+     * @param rooms      The rooms of the pairs (two per pair), used cyclically.
+     * @param pairNo     The number of pairs.
+     * @return The number of pairs that satisfy the constraint.
+     */
+    private static int runChecks(PairDistributionConstraint constraint, Time[] times, int[] pairs, Room[] rooms,
+                                 int pairNo) {
+        int result = 0;
+        for (int i = 0, p = 0; i < pairNo; i++, p = p + 2 == pairs.length ? 0 : p + 2)
+            if (constraint.check(times[pairs[p]], rooms[p], times[pairs[p + 1]], rooms[p + 1])) result++;
+        return result;
+    }
+
+    /**
+     * Runs the mix of operators over the boolean arrays of the given pairs of times.
+     *
+     * @param weeks  The weeks of the times.
+     * @param days   The days of the times.
+     * @param pairs  The indexes of the times of the pairs (two per pair), used cyclically.
+     * @param pairNo The number of pairs.
+     * @return A checksum of the results of the operators.
+     */
+    private static int runBooleans(boolean[][] weeks, boolean[][] days, int[] pairs, int pairNo) {
+        int result = 0, a, b;
+        for (int i = 0, p = 0; i < pairNo; i++, p = p + 2 == pairs.length ? 0 : p + 2) {
+            a = pairs[p];
+            b = pairs[p + 1];
+            if (!LogicalOperators.andIsFalse(weeks[a], weeks[b]) && !LogicalOperators.andIsFalse(days[a], days[b]))
+                result++;
+            if (LogicalOperators.areSubsets(weeks[a], weeks[b])) result += 3;
+            if (LogicalOperators.areSubsets(days[a], days[b])) result += 5;
+            result += LogicalOperators.firstTrueIndex(weeks[a]) - LogicalOperators.firstTrueIndex(weeks[b]);
+            result += LogicalOperators.firstTrueIndex(days[a]) - LogicalOperators.firstTrueIndex(days[b]);
+        }
+        return result;
+    }
+
+    /**
+     * Runs the mix of operators over the bit masks of the given pairs of times.
+     *
+     * @param times  The times of the classes.
+     * @param pairs  The indexes of the times of the pairs (two per pair), used cyclically.
+     * @param pairNo The number of pairs.
+     * @return A checksum of the results of the operators.
+     */
+    private static int runMasks(Time[] times, int[] pairs, int pairNo) {
+        int result = 0;
+        Time a, b;
+        for (int i = 0, p = 0; i < pairNo; i++, p = p + 2 == pairs.length ? 0 : p + 2) {
+            a = times[pairs[p]];
+            b = times[pairs[p + 1]];
+            if (!LogicalOperators.andIsFalse(a.getWeeksMask(), b.getWeeksMask())
+                    && !LogicalOperators.andIsFalse(a.getDaysMask(), b.getDaysMask())) result++;
+            if (LogicalOperators.areSubsets(a.getWeeksMask(), b.getWeeksMask())) result += 3;
+            if (LogicalOperators.areSubsets(a.getDaysMask(), b.getDaysMask())) result += 5;
+            result += LogicalOperators.firstTrueIndex(a.getWeeksMask())
+                    - LogicalOperators.firstTrueIndex(b.getWeeksMask());
+            result += LogicalOperators.firstTrueIndex(a.getDaysMask())
+                    - LogicalOperators.firstTrueIndex(b.getDaysMask());
+        }
+        return result;
+    }
+
+    /**
+     * Converts the given bit mask (64 bits per item, as Time keeps it) to a boolean string of the given length.
+     *
+     * @param mask   The bit mask.
+     * @param length The length of the boolean string.
+     * @return The boolean string.
+     */
+    private static boolean[] toBooleans(long[] mask, int length) {
+        final boolean[] booleans = new boolean[length];
+        for (int i = 0; i < length; i++) booleans[i] = (mask[i >>> 6] & 1L << i) != 0;
+        return booleans;
+    }
+}
@@ -0,0 +1,113 @@
+package com.dataset.constraints;
+
+import com.dataset.Class;
+import com.dataset.Problem;
+import com.dataset.ProblemLoader;
+import com.utils.Timetable;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * This class checks that visiting the violations of the distribution constraints of a problem instance (see
+ * DistributionConstraint.visitViolations()) allocates nothing on the heap. It assigns random times and rooms to all
+ * the classes of the problem instance, warms up the visits, and then measures the bytes allocated by the current
+ * thread (see com.sun.management.ThreadMXBean.getCurrentThreadAllocatedBytes()) while the violations of each
+ * constraint are visited. The check fails if any visit allocates, either over pairs of classes (see
+ * PairDistributionConstraint) or over all the classes of a constraint (the default implementation, which evaluates the
+ * constraint with the buffers of the thread, see AggregateDistributionConstraint).
+ * <p>
+ * Usage: java com.dataset.constraints.ViolationVisitorAllocationCheck problem.xml [rounds]
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class ViolationVisitorAllocationCheck {
+    private static final int WARM_UP_ROUNDS = 20_000;
+    private static long visited;
+    private static final ViolationVisitor COUNTER = (constraint, classId1, classId2) -> {
+        visited++;
+        return true;
+    };
+
+    /**
+     * Runs the check.
+     *
+     * @param args The path of the problem instance XML file, and optionally the number of measured rounds.
+     * @throws Exception If the problem instance cannot be loaded.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java com.dataset.constraints.ViolationVisitorAllocationCheck problem.xml "
+                    + "[rounds]");
+            System.exit(2);
+        }
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        final Problem problem = new ProblemLoader().load(Paths.get(args[0]));
+        final Timetable timetable = new Timetable(problem);
+        final Random random = new Random(1);
+        for (Class aClass : problem.getClasses())
+            timetable.assign(aClass.getId(), random.nextInt(aClass.getPossibleTimeAssignments().length),
+                    aClass.getPossibleRoomAssignments() == null ? -1
+                            : random.nextInt(aClass.getPossibleRoomAssignments().length));
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("Thread allocated memory is not supported by this JVM.");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        final DistributionConstraint[] constraints = constraints(problem);
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) visitAll(timetable, constraints);
+        long overhead = Long.MAX_VALUE, before;
+        for (int i = 0; i < 10; i++) {
+            before = threads.getCurrentThreadAllocatedBytes();
+            overhead = Math.min(overhead, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        int failures = 0, pairs = 0;
+        long bytes;
+        for (DistributionConstraint constraint : constraints) {
+            if (constraint instanceof PairDistributionConstraint) pairs++;
+            before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < rounds; i++) constraint.visitViolations(timetable, COUNTER);
+            bytes = threads.getCurrentThreadAllocatedBytes() - before - overhead;
+            if (bytes > 0) {
+                failures++;
+                System.err.println(constraint.getType() + " allocated " + bytes + " bytes in " + rounds + " visits.");
+            }
+        }
+        System.out.println(constraints.length + " constraints (" + pairs + " pair constraints), " + visited
+                + " violations visited, " + failures + " allocating.");
+        if (failures > 0) System.exit(1);
+    }
+
+    /**
+     * Returns the hard and soft distribution constraints of the given problem instance.
+     *
+     * @param problem The problem instance.
+     * @return Distribution constraints.
+     */
+    private static DistributionConstraint[] constraints(Problem problem) {
+        final HardConstraint[] hardConstraints = problem.getHardConstraints();
+        final SoftConstraint[] softConstraints = problem.getSoftConstraints();
+        final DistributionConstraint[] constraints =
+                new DistributionConstraint[hardConstraints.length + softConstraints.length];
+        for (int i = 0; i < hardConstraints.length; i++) constraints[i] = hardConstraints[i].getConstraint();
+        for (int i = 0; i < softConstraints.length; i++)
+            constraints[hardConstraints.length + i] = softConstraints[i].getConstraint();
+        return constraints;
+    }
+
+    /**
+     * Visits the violations of all the given constraints once.
+     *
+     * @param timetable   The timetable.
+     * @param constraints The distribution constraints.
+     */
+    private static void visitAll(Timetable timetable, DistributionConstraint[] constraints) {
+        for (DistributionConstraint constraint : constraints) constraint.visitViolations(timetable, COUNTER);
+    }
+}
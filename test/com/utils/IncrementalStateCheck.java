@@ -0,0 +1,207 @@
+package com.utils;
+
+import com.dataset.Class;
+import com.dataset.Problem;
+import com.dataset.ProblemLoader;
+
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * This class checks the incremental state of a timetable (the room occupancy, the student schedules, the aggregate
+ * states of the distribution constraints, and the cached objective, see Timetable.getEvaluation()) and the delta
+ * evaluator (see DeltaEvaluator) against a full evaluation from scratch (see SolutionEvaluator). It applies random
+ * operations to a timetable of a problem instance: assigning a random time and room (or none) to a class, moving a
+ * class to another room at the same time, unassigning a class, and enrolling (unenrolling) a random student in (from)
+ * a random class. After each operation, the check asserts that:
+ * <p>
+ * 1) The cached evaluation of the timetable equals the evaluation from scratch;
+ * <p>
+ * 2) For assignments, the penalty and hard violation deltas of the delta evaluator (evaluated before the move) equal
+ * the actual changes of the total penalty and of the hard violations of the timetable;
+ * <p>
+ * 3) Every few operations, the student conflicts kept for each class (see StudentSchedules.getConflicts(int)) equal the
+ * conflicts counted from scratch.
+ * <p>
+ * Usage: java com.utils.IncrementalStateCheck problem.xml [operations] [seed]
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class IncrementalStateCheck {
+    private static final int CLASS_CHECK_PERIOD = 50;
+    private static final int MAX_REPORTED = 5;
+    private static int failures;
+
+    /**
+     * Runs the check.
+     *
+     * @param args The path of the problem instance XML file, and optionally the number of operations (default
+     *             5,000) and the random seed (default 1).
+     * @throws Exception If the problem instance cannot be loaded.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java com.utils.IncrementalStateCheck problem.xml [operations] [seed]");
+            System.exit(2);
+        }
+        final int operations = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        final Random random = new Random(args.length > 2 ? Long.parseLong(args[2]) : 1);
+        final Problem problem = new ProblemLoader().load(Paths.get(args[0]));
+        final Timetable timetable = new Timetable(problem);
+        final DeltaEvaluator evaluator = new DeltaEvaluator(timetable);
+        for (Class aClass : problem.getClasses())
+            if (random.nextInt(10) > 0) timetable.assign(aClass.getId(), randomTime(aClass, random),
+                    randomRoom(aClass, random));
+        if (problem.getStudents().length > 0)
+            for (int i = 0; i < 4 * problem.getStudents().length; i++) enroll(timetable, random);
+        checkEvaluation(timetable, "setup");
+        final int[] counts = new int[5];
+        for (int i = 0; i < operations; i++) {
+            final int operation = problem.getStudents().length == 0 ? random.nextInt(3) : random.nextInt(5);
+            final Class aClass = problem.getClasses()[random.nextInt(problem.getClasses().length)];
+            final Event event = timetable.getEvent(aClass.getId());
+            counts[operation]++;
+            switch (operation) {
+                case 0:
+                    checkMove(timetable, evaluator, aClass.getId(), randomTime(aClass, random),
+                            randomRoom(aClass, random), "assign");
+                    break;
+                case 1:
+                    checkMove(timetable, evaluator, aClass.getId(), event.getTimeIndex(), randomRoom(aClass, random),
+                            "room move");
+                    break;
+                case 2:
+                    checkMove(timetable, evaluator, aClass.getId(), -1, -1, "unassign");
+                    break;
+                case 3:
+                    enroll(timetable, random);
+                    checkEvaluation(timetable, "enroll");
+                    break;
+                default:
+                    unenroll(timetable, random);
+                    checkEvaluation(timetable, "unenroll");
+                    break;
+            }
+            if (i % CLASS_CHECK_PERIOD == 0) checkClassConflicts(timetable);
+        }
+        checkClassConflicts(timetable);
+        System.out.println(operations + " operations (" + counts[0] + " assign, " + counts[1] + " room move, "
+                + counts[2] + " unassign, " + counts[3] + " enroll, " + counts[4] + " unenroll), " + failures
+                + " failures. " + timetable.getEvaluation());
+        if (failures > 0) System.exit(1);
+    }
+
+    /**
+     * Evaluates the given move with the delta evaluator, applies it to the timetable, and checks the deltas and the
+     * evaluation of the timetable.
+     *
+     * @param timetable The timetable.
+     * @param evaluator The delta evaluator of the timetable.
+     * @param classId   The class id.
+     * @param timeIndex The new time index, or -1.
+     * @param roomIndex The new room index, or -1.
+     * @param operation The name of the operation (for the report).
+     */
+    private static void checkMove(Timetable timetable, DeltaEvaluator evaluator, int classId, int timeIndex,
+                                  int roomIndex, String operation) {
+        final int penalty = timetable.getTotalPenalty(), hard = timetable.getHardViolations();
+        final int delta = evaluator.evaluateMove(classId, timeIndex, roomIndex), hardDelta = evaluator.getHardDelta();
+        timetable.assign(classId, timeIndex, roomIndex);
+        if (timetable.getTotalPenalty() - penalty != delta || timetable.getHardViolations() - hard != hardDelta)
+            fail(operation + " of class " + classId + ": evaluated delta " + delta + " (hard " + hardDelta
+                    + "), actual delta " + (timetable.getTotalPenalty() - penalty) + " (hard "
+                    + (timetable.getHardViolations() - hard) + ")");
+        checkEvaluation(timetable, operation + " of class " + classId);
+    }
+
+    /**
+     * Checks that the cached evaluation of the given timetable equals its evaluation from scratch.
+     *
+     * @param timetable The timetable.
+     * @param operation The last operation (for the report).
+     */
+    private static void checkEvaluation(Timetable timetable, String operation) {
+        final Evaluation cached = timetable.getEvaluation(), evaluated = SolutionEvaluator.evaluate(timetable);
+        if (!cached.equals(evaluated)) fail("after " + operation + ": cached " + cached + ", evaluated " + evaluated);
+    }
+
+    /**
+     * Checks that the student conflicts kept for each class of the given timetable equal the conflicts counted from
+     * scratch.
+     *
+     * @param timetable The timetable.
+     */
+    private static void checkClassConflicts(Timetable timetable) {
+        final StudentSchedules schedules = timetable.getStudentSchedules();
+        for (Event event : timetable.getEvents()) {
+            final int classId = event.getTheClass().getId();
+            final int counted = event.getTimeAssignment() == null ? 0 : schedules.countConflicts(event,
+                    event.getTimeAssignment().getTime(), event.getRoomAssignment());
+            if (schedules.getConflicts(classId) != counted)
+                fail("class " + classId + " keeps " + schedules.getConflicts(classId) + " student conflicts, counted "
+                        + counted);
+        }
+    }
+
+    /**
+     * Enrolls a random student in a random class that the student is not enrolled in yet.
+     *
+     * @param timetable The timetable.
+     * @param random    The random number generator.
+     */
+    private static void enroll(Timetable timetable, Random random) {
+        final Problem problem = timetable.getProblem();
+        final int studentId = 1 + random.nextInt(problem.getStudents().length);
+        final int classId = 1 + random.nextInt(problem.getClasses().length);
+        if (!timetable.getStudentSchedules().isEnrolled(studentId, classId)) timetable.enroll(classId, studentId);
+    }
+
+    /**
+     * Removes a random student from one of their classes.
+     *
+     * @param timetable The timetable.
+     * @param random    The random number generator.
+     */
+    private static void unenroll(Timetable timetable, Random random) {
+        final StudentSchedules schedules = timetable.getStudentSchedules();
+        final int studentId = 1 + random.nextInt(timetable.getProblem().getStudents().length);
+        final int n = schedules.getEventCount(studentId);
+        if (n > 0) timetable.unenroll(schedules.getClassId(studentId, random.nextInt(n)), studentId);
+    }
+
+    /**
+     * Returns the index of a random possible time of the given class, or -1 (no time) with probability 1/8.
+     *
+     * @param aClass The class.
+     * @param random The random number generator.
+     * @return Time index.
+     */
+    private static int randomTime(Class aClass, Random random) {
+        return random.nextInt(8) == 0 ? -1 : random.nextInt(aClass.getPossibleTimeAssignments().length);
+    }
+
+    /**
+     * Returns the index of a random possible room of the given class, or -1 (no room) if the class does not require a
+     * room or with probability 1/8.
+     *
+     * @param aClass The class.
+     * @param random The random number generator.
+     * @return Room index.
+     */
+    private static int randomRoom(Class aClass, Random random) {
+        return !aClass.requiresRoom() || random.nextInt(8) == 0 ? -1
+                : random.nextInt(aClass.getPossibleRoomAssignments().length);
+    }
+
+    /**
+     * Reports the given failure, printing only the first few of them.
+     *
+     * @param message The failure message.
+     */
+    private static void fail(String message) {
+        if (++failures <= MAX_REPORTED) System.err.println(message);
+    }
+}
@@ -0,0 +1,149 @@
+package com.utils;
+
+import com.dataset.Class;
+import com.dataset.Problem;
+import com.dataset.ProblemLoader;
+import com.dataset.Student;
+import com.dataset.Time;
+import com.dataset.TimeAssignment;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class checks that a timetable written by SolutionWriter is read back by SolutionReader into the same times,
+ * rooms, and students, with the same evaluation. It builds a random complete timetable (every class has a time, and a
+ * room if it requires one) with random enrollments, writes it, reads it back, and asserts that the reader reports no
+ * errors, that every class has the same time, room, and students, and that the evaluations are the same.
+ * <p>
+ * A solution does not give the length or the penalty of a time, so the possible times of a class that differ only in
+ * length or penalty cannot be told apart (see SolutionReader), and the reader takes the first of them. For such
+ * classes, the random timetable uses the first of the indistinguishable times, so the round trip is still exact; the
+ * number of these classes is reported.
+ * <p>
+ * Usage: java com.utils.SolutionRoundTripCheck problem.xml [seed]
+ * <p>
+ * Created by Sina on 17-Oct-26
+ *
+ * @author Sina
+ * @version 0.1
+ */
+public class SolutionRoundTripCheck {
+    private static final int MAX_REPORTED = 5;
+    private static int failures;
+
+    /**
+     * Runs the check.
+     *
+     * @param args The path of the problem instance XML file, and optionally the random seed (default 1).
+     * @throws Exception If the problem instance cannot be loaded or the solution cannot be written or read.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java com.utils.SolutionRoundTripCheck problem.xml [seed]");
+            System.exit(2);
+        }
+        final Random random = new Random(args.length > 1 ? Long.parseLong(args[1]) : 1);
+        final Problem problem = new ProblemLoader().load(Paths.get(args[0]));
+        final Timetable timetable = new Timetable(problem);
+        int ambiguous = 0;
+        for (Class aClass : problem.getClasses()) {
+            final TimeAssignment[] times = aClass.getPossibleTimeAssignments();
+            final int timeIndex = firstIndistinguishable(times, random.nextInt(times.length));
+            if (hasIndistinguishable(times)) ambiguous++;
+            timetable.assign(aClass.getId(), timeIndex,
+                    aClass.requiresRoom() ? random.nextInt(aClass.getPossibleRoomAssignments().length) : -1);
+        }
+        for (Student student : problem.getStudents())
+            for (int i = 0; i < 4; i++) {
+                final int classId = 1 + random.nextInt(problem.getClasses().length);
+                if (!timetable.getStudentSchedules().isEnrolled(student.getId(), classId))
+                    timetable.enroll(classId, student.getId());
+            }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SolutionWriter(problem).write(timetable, out);
+        final SolutionReader reader = new SolutionReader(problem);
+        final Timetable read = reader.read(new ByteArrayInputStream(out.toByteArray()));
+        for (String error : reader.getErrors()) fail("Reader error: " + error);
+        for (Event event : timetable.getEvents()) {
+            final int classId = event.getTheClass().getId();
+            final Event other = read.getEvent(classId);
+            if (event.getTimeIndex() != other.getTimeIndex() || event.getRoomIndex() != other.getRoomIndex())
+                fail("Class " + classId + " is read with time " + other.getTimeIndex() + " and room "
+                        + other.getRoomIndex() + " instead of " + event.getTimeIndex() + " and "
+                        + event.getRoomIndex() + '.');
+            if (!Arrays.equals(studentIds(event), studentIds(other)))
+                fail("Class " + classId + " is read with other students.");
+        }
+        final Evaluation written = timetable.getEvaluation(), evaluated = read.getEvaluation();
+        if (!written.equals(evaluated)) fail("The written timetable is evaluated as " + written
+                + " and the read timetable as " + evaluated + '.');
+        System.out.println(problem.getClasses().length + " classes (" + ambiguous + " with indistinguishable times), "
+                + out.size() + " bytes, " + failures + " failures. " + evaluated);
+        if (failures > 0) System.exit(1);
+    }
+
+    /**
+     * Returns the index of the first of the given times that cannot be told apart from the time with the given index in
+     * a solution (the same days, start, and weeks).
+     *
+     * @param times The possible times of a class.
+     * @param index The index of a time.
+     * @return The index of the first indistinguishable time (at most the given index).
+     */
+    private static int firstIndistinguishable(TimeAssignment[] times, int index) {
+        for (int i = 0; i < index; i++)
+            if (indistinguishable(times[i].getTime(), times[index].getTime())) return i;
+        return index;
+    }
+
+    /**
+     * Checks if any two of the given times cannot be told apart in a solution.
+     *
+     * @param times The possible times of a class.
+     * @return True if two of the times have the same days, start, and weeks, and false otherwise.
+     */
+    private static boolean hasIndistinguishable(TimeAssignment[] times) {
+        for (int i = 1; i < times.length; i++)
+            if (firstIndistinguishable(times, i) != i) return true;
+        return false;
+    }
+
+    /**
+     * Checks if the given times have the same days, start, and weeks (so they are written the same in a solution).
+     *
+     * @param a The first time.
+     * @param b The second time.
+     * @return True if the times are written the same, and false otherwise.
+     */
+    private static boolean indistinguishable(Time a, Time b) {
+        return a.getStart() == b.getStart() && a.getDaysMask() == b.getDaysMask()
+                && Arrays.equals(a.getWeeksMask(), b.getWeeksMask());
+    }
+
+    /**
+     * Returns the sorted ids of the students of the given event.
+     *
+     * @param event The event.
+     * @return Student ids.
+     */
+    private static int[] studentIds(Event event) {
+        final int[] ids = new int[event.getStudents().size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = event.getStudents().get(i).getId();
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Reports the given failure, printing only the first few of them.
+     *
+     * @param message The failure message.
+     */
+    private static void fail(String message) {
+        if (++failures <= MAX_REPORTED) System.err.println(message);
+    }
+}